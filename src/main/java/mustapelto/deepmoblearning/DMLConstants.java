@@ -40,6 +40,7 @@ public class DMLConstants {
         public static final int TRIAL_AREA_RADIUS = 7; // Block radius of area that must be solid blocks, not including keystone itself
         public static final int TRIAL_AREA_HEIGHT = 9; // Block height of area that must be air blocks, not including keystone layer
         public static final int TRIAL_ARENA_RADIUS = 21; // Geometric radius of area inside of which players are considered to be part of a trial
+        public static final int TRIAL_RESUME_TIMEOUT = 6000; // Ticks a loaded trial waits for its participants to come back before failing
     }
 
     public static final class DefaultModels {
@@ -3,7 +3,9 @@ package mustapelto.deepmoblearning;
 import mustapelto.deepmoblearning.common.DMLGuiHandler;
 import mustapelto.deepmoblearning.common.DMLRegistry;
 import mustapelto.deepmoblearning.common.ServerProxy;
+import mustapelto.deepmoblearning.common.capability.CapabilityGlitchArmor;
 import mustapelto.deepmoblearning.common.capability.CapabilityPlayerTrial;
+import mustapelto.deepmoblearning.common.commands.CommandDML;
 import mustapelto.deepmoblearning.common.metadata.MetadataManager;
 import mustapelto.deepmoblearning.common.network.DMLPacketHandler;
 import mustapelto.deepmoblearning.common.patchouli.PatchouliModule;
@@ -19,6 +21,7 @@ import net.minecraftforge.fml.common.SidedProxy;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
+import net.minecraftforge.fml.common.event.FMLServerStartingEvent;
 import net.minecraftforge.fml.common.network.NetworkRegistry;
 import net.minecraftforge.fml.relauncher.Side;
 import org.apache.logging.log4j.Logger;
@@ -63,6 +66,7 @@ public class DMLRelearned
 
         // Capabilities
         CapabilityPlayerTrial.init();
+        CapabilityGlitchArmor.init();
 
         // Misc
         AffixHelper.registerAffixes();
@@ -90,6 +94,12 @@ public class DMLRelearned
         }
     }
 
+    @EventHandler
+    public void serverStarting(FMLServerStartingEvent event)
+    {
+        event.registerServerCommand(new CommandDML());
+    }
+
     public static final CreativeTabs creativeTab = new CreativeTabs(DMLConstants.ModInfo.ID) {
         @Override
         public ItemStack createIcon() {
@@ -69,6 +69,8 @@ public class GuiDeepLearner extends GuiContainerBase {
 
     @Nullable
     private MetadataDataModel.DeepLearnerDisplayData currentDisplayData;
+    @Nullable private Entity displayEntity; // Created once per displayed model, not every frame
+    @Nullable private Entity extraDisplayEntity;
 
     private ImmutableList<ImmutablePair<String, Integer>> defaultStringList;
 
@@ -131,6 +133,8 @@ public class GuiDeepLearner extends GuiContainerBase {
             currentModelStack = ItemStack.EMPTY;
             currentModelMetadata = null;
             currentDisplayData = null;
+            displayEntity = null;
+            extraDisplayEntity = null;
             setModelSelectButtonsEnabled(false);
             return;
         }
@@ -142,7 +146,12 @@ public class GuiDeepLearner extends GuiContainerBase {
 
         currentModelStack = dataModels.get(currentModelIndex);
         currentModelMetadata = DataModelHelper.getDataModelMetadata(currentModelStack).orElse(null);
-        currentDisplayData = currentModelMetadata != null ? currentModelMetadata.getDeepLearnerDisplayData() : null;
+        MetadataDataModel.DeepLearnerDisplayData displayData = currentModelMetadata != null ? currentModelMetadata.getDeepLearnerDisplayData() : null;
+        if (displayData != currentDisplayData) {
+            currentDisplayData = displayData;
+            displayEntity = displayData != null ? displayData.getEntity(world).orElse(null) : null;
+            extraDisplayEntity = displayData != null ? displayData.getExtraEntity(world).orElse(null) : null;
+        }
 
         setModelSelectButtonsEnabled(dataModels.size() > 1);
     }
@@ -238,23 +247,23 @@ public class GuiDeepLearner extends GuiContainerBase {
 
         GlStateManager.pushAttrib();
 
-        // Get and render main entity
-        currentDisplayData.getEntity(world)
-                .ifPresent(entity -> renderEntity(
-                        entity,
-                        currentDisplayData.getEntityScale(),
-                        guiLeft + MOB_DISPLAY_ENTITY.X + currentDisplayData.getEntityOffsetX(),
-                        guiTop + MOB_DISPLAY_ENTITY.Y + currentDisplayData.getEntityOffsetY()
-                ));
-
-        // Get and render extra entity
-        currentDisplayData.getExtraEntity(world)
-                .ifPresent(entity -> renderEntity(
-                        entity,
-                        currentDisplayData.getEntityScale(),
-                        guiLeft + MOB_DISPLAY_ENTITY.X + currentDisplayData.getExtraEntityOffsetX(),
-                        guiTop + MOB_DISPLAY_ENTITY.Y + currentDisplayData.getExtraEntityOffsetY()
-                ));
+        // Render main entity
+        if (displayEntity != null)
+            renderEntity(
+                    displayEntity,
+                    currentDisplayData.getEntityScale(),
+                    guiLeft + MOB_DISPLAY_ENTITY.X + currentDisplayData.getEntityOffsetX(),
+                    guiTop + MOB_DISPLAY_ENTITY.Y + currentDisplayData.getEntityOffsetY()
+            );
+
+        // Render extra entity
+        if (extraDisplayEntity != null)
+            renderEntity(
+                    extraDisplayEntity,
+                    currentDisplayData.getEntityScale(),
+                    guiLeft + MOB_DISPLAY_ENTITY.X + currentDisplayData.getExtraEntityOffsetX(),
+                    guiTop + MOB_DISPLAY_ENTITY.Y + currentDisplayData.getExtraEntityOffsetY()
+            );
 
         GlStateManager.popAttrib();
     }
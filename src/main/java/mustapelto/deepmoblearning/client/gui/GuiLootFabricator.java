@@ -7,6 +7,7 @@ import mustapelto.deepmoblearning.client.gui.buttons.ButtonItemDeselect;
 import mustapelto.deepmoblearning.client.gui.buttons.ButtonItemSelect;
 import mustapelto.deepmoblearning.client.gui.buttons.ButtonPageSelect;
 import mustapelto.deepmoblearning.common.metadata.MetadataDataModel;
+import mustapelto.deepmoblearning.common.tiles.LootFabricatorPlan;
 import mustapelto.deepmoblearning.common.tiles.TileEntityLootFabricator;
 import mustapelto.deepmoblearning.common.util.MathHelper;
 import mustapelto.deepmoblearning.common.util.Point;
@@ -52,6 +53,8 @@ public class GuiLootFabricator extends GuiMachine {
 
     private static final int ITEMS_PER_PAGE = 9;
 
+    private static final int[] PLAN_STOCK_LIMITS = { LootFabricatorPlan.NO_STOCK_LIMIT, 64, 256, 1024 }; // Cycled with shift + right-click
+
     private static final int PREV_PAGE_BUTTON_ID = 10;
     private static final int NEXT_PAGE_BUTTON_ID = 11;
     private static final int DESELECT_BUTTON_ID = 12;
@@ -111,10 +114,20 @@ public class GuiLootFabricator extends GuiMachine {
             resetOutputData();
         }
 
+        // Output item changes every cycle if a production plan is set
+        if (!ItemStack.areItemStacksEqual(outputItem, lootFabricator.getOutputItem())) {
+            outputItem = lootFabricator.getOutputItem();
+            deselectButton.setDisplayStack(outputItem);
+        }
+
+        updateOutputSelectButtons();
+
         if (!lootFabricator.isRedstoneActive())
             craftingError = CraftingError.REDSTONE;
         else if (!lootFabricator.hasPristineMatter())
             craftingError = CraftingError.NO_PRISTINE;
+        else if (lootFabricator.isPlanWaiting())
+            craftingError = CraftingError.PLAN_WAITING;
         else if (outputItem == ItemStack.EMPTY)
             craftingError = CraftingError.NO_OUTPUT_SELECTED;
         else if (!lootFabricator.hasRoomForOutput())
@@ -152,6 +165,7 @@ public class GuiLootFabricator extends GuiMachine {
     private void rebuildOutputSelectButtons() {
         outputSelectButtons.clear();
         constructOutputSelectButtonRows();
+        updateOutputSelectButtons();
         buttonListNeedsRebuild = true;
     }
 
@@ -178,6 +192,64 @@ public class GuiLootFabricator extends GuiMachine {
         }
     }
 
+    /**
+     * Update selection state and production plan tooltips of output select buttons
+     */
+    private void updateOutputSelectButtons() {
+        LootFabricatorPlan plan = lootFabricator.getPlan();
+
+        for (ButtonItemSelect button : outputSelectButtons) {
+            ImmutableList.Builder<String> tooltip = ImmutableList.builder();
+            int planIndex = plan.indexOf(button.getStack());
+
+            if (planIndex != -1) {
+                LootFabricatorPlan.Entry entry = plan.getEntries().get(planIndex);
+                tooltip.add(I18n.format("deepmoblearning.loot_fabricator.tooltip.plan_ratio", entry.getRatio()));
+                if (entry.hasStockLimit())
+                    tooltip.add(I18n.format("deepmoblearning.loot_fabricator.tooltip.plan_stock_limit", entry.getStockLimit()));
+                button.setSelected(true);
+            } else {
+                button.setSelected(plan.isEmpty() && ItemStack.areItemsEqual(button.getStack(), outputItem));
+            }
+
+            tooltip.add(I18n.format("deepmoblearning.loot_fabricator.tooltip.plan_ratio_help"));
+            tooltip.add(I18n.format("deepmoblearning.loot_fabricator.tooltip.plan_stock_limit_help"));
+            button.setExtraTooltip(tooltip.build());
+        }
+    }
+
+    /**
+     * Right-click: add item to production plan or raise its ratio (removed after maximum ratio).
+     * Shift + right-click: cycle item's stock limit.
+     */
+    private void changePlanEntry(ItemStack stack) {
+        LootFabricatorPlan plan = lootFabricator.getPlan();
+        int planIndex = plan.indexOf(stack);
+        int ratio = 0;
+        int stockLimit = LootFabricatorPlan.NO_STOCK_LIMIT;
+
+        if (planIndex != -1) {
+            LootFabricatorPlan.Entry entry = plan.getEntries().get(planIndex);
+            ratio = entry.getRatio();
+            stockLimit = entry.getStockLimit();
+        }
+
+        if (isShiftKeyDown()) {
+            int limitIndex = 0;
+            for (int i = 0; i < PLAN_STOCK_LIMITS.length; i++) {
+                if (PLAN_STOCK_LIMITS[i] == stockLimit)
+                    limitIndex = i;
+            }
+            stockLimit = PLAN_STOCK_LIMITS[(limitIndex + 1) % PLAN_STOCK_LIMITS.length];
+            ratio = Math.max(ratio, 1);
+        } else {
+            ratio = (ratio < LootFabricatorPlan.MAX_RATIO) ? ratio + 1 : 0;
+        }
+
+        lootFabricator.setPlanEntry(stack, ratio, stockLimit);
+        updateOutputSelectButtons();
+    }
+
     private void setOutputItem(int index) {
         for (int i = 0; i < outputSelectButtons.size(); i++) {
             outputSelectButtons.get(i).setSelected(index != -1 && (i == (index % ITEMS_PER_PAGE)));
@@ -235,6 +307,9 @@ public class GuiLootFabricator extends GuiMachine {
         } else if (mouseButton == 0 && button instanceof ButtonItemSelect){
             ButtonItemSelect itemSelectButton = (ButtonItemSelect) button;
             setOutputItem(itemSelectButton.getIndex());
+        } else if (mouseButton == 1 && button instanceof ButtonItemSelect) {
+            ButtonItemSelect itemSelectButton = (ButtonItemSelect) button;
+            changePlanEntry(itemSelectButton.getStack());
         } else if (mouseButton == 0 && button instanceof ButtonItemDeselect) {
             setOutputItem(-1);
         } else
@@ -300,6 +375,9 @@ public class GuiLootFabricator extends GuiMachine {
                 case OUTPUT_FULL:
                     tooltip = I18n.format("deepmoblearning.loot_fabricator.error.output_full");
                     break;
+                case PLAN_WAITING:
+                    tooltip = I18n.format("deepmoblearning.loot_fabricator.error.plan_waiting");
+                    break;
             }
 
             drawHoveringText(tooltip, mouseRelativeX, mouseRelativeY);
@@ -355,6 +433,7 @@ public class GuiLootFabricator extends GuiMachine {
         REDSTONE,
         NO_PRISTINE,
         NO_OUTPUT_SELECTED,
-        OUTPUT_FULL
+        OUTPUT_FULL,
+        PLAN_WAITING
     }
 }
@@ -1,8 +1,10 @@
 package mustapelto.deepmoblearning.client.gui;
 
+import mustapelto.deepmoblearning.client.gui.buttons.ButtonAutoExport;
 import mustapelto.deepmoblearning.client.gui.buttons.ButtonBase;
 import mustapelto.deepmoblearning.client.gui.buttons.ButtonRedstoneMode;
 import mustapelto.deepmoblearning.common.network.DMLPacketHandler;
+import mustapelto.deepmoblearning.common.network.MessageAutoExport;
 import mustapelto.deepmoblearning.common.network.MessageRedstoneMode;
 import mustapelto.deepmoblearning.common.tiles.TileEntityMachine;
 import mustapelto.deepmoblearning.common.util.Point;
@@ -15,6 +17,7 @@ public abstract class GuiMachine extends GuiContainerTickable {
     protected final TileEntityMachine tileEntity;
     private final Point redstoneModeButtonLocation;
     private ButtonRedstoneMode redstoneModeButton;
+    private ButtonAutoExport autoExportButton; // Placed below redstone mode button
 
     //
     // INIT
@@ -38,12 +41,14 @@ public abstract class GuiMachine extends GuiContainerTickable {
     @Override
     protected void initButtons() {
         redstoneModeButton = new ButtonRedstoneMode(0, guiLeft + redstoneModeButtonLocation.X, guiTop + redstoneModeButtonLocation.Y, tileEntity.getRedstoneMode());
+        autoExportButton = new ButtonAutoExport(1, guiLeft + redstoneModeButtonLocation.X, guiTop + redstoneModeButtonLocation.Y + 20, tileEntity.getAutoExportSides());
     }
 
     @Override
     protected void rebuildButtonList() {
         super.rebuildButtonList();
         buttonList.add(redstoneModeButton);
+        buttonList.add(autoExportButton);
     }
 
     @Override
@@ -56,6 +61,14 @@ public abstract class GuiMachine extends GuiContainerTickable {
                 redstoneModeButton.setRedstoneMode(redstoneModeButton.getRedstoneMode().prev());
 
             DMLPacketHandler.sendToServer(new MessageRedstoneMode(tileEntity, redstoneModeButton.getRedstoneMode()));
+        } else if (button instanceof ButtonAutoExport) {
+            ButtonAutoExport autoExportButton = (ButtonAutoExport) button;
+            if (mouseButton == 0)
+                autoExportButton.next();
+            else if (mouseButton == 1)
+                autoExportButton.prev();
+
+            DMLPacketHandler.sendToServer(new MessageAutoExport(tileEntity, autoExportButton.getAutoExportSides()));
         }
     }
 
@@ -0,0 +1,70 @@
+package mustapelto.deepmoblearning.client.gui.buttons;
+
+import com.google.common.collect.ImmutableList;
+import mustapelto.deepmoblearning.DMLConstants;
+import net.minecraft.client.resources.I18n;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.ResourceLocation;
+
+public class ButtonAutoExport extends ButtonBase {
+    private static final ResourceLocation TEXTURE = new ResourceLocation(DMLConstants.ModInfo.ID, "textures/gui/buttons/button_auto_export.png");
+    private static final int ALL_SIDES = (1 << EnumFacing.VALUES.length) - 1;
+
+    // Off -> single sides -> all sides
+    private static final ImmutableList<Integer> MODES;
+    static {
+        ImmutableList.Builder<Integer> builder = ImmutableList.builder();
+        builder.add(0);
+        for (EnumFacing side : EnumFacing.VALUES) {
+            builder.add(1 << side.getIndex());
+        }
+        builder.add(ALL_SIDES);
+        MODES = builder.build();
+    }
+
+    private int autoExportSides;
+
+    public ButtonAutoExport(int buttonId, int x, int y, int autoExportSides) {
+        super(buttonId, x, y, 18, 18, TEXTURE);
+        this.autoExportSides = autoExportSides;
+    }
+
+    public int getAutoExportSides() {
+        return autoExportSides;
+    }
+
+    public void next() {
+        autoExportSides = MODES.get((Math.max(MODES.indexOf(autoExportSides), 0) + 1) % MODES.size());
+    }
+
+    public void prev() {
+        autoExportSides = MODES.get(Math.floorMod(Math.max(MODES.indexOf(autoExportSides), 0) - 1, MODES.size()));
+    }
+
+    @Override
+    protected int getState() {
+        return (autoExportSides != 0) ? 1 : 0;
+    }
+
+    @Override
+    public ImmutableList<String> getTooltip() {
+        String sides;
+        if (autoExportSides == 0)
+            sides = I18n.format("deepmoblearning.auto_export.off");
+        else if (autoExportSides == ALL_SIDES)
+            sides = I18n.format("deepmoblearning.auto_export.all");
+        else {
+            StringBuilder builder = new StringBuilder();
+            for (EnumFacing side : EnumFacing.VALUES) {
+                if ((autoExportSides & (1 << side.getIndex())) == 0)
+                    continue;
+                if (builder.length() > 0)
+                    builder.append(", ");
+                builder.append(I18n.format("deepmoblearning.auto_export.side." + side.getName()));
+            }
+            sides = builder.toString();
+        }
+
+        return ImmutableList.of(I18n.format("deepmoblearning.auto_export.tooltip", sides));
+    }
+}
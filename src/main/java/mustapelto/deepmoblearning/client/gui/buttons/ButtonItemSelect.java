@@ -11,6 +11,7 @@ public class ButtonItemSelect extends ButtonBase {
     private final ItemStack stack;
     private final int index;
     private boolean selected;
+    private ImmutableList<String> extraTooltip = ImmutableList.of();
 
     public ButtonItemSelect(int buttonId, int x, int y, ItemStack stack, int index, boolean selected) {
         super(buttonId, x, y, 18, 18, TEXTURE);
@@ -21,7 +22,14 @@ public class ButtonItemSelect extends ButtonBase {
 
     @Override
     public ImmutableList<String> getTooltip() {
-        return ImmutableList.of(stack.getDisplayName());
+        return ImmutableList.<String>builder()
+                .add(stack.getDisplayName())
+                .addAll(extraTooltip)
+                .build();
+    }
+
+    public void setExtraTooltip(ImmutableList<String> extraTooltip) {
+        this.extraTooltip = extraTooltip;
     }
 
     public void setSelected(boolean selected) {
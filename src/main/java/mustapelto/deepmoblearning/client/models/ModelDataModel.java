@@ -3,6 +3,7 @@ package mustapelto.deepmoblearning.client.models;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import mustapelto.deepmoblearning.DMLConstants;
+import mustapelto.deepmoblearning.client.util.ItemTextureIndex;
 import mustapelto.deepmoblearning.common.metadata.MetadataManager;
 import net.minecraft.client.renderer.block.model.IBakedModel;
 import net.minecraft.client.renderer.texture.TextureAtlasSprite;
@@ -51,6 +52,7 @@ public class ModelDataModel implements IModel {
         INSTANCE;
 
         private final Map<String, ResourceLocation> textureCache = new HashMap<>();
+        private boolean textureCacheValid = false;
         private final Map<String, ModelDataModel> modelCache = new HashMap<>();
 
         @Override
@@ -61,6 +63,9 @@ public class ModelDataModel implements IModel {
 
         @Override
         public IModel loadModel(ResourceLocation modelLocation) throws Exception {
+            if (!textureCacheValid)
+                initTextureCache();
+
             String mobId = modelLocation.getPath().substring("data_model_".length());
 
             ModelDataModel model;
@@ -73,14 +78,17 @@ public class ModelDataModel implements IModel {
 
         @Override
         public void onResourceManagerReload(IResourceManager resourceManager) {
-            initTextureCache();
+            // Texture cache is rebuilt on next model load, so the texture index is only rebuilt once for all loaders
+            ItemTextureIndex.markDirty();
+            textureCacheValid = false;
+            modelCache.clear();
         }
 
         private void initTextureCache() {
             textureCache.clear();
             textureCache.put("blank", BLANK_LOCATION);
             textureCache.putAll(MetadataManager.getDataModelTextures());
-            modelCache.clear();
+            textureCacheValid = true;
         }
     }
 }
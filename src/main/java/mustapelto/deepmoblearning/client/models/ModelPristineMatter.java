@@ -3,6 +3,7 @@ package mustapelto.deepmoblearning.client.models;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import mustapelto.deepmoblearning.DMLConstants;
+import mustapelto.deepmoblearning.client.util.ItemTextureIndex;
 import mustapelto.deepmoblearning.common.metadata.MetadataManager;
 import net.minecraft.client.renderer.block.model.IBakedModel;
 import net.minecraft.client.renderer.texture.TextureAtlasSprite;
@@ -48,6 +49,7 @@ public class ModelPristineMatter implements IModel {
         INSTANCE;
 
         private final Map<String, ResourceLocation> textureCache = new HashMap<>();
+        private boolean textureCacheValid = false;
         private final Map<String, ModelPristineMatter> modelCache = new HashMap<>();
 
         @Override
@@ -58,6 +60,9 @@ public class ModelPristineMatter implements IModel {
 
         @Override
         public IModel loadModel(ResourceLocation modelLocation) throws Exception {
+            if (!textureCacheValid)
+                initTextureCache();
+
             String mobId = modelLocation.getPath().substring("pristine_matter_".length());
 
             ModelPristineMatter model;
@@ -70,13 +75,16 @@ public class ModelPristineMatter implements IModel {
 
         @Override
         public void onResourceManagerReload(IResourceManager resourceManager) {
-            initTextureCache();
+            // Texture cache is rebuilt on next model load, so the texture index is only rebuilt once for all loaders
+            ItemTextureIndex.markDirty();
+            textureCacheValid = false;
+            modelCache.clear();
         }
 
         private void initTextureCache() {
             textureCache.clear();
             textureCache.putAll(MetadataManager.getPristineMatterTextures());
-            modelCache.clear();
+            textureCacheValid = true;
         }
     }
 }
@@ -0,0 +1,143 @@
+package mustapelto.deepmoblearning.client.util;
+
+import mustapelto.deepmoblearning.DMLConstants;
+import mustapelto.deepmoblearning.DMLRelearned;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.resources.*;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.fml.client.FMLClientHandler;
+import net.minecraftforge.fml.common.ObfuscationReflectionHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Index of item textures in the mod's namespace ("deepmoblearning:textures/items/*.png") across all active resource packs.
+ * Built in a single pass over the packs after each resource reload, so checking for custom textures doesn't have to
+ * query the resource manager (and catch an exception) for every single entry.
+ */
+public class ItemTextureIndex {
+    private static final String TEXTURE_DIR = "textures/items/";
+    private static final String TEXTURE_EXTENSION = ".png";
+    private static final String PACK_TEXTURE_DIR = "assets/" + DMLConstants.ModInfo.ID + "/" + TEXTURE_DIR;
+
+    private static final Set<String> indexedTextures = new HashSet<>(); // Texture names without directory and extension
+    private static final List<IResourcePack> unindexedPacks = new ArrayList<>(); // Packs that can't be listed -> checked per texture
+    private static boolean dirty = true;
+
+    /**
+     * Mark index as outdated. Will be rebuilt on next lookup.
+     */
+    public static void markDirty() {
+        dirty = true;
+    }
+
+    /**
+     * @param name Texture name without directory and extension (e.g. "data_model_zombie")
+     * @return true if any active resource pack contains "deepmoblearning:textures/items/[name].png"
+     */
+    public static boolean hasItemTexture(String name) {
+        if (dirty)
+            rebuild();
+
+        if (indexedTextures.contains(name))
+            return true;
+
+        if (unindexedPacks.isEmpty())
+            return false;
+
+        ResourceLocation location = new ResourceLocation(DMLConstants.ModInfo.ID, TEXTURE_DIR + name + TEXTURE_EXTENSION);
+        for (IResourcePack pack : unindexedPacks) {
+            if (pack.resourceExists(location))
+                return true;
+        }
+        return false;
+    }
+
+    private static void rebuild() {
+        indexedTextures.clear();
+        unindexedPacks.clear();
+
+        for (IResourcePack pack : getActivePacks()) {
+            if (!pack.getResourceDomains().contains(DMLConstants.ModInfo.ID))
+                continue;
+
+            if (!indexPack(pack))
+                unindexedPacks.add(pack);
+        }
+
+        dirty = false;
+    }
+
+    private static List<IResourcePack> getActivePacks() {
+        Minecraft minecraft = Minecraft.getMinecraft();
+        List<IResourcePack> packs = new ArrayList<>();
+
+        // Mod jars and other default packs
+        List<IResourcePack> defaultPacks = ObfuscationReflectionHelper.getPrivateValue(Minecraft.class, minecraft, "field_110449_ao");
+        if (defaultPacks != null)
+            packs.addAll(defaultPacks);
+        else
+            packs.add(FMLClientHandler.instance().getResourcePackFor(DMLConstants.ModInfo.ID));
+
+        // User-selected and server packs
+        ResourcePackRepository repository = minecraft.getResourcePackRepository();
+        for (ResourcePackRepository.Entry entry : repository.getRepositoryEntries()) {
+            packs.add(entry.getResourcePack());
+        }
+        IResourcePack serverPack = repository.getServerResourcePack();
+        if (serverPack != null)
+            packs.add(serverPack);
+
+        return packs;
+    }
+
+    /**
+     * Add all item textures contained in a folder or zip resource pack to the index
+     * @return false if pack type can't be listed
+     */
+    private static boolean indexPack(IResourcePack pack) {
+        if (!(pack instanceof AbstractResourcePack))
+            return false;
+
+        File packFile = ObfuscationReflectionHelper.getPrivateValue(AbstractResourcePack.class, (AbstractResourcePack) pack, "field_110597_b");
+        if (packFile == null)
+            return false;
+
+        if (pack instanceof FolderResourcePack) {
+            File[] textureFiles = new File(packFile, PACK_TEXTURE_DIR).listFiles();
+            if (textureFiles != null) {
+                for (File file : textureFiles) {
+                    addTexture(file.getName());
+                }
+            }
+            return true;
+        }
+
+        if (pack instanceof FileResourcePack) {
+            try (ZipFile zipFile = new ZipFile(packFile)) {
+                Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                while (entries.hasMoreElements()) {
+                    String entryName = entries.nextElement().getName();
+                    if (entryName.startsWith(PACK_TEXTURE_DIR))
+                        addTexture(entryName.substring(PACK_TEXTURE_DIR.length()));
+                }
+            } catch (IOException e) {
+                DMLRelearned.logger.warn("Could not index resource pack \"{}\"! Error message: {}", pack.getPackName(), e.getMessage());
+                return false;
+            }
+            return true;
+        }
+
+        return false;
+    }
+
+    private static void addTexture(String fileName) {
+        // Only direct children of the items directory
+        if (fileName.endsWith(TEXTURE_EXTENSION) && fileName.indexOf('/') == -1)
+            indexedTextures.add(fileName.substring(0, fileName.length() - TEXTURE_EXTENSION.length()));
+    }
+}
@@ -1,6 +1,7 @@
 package mustapelto.deepmoblearning.common;
 
 import mustapelto.deepmoblearning.DMLConstants;
+import mustapelto.deepmoblearning.common.util.AffixHelper;
 import net.minecraftforge.common.config.ConfigManager;
 import net.minecraftforge.fml.client.event.ConfigChangedEvent.OnConfigChangedEvent;
 import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
@@ -44,6 +45,17 @@ public class DMLConfig {
         @RangeInt(min = 1)
         public int LOOT_FABRICATOR_PROCESSING_TIME = 51;
 
+        @Name("Loot Fabricator Bulk Size")
+        @Comment({"Maximum amount of Pristine Matter the Loot Fabricator processes in one cycle (1 = off).",
+                "A cycle of n items takes n times as long and reserves the energy for all n items when it starts."})
+        @RangeInt(min = 1, max = 64)
+        public int LOOT_FABRICATOR_BULK_SIZE = 1;
+
+        @Name("Machine Auto-Export Interval")
+        @Comment("Time between two auto-export attempts of machines with auto-export enabled (in ticks)")
+        @RangeInt(min = 1)
+        public int MACHINE_AUTO_EXPORT_INTERVAL = 20;
+
         @Name("Legacy Machine Sidedness")
         @Comment("Use legacy sidedness (insert from top, output to all other sides)?")
         public boolean LEGACY_MACHINE_SIDEDNESS = false;
@@ -67,6 +79,33 @@ public class DMLConfig {
         public boolean GLITCH_CREATIVE_FLIGHT_ENABLED = true;
     }
 
+    @Name("Trial Settings")
+    public static TrialSettings TRIAL_SETTINGS = new TrialSettings();
+
+    public static class TrialSettings {
+        @Name("Trial Tick Budget")
+        @Comment({"Time all running Trials of a world may use per tick (in microseconds, 0 = unlimited).",
+                "Trials over budget keep their waves running but spawn mobs and run affixes on a later tick."})
+        @RangeInt(min = 0)
+        public int TRIAL_TICK_BUDGET = 2000;
+
+        @Name("Affix Weights")
+        @Comment({"Relative chance of each affix to be picked when a Trial Key is attuned (0 = never picked).",
+                "Affixes not listed here have weight 1."})
+        @RangeInt(min = 0)
+        public Map<String, Integer> AFFIX_WEIGHTS = new HashMap<>();
+
+        {
+            AFFIX_WEIGHTS.put(DMLConstants.Trials.Affix.BLAZE_INVADERS, 1);
+            AFFIX_WEIGHTS.put(DMLConstants.Trials.Affix.EMPOWERED_GLITCHES, 1);
+            AFFIX_WEIGHTS.put(DMLConstants.Trials.Affix.KNOCKBACK_IMMUNITY, 1);
+            AFFIX_WEIGHTS.put(DMLConstants.Trials.Affix.LOOT_HOARDERS, 1);
+            AFFIX_WEIGHTS.put(DMLConstants.Trials.Affix.REGEN_PARTY, 1);
+            AFFIX_WEIGHTS.put(DMLConstants.Trials.Affix.SPEED, 1);
+            AFFIX_WEIGHTS.put(DMLConstants.Trials.Affix.THUNDERDOME, 1);
+        }
+    }
+
     @Name("Deep Learner GUI Overlay Settings")
     public static DeepLearnerGuiOverlaySettings DEEP_LEARNER_GUI_OVERLAY_SETTINGS = new DeepLearnerGuiOverlaySettings();
 
@@ -114,6 +153,7 @@ public class DMLConfig {
     public static void onConfigChanged(OnConfigChangedEvent event) {
         if (event.getModID().equals(DMLConstants.ModInfo.ID)) {
             ConfigManager.sync(DMLConstants.ModInfo.ID, Config.Type.INSTANCE);
+            AffixHelper.updateAffixPool();
         }
     }
 }
@@ -206,6 +206,15 @@ public class DMLRegistry {
         registry.registerAll(MetadataManager.getCraftingRecipes().toArray(new IRecipe[0]));
     }
 
+    /**
+     * Point dynamic items to the current metadata objects (after a metadata reload)
+     */
+    public static void updateMetadataReferences() {
+        registeredLivingMatter.forEach((id, item) -> MetadataManager.getLivingMatterMetadata(id).ifPresent(item::setLivingMatterData));
+        registeredDataModels.forEach((id, item) -> MetadataManager.getDataModelMetadata(id).ifPresent(item::setDataModelMetadata));
+        registeredPristineMatter.forEach((id, item) -> MetadataManager.getDataModelMetadata(id).ifPresent(item::setDataModelMetadata));
+    }
+
     public static ItemStack getLivingMatter(String id) {
         if (registeredLivingMatter.containsKey(id))
             return new ItemStack(registeredLivingMatter.get(id));
@@ -0,0 +1,58 @@
+package mustapelto.deepmoblearning.common.capability;
+
+import net.minecraft.inventory.EntityEquipmentSlot;
+import net.minecraft.nbt.NBTBase;
+import net.minecraft.util.EnumFacing;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.capabilities.CapabilityManager;
+
+import javax.annotation.Nullable;
+
+/**
+ * Glitch Armor pieces a player is wearing, updated from equipment change events.
+ * Not saved: equipment change events fire for all worn items when the player entity starts ticking.
+ */
+public class CapabilityGlitchArmor implements ICapabilityGlitchArmor, Capability.IStorage<ICapabilityGlitchArmor> {
+
+    private static final int FULL_SET = getSlotBit(EntityEquipmentSlot.HEAD) | getSlotBit(EntityEquipmentSlot.CHEST) |
+            getSlotBit(EntityEquipmentSlot.LEGS) | getSlotBit(EntityEquipmentSlot.FEET);
+
+    private int equippedSlots = 0; // One bit per armor slot with Glitch Armor
+
+    public static void init() {
+        CapabilityManager.INSTANCE.register(ICapabilityGlitchArmor.class, new CapabilityGlitchArmor(), CapabilityGlitchArmor::new);
+    }
+
+    private static int getSlotBit(EntityEquipmentSlot slot) {
+        return 1 << slot.getIndex();
+    }
+
+    @Nullable
+    @Override
+    public NBTBase writeNBT(Capability<ICapabilityGlitchArmor> capability, ICapabilityGlitchArmor instance, EnumFacing side) {
+        return null;
+    }
+
+    @Override
+    public void readNBT(Capability<ICapabilityGlitchArmor> capability, ICapabilityGlitchArmor instance, EnumFacing side, NBTBase nbt) {
+    }
+
+    @Override
+    public boolean setSlotEquipped(EntityEquipmentSlot slot, boolean equipped) {
+        if (slot.getSlotType() != EntityEquipmentSlot.Type.ARMOR)
+            return false;
+
+        boolean wasSetEquipped = isSetEquipped();
+        if (equipped)
+            equippedSlots |= getSlotBit(slot);
+        else
+            equippedSlots &= ~getSlotBit(slot);
+
+        return isSetEquipped() != wasSetEquipped;
+    }
+
+    @Override
+    public boolean isSetEquipped() {
+        return equippedSlots == FULL_SET;
+    }
+}
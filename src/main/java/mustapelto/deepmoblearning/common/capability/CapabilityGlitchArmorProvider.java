@@ -0,0 +1,38 @@
+package mustapelto.deepmoblearning.common.capability;
+
+import net.minecraft.util.EnumFacing;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.capabilities.CapabilityInject;
+import net.minecraftforge.common.capabilities.ICapabilityProvider;
+
+import javax.annotation.Nullable;
+
+@SuppressWarnings("ConstantConditions")
+public class CapabilityGlitchArmorProvider implements ICapabilityProvider {
+
+    @CapabilityInject(ICapabilityGlitchArmor.class)
+    public static final Capability<ICapabilityGlitchArmor> GLITCH_ARMOR_CAP = null;
+
+    private ICapabilityGlitchArmor instance;
+
+    @Override
+    public boolean hasCapability(Capability<?> capability, @Nullable EnumFacing enumFacing) {
+        return capability == GLITCH_ARMOR_CAP;
+    }
+
+    @Nullable
+    @Override
+    public <T> T getCapability(Capability<T> capability, @Nullable EnumFacing enumFacing) {
+        return capability == GLITCH_ARMOR_CAP ? GLITCH_ARMOR_CAP.cast(getInstance()) : null;
+    }
+
+    private ICapabilityGlitchArmor getInstance() {
+        if (instance != null) {
+            return instance;
+        }
+        if (GLITCH_ARMOR_CAP != null) {
+            instance = GLITCH_ARMOR_CAP.getDefaultInstance();
+        }
+        return instance;
+    }
+}
@@ -19,6 +19,7 @@ public class CapabilityPlayerTrial implements ICapabilityPlayerTrial, Capability
     private int waveMobTotal = 0;
     private boolean isActive = false;
     private long tilePos;
+    private boolean flightLocked = false; // Set while player takes part in a Trial. Not saved, so a lock can never outlive its Trial.
 
     public static void init() {
         // Enable field injection for capabilities
@@ -127,4 +128,14 @@ public class CapabilityPlayerTrial implements ICapabilityPlayerTrial, Capability
     public boolean isTrialActive() {
         return isActive;
     }
+
+    @Override
+    public void setFlightLocked(boolean locked) {
+        flightLocked = locked;
+    }
+
+    @Override
+    public boolean isFlightLocked() {
+        return flightLocked;
+    }
 }
@@ -0,0 +1,14 @@
+package mustapelto.deepmoblearning.common.capability;
+
+import net.minecraft.inventory.EntityEquipmentSlot;
+
+public interface ICapabilityGlitchArmor {
+
+    /**
+     * Record whether Glitch Armor is worn in an armor slot
+     * @return true if this changed whether the full set is equipped
+     */
+    boolean setSlotEquipped(EntityEquipmentSlot slot, boolean equipped);
+
+    boolean isSetEquipped();
+}
@@ -28,5 +28,9 @@ public interface ICapabilityPlayerTrial {
 
     boolean isTrialActive();
 
+    void setFlightLocked(boolean locked);
+
+    boolean isFlightLocked();
+
     void sync(EntityPlayerMP player);
 }
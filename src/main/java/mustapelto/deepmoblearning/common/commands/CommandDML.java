@@ -0,0 +1,32 @@
+package mustapelto.deepmoblearning.common.commands;
+
+import mustapelto.deepmoblearning.DMLConstants;
+import net.minecraft.command.ICommandSender;
+import net.minecraftforge.server.command.CommandTreeBase;
+
+/**
+ * Root "/dml" command. Individual functions are added as sub-commands.
+ */
+public class CommandDML extends CommandTreeBase {
+    public CommandDML() {
+        addSubcommand(new CommandMigrate());
+        addSubcommand(new CommandReload());
+        addSubcommand(new CommandSimulate());
+        addSubcommand(new CommandTrials());
+    }
+
+    @Override
+    public String getName() {
+        return "dml";
+    }
+
+    @Override
+    public String getUsage(ICommandSender sender) {
+        return DMLConstants.ModInfo.ID + ".command.usage";
+    }
+
+    @Override
+    public int getRequiredPermissionLevel() {
+        return 3;
+    }
+}
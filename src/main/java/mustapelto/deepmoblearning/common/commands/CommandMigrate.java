@@ -0,0 +1,44 @@
+package mustapelto.deepmoblearning.common.commands;
+
+import mustapelto.deepmoblearning.DMLConstants;
+import mustapelto.deepmoblearning.common.world.LegacyDataMigration;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.text.TextComponentTranslation;
+
+/**
+ * "/dml migrate": convert all legacy (original DML) data in the current save
+ */
+public class CommandMigrate extends CommandBase {
+    @Override
+    public String getName() {
+        return "migrate";
+    }
+
+    @Override
+    public String getUsage(ICommandSender sender) {
+        return DMLConstants.ModInfo.ID + ".command.migrate.usage";
+    }
+
+    @Override
+    public int getRequiredPermissionLevel() {
+        return 3;
+    }
+
+    @Override
+    public void execute(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException {
+        if (LegacyDataMigration.isWorldMigrated()) {
+            sender.sendMessage(new TextComponentTranslation(DMLConstants.ModInfo.ID + ".command.migrate.already_migrated"));
+            return;
+        }
+
+        if (!LegacyDataMigration.startMigration(server, sender)) {
+            sender.sendMessage(new TextComponentTranslation(DMLConstants.ModInfo.ID + ".command.migrate.running"));
+            return;
+        }
+
+        sender.sendMessage(new TextComponentTranslation(DMLConstants.ModInfo.ID + ".command.migrate.started"));
+    }
+}
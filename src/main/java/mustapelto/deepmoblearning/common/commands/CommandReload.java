@@ -0,0 +1,39 @@
+package mustapelto.deepmoblearning.common.commands;
+
+import mustapelto.deepmoblearning.DMLConstants;
+import mustapelto.deepmoblearning.common.metadata.MetadataReload;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.text.TextComponentTranslation;
+
+/**
+ * "/dml reload": re-read Data Model, Data Model Tier, Living Matter and Fusion Recipe config files
+ */
+public class CommandReload extends CommandBase {
+    @Override
+    public String getName() {
+        return "reload";
+    }
+
+    @Override
+    public String getUsage(ICommandSender sender) {
+        return DMLConstants.ModInfo.ID + ".command.reload.usage";
+    }
+
+    @Override
+    public int getRequiredPermissionLevel() {
+        return 3;
+    }
+
+    @Override
+    public void execute(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException {
+        if (!MetadataReload.start(sender)) {
+            sender.sendMessage(new TextComponentTranslation(DMLConstants.ModInfo.ID + ".command.reload.running"));
+            return;
+        }
+
+        sender.sendMessage(new TextComponentTranslation(DMLConstants.ModInfo.ID + ".command.reload.started"));
+    }
+}
@@ -0,0 +1,90 @@
+package mustapelto.deepmoblearning.common.commands;
+
+import mustapelto.deepmoblearning.DMLConstants;
+import mustapelto.deepmoblearning.common.metadata.MetadataDataModel;
+import mustapelto.deepmoblearning.common.metadata.MetadataManager;
+import mustapelto.deepmoblearning.common.trials.AttunementData;
+import mustapelto.deepmoblearning.common.trials.TrialSimulation;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentTranslation;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * "/dml simulate <mob> [killDelay]": run the Trial waves of mob at every tier without a world
+ * and report wave durations, spawn counts and time per tick
+ */
+public class CommandSimulate extends CommandBase {
+    private static final int DEFAULT_KILL_DELAY = 60;
+
+    @Override
+    public String getName() {
+        return "simulate";
+    }
+
+    @Override
+    public String getUsage(ICommandSender sender) {
+        return DMLConstants.ModInfo.ID + ".command.simulate.usage";
+    }
+
+    @Override
+    public int getRequiredPermissionLevel() {
+        return 3;
+    }
+
+    @Override
+    public void execute(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException {
+        if (args.length < 1 || args.length > 2)
+            throw new WrongUsageException(getUsage(sender));
+
+        String mob = args[0];
+        int killDelay = (args.length > 1) ? parseInt(args[1], 0) : DEFAULT_KILL_DELAY;
+        boolean found = false;
+
+        for (int tier = MetadataManager.getMinDataModelTier(); tier <= MetadataManager.getMaxDataModelTier(); tier++) {
+            Optional<AttunementData> data = AttunementData.create(mob, tier);
+            if (!data.isPresent())
+                continue;
+
+            found = true;
+            TrialSimulation.Result result = TrialSimulation.run(data.get(), killDelay);
+            sender.sendMessage(new TextComponentTranslation(
+                    DMLConstants.ModInfo.ID + (result.isCompleted() ? ".command.simulate.tier" : ".command.simulate.tier_incomplete"),
+                    tier,
+                    result.getWaveTicks().size(),
+                    result.getTotalSpawns(),
+                    result.getTotalTicks(),
+                    result.getGlitchRolls(),
+                    String.format("%.0f", result.getNanosPerTick())
+            ));
+            sender.sendMessage(new TextComponentTranslation(
+                    DMLConstants.ModInfo.ID + ".command.simulate.waves",
+                    result.getWaveTicks().stream().map(String::valueOf).collect(Collectors.joining(", "))
+            ));
+        }
+
+        if (!found)
+            sender.sendMessage(new TextComponentTranslation(DMLConstants.ModInfo.ID + ".command.simulate.no_trial", mob));
+    }
+
+    @Override
+    public List<String> getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, @Nullable BlockPos targetPos) {
+        if (args.length != 1)
+            return Collections.emptyList();
+
+        List<String> mobs = MetadataManager.getDataModelMetadataList().stream()
+                .filter(metadata -> metadata.getTrialData().hasEntity())
+                .map(MetadataDataModel::getID)
+                .collect(Collectors.toList());
+        return getListOfStringsMatchingLastWord(args, mobs);
+    }
+}
@@ -0,0 +1,55 @@
+package mustapelto.deepmoblearning.common.commands;
+
+import mustapelto.deepmoblearning.DMLConstants;
+import mustapelto.deepmoblearning.common.trials.TrialManager;
+import mustapelto.deepmoblearning.common.trials.TrialManager.TrialMetrics;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentTranslation;
+import net.minecraft.world.WorldServer;
+
+/**
+ * "/dml trials": list running Trials with their average and peak run time per tick
+ */
+public class CommandTrials extends CommandBase {
+    @Override
+    public String getName() {
+        return "trials";
+    }
+
+    @Override
+    public String getUsage(ICommandSender sender) {
+        return DMLConstants.ModInfo.ID + ".command.trials.usage";
+    }
+
+    @Override
+    public int getRequiredPermissionLevel() {
+        return 3;
+    }
+
+    @Override
+    public void execute(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException {
+        int count = 0;
+
+        for (WorldServer world : server.worlds) {
+            for (TrialMetrics metrics : TrialManager.getMetrics(world)) {
+                BlockPos pos = metrics.getPos();
+                sender.sendMessage(new TextComponentTranslation(
+                        DMLConstants.ModInfo.ID + ".command.trials.entry",
+                        pos.getX(), pos.getY(), pos.getZ(),
+                        metrics.getDimension(),
+                        String.format("%.1f", metrics.getAverageMicros()),
+                        String.format("%.1f", metrics.getMaxMicros()),
+                        metrics.getDeferredTicks()
+                ));
+                count++;
+            }
+        }
+
+        if (count == 0)
+            sender.sendMessage(new TextComponentTranslation(DMLConstants.ModInfo.ID + ".command.trials.none"));
+    }
+}
@@ -22,9 +22,28 @@ public class DMLEnergyStorage extends EnergyStorage {
         return super.receiveEnergy(maxReceive, simulate);
     }
 
-    public void voidEnergy(int energy) {
-        this.energy -= Math.min(this.energy, energy);
+    /**
+     * Remove energy from the buffer (ignores canExtract, limited by stored energy)
+     * @return Amount of energy actually removed
+     */
+    public int voidEnergy(int energy) {
+        int voided = Math.min(this.energy, energy);
+        this.energy -= voided;
         onEnergyChanged();
+        return voided;
+    }
+
+    /**
+     * Return previously voided energy (ignores maxReceive, limited by free capacity)
+     * @return Amount of energy actually returned
+     */
+    public int refundEnergy(int energy) {
+        int refunded = Math.min(energy, getMaxEnergyStored() - this.energy);
+        if (refunded <= 0)
+            return 0;
+
+        setEnergy(this.energy + refunded);
+        return refunded;
     }
 
     public void writeToNBT(NBTTagCompound compound) {
@@ -2,6 +2,7 @@ package mustapelto.deepmoblearning.common.events;
 
 import mustapelto.deepmoblearning.DMLConstants;
 import mustapelto.deepmoblearning.client.gui.GuiTrialOverlay;
+import mustapelto.deepmoblearning.common.capability.CapabilityGlitchArmorProvider;
 import mustapelto.deepmoblearning.common.capability.CapabilityPlayerTrial;
 import mustapelto.deepmoblearning.common.capability.CapabilityPlayerTrialProvider;
 import mustapelto.deepmoblearning.common.capability.ICapabilityPlayerTrial;
@@ -22,11 +23,13 @@ import net.minecraftforge.fml.relauncher.SideOnly;
 public class CapabilityEventHandler {
 
     public static final ResourceLocation PLAYER_TRIAL_CAP = new ResourceLocation(DMLConstants.ModInfo.ID, "player_trial");
+    public static final ResourceLocation GLITCH_ARMOR_CAP = new ResourceLocation(DMLConstants.ModInfo.ID, "glitch_armor");
 
     @SubscribeEvent
     public static void attachCapability(AttachCapabilitiesEvent<Entity> event) {
         if (event.getObject() instanceof EntityPlayer) {
             event.addCapability(PLAYER_TRIAL_CAP, new CapabilityPlayerTrialProvider());
+            event.addCapability(GLITCH_ARMOR_CAP, new CapabilityGlitchArmorProvider());
         }
     }
 
@@ -9,6 +9,8 @@ import mustapelto.deepmoblearning.common.items.ItemGlitchArmor;
 import mustapelto.deepmoblearning.common.items.ItemGlitchSword;
 import mustapelto.deepmoblearning.common.metadata.MetadataDataModel;
 import mustapelto.deepmoblearning.common.tiles.TileEntityTrialKeystone;
+import mustapelto.deepmoblearning.common.trials.TrialMobRegistry;
+import mustapelto.deepmoblearning.common.trials.TrialMobRegistry.TrialMob;
 import mustapelto.deepmoblearning.common.util.AffixHelper;
 import mustapelto.deepmoblearning.common.util.DataModelHelper;
 import mustapelto.deepmoblearning.common.util.ItemStackHelper;
@@ -19,7 +21,6 @@ import net.minecraft.entity.item.EntityItem;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.item.ItemStack;
-import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.NonNullList;
 import net.minecraft.util.math.BlockPos;
@@ -42,14 +43,17 @@ public class EntityDeathEventHandler {
     @SubscribeEvent
     public static void dropEvent(LivingDropsEvent event) {
         EntityLivingBase e = event.getEntityLiving();
-        NBTTagCompound data = e.getEntityData();
+        TrialMob trialMob = TrialMobRegistry.getTrialMob(e).orElse(null);
+        if (trialMob == null)
+            return;
+
         World world = e.getEntityWorld();
 
         // Cancel the event if the mob was spawned by the trial
-        if (data.hasKey(DMLConstants.Trials.TRIAL_KEYSTONE_POS)) {
+        if (trialMob.isWaveMob()) {
             event.setCanceled(true);
-        } else if (data.hasKey(DMLConstants.Trials.TRIAL_AFFIX_CONNECTION)) {
-            String affixKey = data.getString(DMLConstants.Trials.TRIAL_AFFIX_CONNECTION);
+        } else {
+            String affixKey = trialMob.getAffix();
 
             // Drop the held block from the loot hoarders
             if (affixKey.equals(DMLConstants.Trials.Affix.LOOT_HOARDERS)) {
@@ -93,9 +97,9 @@ public class EntityDeathEventHandler {
             return;
         }
 
-        if (target.getEntityData().hasKey(DMLConstants.Trials.TRIAL_KEYSTONE_POS)) {
-            handleTrialMobDeath(target);
-        }
+        TrialMobRegistry.getTrialMob(target)
+                .filter(TrialMob::isWaveMob)
+                .ifPresent(trialMob -> handleTrialMobDeath(target, trialMob));
 
         if (source instanceof EntityPlayer) {
             handlePlayerKill((EntityPlayerMP) source, target);
@@ -104,17 +108,12 @@ public class EntityDeathEventHandler {
         killedEntityUUIDBlacklist.add(target.getUniqueID());
     }
 
-    private static void handleTrialMobDeath(EntityLivingBase target) {
-        long pos = target.getEntityData().getLong(DMLConstants.Trials.TRIAL_KEYSTONE_POS);
-        BlockPos tilePos = BlockPos.fromLong(pos);
-        TileEntity tile = target.getEntityWorld().getTileEntity(tilePos);
-
-        if (tile instanceof TileEntityTrialKeystone) {
-            TileEntityTrialKeystone keystone = (TileEntityTrialKeystone) tile;
+    private static void handleTrialMobDeath(EntityLivingBase target, TrialMob trialMob) {
+        trialMob.getKeystone().ifPresent(keystone -> {
             if (keystone.isTrialActive()) {
-                keystone.onMobDied();
+                keystone.onMobDied(target);
             }
-        }
+        });
     }
 
     private static void handlePlayerKill(EntityPlayerMP player, EntityLivingBase target) {
@@ -225,12 +224,6 @@ public class EntityDeathEventHandler {
 
     private static void addAffixes(ItemStack trialKey, ItemStack dataModel) {
         int numberOfAffixes = TrialKeyHelper.getNumberOfAffixes(trialKey);
-        ImmutableList.Builder<String> affixes = new ImmutableList.Builder<>();
-
-        for (int i = 0; i < numberOfAffixes; i++) {
-            affixes.add(AffixHelper.getRandomAffixKey(affixes.build()));
-        }
-
-        TrialKeyHelper.setAffixList(trialKey, affixes.build());
+        TrialKeyHelper.setAffixList(trialKey, AffixHelper.getRandomAffixKeys(numberOfAffixes));
     }
 }
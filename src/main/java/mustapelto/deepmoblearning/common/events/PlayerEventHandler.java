@@ -5,33 +5,44 @@ import mustapelto.deepmoblearning.DMLRelearned;
 import mustapelto.deepmoblearning.common.DMLConfig;
 import mustapelto.deepmoblearning.common.DMLRegistry;
 import mustapelto.deepmoblearning.common.ServerProxy;
-import mustapelto.deepmoblearning.common.items.ItemGlitchArmor;
+import mustapelto.deepmoblearning.common.capability.CapabilityGlitchArmorProvider;
+import mustapelto.deepmoblearning.common.capability.CapabilityPlayerTrialProvider;
+import mustapelto.deepmoblearning.common.capability.ICapabilityGlitchArmor;
+import mustapelto.deepmoblearning.common.capability.ICapabilityPlayerTrial;
 import mustapelto.deepmoblearning.common.items.ItemGlitchHeart;
+import mustapelto.deepmoblearning.common.trials.TrialParticipants;
+import mustapelto.deepmoblearning.common.util.ItemStackHelper;
+import mustapelto.deepmoblearning.common.util.PlayerHelper;
 import net.minecraft.block.Block;
 import net.minecraft.entity.item.EntityItem;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.entity.player.PlayerCapabilities;
 import net.minecraft.init.Blocks;
+import net.minecraft.inventory.EntityEquipmentSlot;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemRedstone;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
+import net.minecraftforge.event.entity.EntityEvent;
+import net.minecraftforge.event.entity.living.LivingEquipmentChangeEvent;
 import net.minecraftforge.event.entity.player.PlayerInteractEvent;
 import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.PlayerEvent;
-import net.minecraftforge.fml.common.gameevent.TickEvent;
 import net.minecraftforge.fml.relauncher.Side;
 
-import java.util.ArrayList;
-import java.util.List;
+import javax.annotation.Nullable;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
 
 @EventBusSubscriber
 public class PlayerEventHandler {
 
-    private static final List<UUID> FLYING_PLAYERS = new ArrayList<>();
+    private static final Set<UUID> FLYING_PLAYERS = new HashSet<>(); // Players given flight by Glitch Armor
 
     @SubscribeEvent
     public static void playerLeftClickedBlock(PlayerInteractEvent.LeftClickBlock event) {
@@ -87,41 +98,79 @@ public class PlayerEventHandler {
     }
 
     @SubscribeEvent
-    public static void playerTickUpdate(TickEvent.PlayerTickEvent event) {
-        if (event.phase != TickEvent.Phase.START)
+    public static void equipmentChanged(LivingEquipmentChangeEvent event) {
+        // Only fired on the server, also for items already worn when the player entity first ticks
+        if (event.getSlot().getSlotType() != EntityEquipmentSlot.Type.ARMOR || !(event.getEntityLiving() instanceof EntityPlayer))
             return;
 
-        if (!DMLConfig.GLITCH_ARMOR_SETTINGS.GLITCH_CREATIVE_FLIGHT_ENABLED || event.player.world.isRemote)
+        EntityPlayer player = (EntityPlayer) event.getEntityLiving();
+        @Nullable ICapabilityGlitchArmor cap = player.getCapability(CapabilityGlitchArmorProvider.GLITCH_ARMOR_CAP, null);
+        if (cap == null)
             return;
 
-        PlayerCapabilities capabilities = event.player.capabilities;
-        UUID playerUUID = event.player.getUniqueID();
+        if (cap.setSlotEquipped(event.getSlot(), ItemStackHelper.isGlitchArmor(event.getTo())))
+            updateGlitchArmorFlight(player);
+    }
+
+    /**
+     * Grant or revoke Glitch Armor flight according to the player's equipped set and Trial flight lock.
+     * Called when the set bonus changes, and when flight may have been reset by something else (Trial end, dimension change).
+     */
+    public static void updateGlitchArmorFlight(EntityPlayer player) {
+        if (!DMLConfig.GLITCH_ARMOR_SETTINGS.GLITCH_CREATIVE_FLIGHT_ENABLED || player.world.isRemote)
+            return;
+
+        PlayerCapabilities capabilities = player.capabilities;
+        UUID playerUUID = player.getUniqueID();
 
-        if (ItemGlitchArmor.isSetEquipped(event.player)) {
-            if (!capabilities.allowFlying) {
+        if (isGlitchArmorSetEquipped(player)) {
+            if (!isFlightLocked(player)) {
                 capabilities.allowFlying = true;
-                event.player.sendPlayerAbilities();
-                if (!FLYING_PLAYERS.contains(playerUUID))
-                    FLYING_PLAYERS.add(playerUUID);
+                player.sendPlayerAbilities();
+                FLYING_PLAYERS.add(playerUUID);
             }
-        } else {
-            if (FLYING_PLAYERS.contains(playerUUID)) {
-                if (capabilities.allowFlying && !event.player.isSpectator() && !event.player.isCreative()) {
-                    capabilities.allowFlying = false;
-                    capabilities.isFlying = false;
-                    event.player.sendPlayerAbilities();
-                }
-                removeFlyingPlayer(playerUUID);
+        } else if (FLYING_PLAYERS.remove(playerUUID)) {
+            if (capabilities.allowFlying && !player.isSpectator() && !player.isCreative()) {
+                capabilities.allowFlying = false;
+                capabilities.isFlying = false;
+                player.sendPlayerAbilities();
             }
         }
     }
 
     @SubscribeEvent
     public static void playerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
-        removeFlyingPlayer(event.player.getUniqueID());
+        FLYING_PLAYERS.remove(event.player.getUniqueID());
+        if (event.player instanceof EntityPlayerMP) {
+            EntityPlayerMP player = (EntityPlayerMP) event.player;
+            // Player data is saved right after this event, before the Trial removes the player on its next tick
+            if (TrialParticipants.isParticipant(player))
+                PlayerHelper.resetTrialCapability(player);
+            TrialParticipants.onPlayerMoved(player);
+        }
+    }
+
+    @SubscribeEvent
+    public static void playerChangedDimension(PlayerEvent.PlayerChangedDimensionEvent event) {
+        if (event.player instanceof EntityPlayerMP)
+            TrialParticipants.onPlayerMoved((EntityPlayerMP) event.player);
+        updateGlitchArmorFlight(event.player); // Client resets abilities on dimension change
+    }
+
+    @SubscribeEvent
+    public static void playerEnteredChunkSection(EntityEvent.EnteringChunk event) {
+        // Also fired when moving between sections of the same chunk
+        if (event.getEntity() instanceof EntityPlayerMP)
+            TrialParticipants.onPlayerMoved((EntityPlayerMP) event.getEntity());
+    }
+
+    private static boolean isFlightLocked(EntityPlayer player) {
+        @Nullable ICapabilityPlayerTrial cap = player.getCapability(CapabilityPlayerTrialProvider.PLAYER_TRIAL_CAP, null);
+        return cap != null && cap.isFlightLocked();
     }
 
-    private static void removeFlyingPlayer(UUID playerUUID) {
-        FLYING_PLAYERS.removeIf(uuid -> uuid.equals(playerUUID));
+    private static boolean isGlitchArmorSetEquipped(EntityPlayer player) {
+        @Nullable ICapabilityGlitchArmor cap = player.getCapability(CapabilityGlitchArmorProvider.GLITCH_ARMOR_CAP, null);
+        return cap != null && cap.isSetEquipped();
     }
 }
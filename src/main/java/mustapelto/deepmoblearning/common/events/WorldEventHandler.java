@@ -0,0 +1,55 @@
+package mustapelto.deepmoblearning.common.events;
+
+import mustapelto.deepmoblearning.common.metadata.MetadataReload;
+import mustapelto.deepmoblearning.common.world.LegacyDataMigration;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.FMLCommonHandler;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.PlayerEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+@EventBusSubscriber
+public class WorldEventHandler {
+    @SubscribeEvent
+    public static void worldLoad(WorldEvent.Load event) {
+        World world = event.getWorld();
+        if (!world.isRemote && world.provider.getDimension() == 0)
+            LegacyDataMigration.onOverworldLoaded((WorldServer) world);
+    }
+
+    @SubscribeEvent
+    public static void worldUnload(WorldEvent.Unload event) {
+        World world = event.getWorld();
+        if (!world.isRemote && world.provider.getDimension() == 0)
+            LegacyDataMigration.onOverworldUnloaded();
+    }
+
+    @SubscribeEvent
+    public static void chunkLoad(ChunkEvent.Load event) {
+        if (event.getWorld().isRemote || LegacyDataMigration.isWorldMigrated())
+            return;
+
+        LegacyDataMigration.migrateChunk(event.getChunk());
+    }
+
+    @SubscribeEvent
+    public static void playerLogin(PlayerEvent.PlayerLoggedInEvent event) {
+        if (!event.player.world.isRemote)
+            LegacyDataMigration.migratePlayer(event.player);
+    }
+
+    @SubscribeEvent
+    public static void serverTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END)
+            return;
+
+        MinecraftServer server = FMLCommonHandler.instance().getMinecraftServerInstance();
+        MetadataReload.tick(server);
+        LegacyDataMigration.tick(server);
+    }
+}
@@ -0,0 +1,206 @@
+package mustapelto.deepmoblearning.common.fusion;
+
+import com.google.common.collect.ImmutableList;
+import mustapelto.deepmoblearning.common.metadata.MetadataFusionRecipe;
+import mustapelto.deepmoblearning.common.metadata.MetadataManager;
+import net.minecraft.entity.item.EntityItem;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Runs in-world fusion recipes (MetadataFusionRecipe) for dropped items.
+ *
+ * Item entities that can start a fusion (e.g. Glitch Fragments) call check() every CHECK_INTERVAL ticks.
+ * Callers are grouped by the block they are in: the first caller in a block on a check tick looks up the items
+ * within one block of itself and matches recipes, the others in the same block reuse its result. Fusion progress
+ * belongs to the block and is reset when a check finds no recipe. On the client only the "fusing" state is computed
+ * (used for particles). Client and server keep separate managers, since they tick on different threads.
+ */
+@EventBusSubscriber
+public class FusionManager {
+    public static final int CHECK_INTERVAL = 5;
+    private static final int PRUNE_INTERVAL = CHECK_INTERVAL * 20; // Ticks between removals of unused buckets
+    private static final Map<World, FusionManager> serverManagers = new WeakHashMap<>();
+    private static final Map<World, FusionManager> clientManagers = new WeakHashMap<>();
+
+    private final Map<Long, Bucket> buckets = new HashMap<>(); // BlockPos.toLong() -> state of that block
+    private int[] available = new int[0]; // Scratch: items found per recipe input
+    private long lastPrune = 0;
+
+    /**
+     * @return true if it is time for item entities in world to call check()
+     */
+    public static boolean isCheckTick(World world) {
+        return world.getTotalWorldTime() % CHECK_INTERVAL == 0;
+    }
+
+    /**
+     * Match recipes against the items around trigger, and fuse them once the recipe duration has passed
+     * @return true if a fusion is in progress at trigger's block
+     */
+    public static boolean check(EntityItem trigger) {
+        World world = trigger.world;
+        ImmutableList<MetadataFusionRecipe> recipes = MetadataManager.getFusionRecipes(trigger.getItem().getItem());
+        if (recipes.isEmpty())
+            return false;
+
+        return getManagers(world).computeIfAbsent(world, w -> new FusionManager()).check(trigger, recipes, world.getTotalWorldTime());
+    }
+
+    @SubscribeEvent
+    public static void worldUnload(WorldEvent.Unload event) {
+        World world = event.getWorld();
+        getManagers(world).remove(world);
+    }
+
+    /**
+     * WeakHashMap expunges stale entries on every access, so each side needs its own map
+     */
+    private static Map<World, FusionManager> getManagers(World world) {
+        return world.isRemote ? clientManagers : serverManagers;
+    }
+
+    private boolean check(EntityItem trigger, ImmutableList<MetadataFusionRecipe> recipes, long worldTime) {
+        if (worldTime - lastPrune >= PRUNE_INTERVAL) {
+            buckets.values().removeIf(bucket -> worldTime - bucket.lastChecked > CHECK_INTERVAL);
+            lastPrune = worldTime;
+        }
+
+        BlockPos pos = new BlockPos(trigger);
+        Bucket bucket = buckets.computeIfAbsent(pos.toLong(), key -> new Bucket());
+        if (bucket.lastChecked == worldTime)
+            return bucket.recipe != null; // Already checked by another item in this block
+
+        boolean consecutive = worldTime - bucket.lastChecked == CHECK_INTERVAL;
+        bucket.lastChecked = worldTime;
+
+        AxisAlignedBB box = new AxisAlignedBB(trigger.posX - 1, trigger.posY - 1, trigger.posZ - 1, trigger.posX + 1, trigger.posY + 1, trigger.posZ + 1);
+        List<EntityItem> items = trigger.world.getEntitiesWithinAABB(EntityItem.class, box);
+        MetadataFusionRecipe recipe = findRecipe(trigger, recipes, items);
+        if (recipe == null) {
+            bucket.recipe = null;
+            bucket.progress = 0;
+            return false;
+        }
+
+        if (recipe != bucket.recipe || !consecutive)
+            bucket.progress = 0;
+        bucket.recipe = recipe;
+
+        if (trigger.world.isRemote)
+            return true;
+
+        bucket.progress += CHECK_INTERVAL;
+        if (bucket.progress >= recipe.getDuration())
+            fuse(trigger, recipe, items);
+
+        return true;
+    }
+
+    /**
+     * @return First recipe with enough input items (counted into available), or null if none
+     */
+    @Nullable
+    private MetadataFusionRecipe findRecipe(EntityItem trigger, ImmutableList<MetadataFusionRecipe> recipes, List<EntityItem> items) {
+        for (MetadataFusionRecipe recipe : recipes) {
+            if (recipe.requiresWater() && !trigger.isInWater())
+                continue;
+
+            if (countInputs(recipe, items) > 0)
+                return recipe;
+        }
+        return null;
+    }
+
+    /**
+     * @return Number of complete input sets for recipe among items
+     */
+    private int countInputs(MetadataFusionRecipe recipe, List<EntityItem> items) {
+        int inputCount = recipe.getInputCount();
+        if (available.length < inputCount)
+            available = new int[inputCount];
+        Arrays.fill(available, 0, inputCount, 0);
+
+        for (EntityItem item : items) {
+            if (item.isDead)
+                continue;
+
+            ItemStack stack = item.getItem();
+            for (int i = 0; i < inputCount; i++) {
+                if (recipe.matchesInput(i, stack)) {
+                    available[i] += stack.getCount();
+                    break;
+                }
+            }
+        }
+
+        int sets = Integer.MAX_VALUE;
+        for (int i = 0; i < inputCount; i++)
+            sets = Math.min(sets, available[i] / recipe.getInputAmount(i));
+        return sets;
+    }
+
+    /**
+     * Consume up to CHECK_INTERVAL input sets (one per tick since the last check) and spawn the output
+     */
+    private void fuse(EntityItem trigger, MetadataFusionRecipe recipe, List<EntityItem> items) {
+        ItemStack output = recipe.getOutput();
+
+        // Only fuse as many sets as fit in one output stack, the rest stays for the next check
+        int maxSets = Math.max(output.getMaxStackSize() / output.getCount(), 1);
+        int sets = Math.min(Math.min(CHECK_INTERVAL, maxSets), countInputs(recipe, items));
+        if (sets <= 0)
+            return;
+
+        for (int i = 0; i < recipe.getInputCount(); i++)
+            consume(recipe, i, sets * recipe.getInputAmount(i), items);
+
+        output.setCount(output.getCount() * sets);
+        spawnOutput(trigger, output);
+    }
+
+    private static void consume(MetadataFusionRecipe recipe, int input, int amount, List<EntityItem> items) {
+        for (EntityItem item : items) {
+            if (amount <= 0)
+                return;
+
+            ItemStack stack = item.getItem();
+            if (item.isDead || !recipe.matchesInput(input, stack))
+                continue;
+
+            int taken = Math.min(amount, stack.getCount());
+            stack.shrink(taken);
+            amount -= taken;
+            if (stack.isEmpty())
+                item.setDead();
+        }
+    }
+
+    private static void spawnOutput(EntityItem trigger, ItemStack output) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        EntityItem entity = new EntityItem(trigger.world, trigger.posX, trigger.posY + 0.6, trigger.posZ, output);
+        entity.motionX = random.nextDouble(-0.2, 0.2);
+        entity.motionY = 0;
+        entity.motionZ = random.nextDouble(-0.2, 0.2);
+        entity.setDefaultPickupDelay();
+
+        trigger.world.spawnEntity(entity);
+    }
+
+    private static class Bucket {
+        private long lastChecked = Long.MIN_VALUE / 2;
+        private int progress = 0;
+        @Nullable
+        private MetadataFusionRecipe recipe;
+    }
+}
@@ -2,8 +2,12 @@ package mustapelto.deepmoblearning.common.inventory;
 
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.NonNullList;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.ItemHandlerHelper;
 import net.minecraftforge.items.ItemStackHandler;
 
+import java.util.function.Predicate;
+
 public abstract class ItemHandlerBase extends ItemStackHandler {
     public ItemHandlerBase() {
         super();
@@ -17,15 +21,21 @@ public abstract class ItemHandlerBase extends ItemStackHandler {
         super(stacks);
     }
 
+    /**
+     * Shrink stack in slot in place
+     * @return Amount that could not be voided (because stack was too small)
+     */
     public int voidItem(int slot, int amount) {
-        ItemStack newStack = getStackInSlot(slot).copy();
-        int oldCount = newStack.getCount();
-        int newCount = Math.max(0, oldCount - amount);
-        int toVoid = oldCount - newCount;
-        newStack.shrink(toVoid);
-        if (newStack.isEmpty())
-            newStack = ItemStack.EMPTY;
-        setStackInSlot(slot, newStack);
+        validateSlotIndex(slot);
+        ItemStack stack = stacks.get(slot);
+        int toVoid = Math.min(stack.getCount(), amount);
+        if (toVoid <= 0)
+            return amount;
+
+        stack.shrink(toVoid);
+        if (stack.isEmpty())
+            stacks.set(slot, ItemStack.EMPTY);
+        onContentsChanged(slot);
 
         return amount - toVoid;
     }
@@ -34,13 +44,22 @@ public abstract class ItemHandlerBase extends ItemStackHandler {
         return voidItem(0, 1);
     }
 
+    /**
+     * Grow stack in slot in place (up to max stack size)
+     * @return Amount that could not be added
+     */
     public int growItem(int slot, int amount) {
-        ItemStack newStack = getStackInSlot(slot).copy();
-        int oldCount = newStack.getCount();
-        int newCount = Math.min(newStack.getMaxStackSize(), oldCount + amount);
-        int toAdd = newCount - oldCount;
-        newStack.grow(toAdd);
-        setStackInSlot(slot, newStack);
+        validateSlotIndex(slot);
+        ItemStack stack = stacks.get(slot);
+        if (stack.isEmpty())
+            return amount;
+
+        int toAdd = Math.max(0, Math.min(stack.getMaxStackSize() - stack.getCount(), amount));
+        if (toAdd == 0)
+            return amount;
+
+        stack.grow(toAdd);
+        onContentsChanged(slot);
 
         return amount - toAdd;
     }
@@ -52,4 +71,71 @@ public abstract class ItemHandlerBase extends ItemStackHandler {
     public int growItem() {
         return growItem(0, 1);
     }
+
+    //
+    // Bulk transfer
+    //
+
+    /**
+     * Move all matching stacks into target handler in one pass.
+     * Source stacks are shrunk in place; one copy per slot is handed to the target (which may keep it).
+     * @return Total amount of items moved
+     */
+    public int drainTo(IItemHandler target, Predicate<ItemStack> filter) {
+        int moved = 0;
+
+        for (int slot = 0; slot < stacks.size(); slot++) {
+            ItemStack stack = stacks.get(slot);
+            if (stack.isEmpty() || !filter.test(stack))
+                continue;
+
+            ItemStack remainder = ItemHandlerHelper.insertItemStacked(target, stack.copy(), false);
+            int inserted = stack.getCount() - remainder.getCount();
+            if (inserted <= 0)
+                continue;
+
+            stack.shrink(inserted);
+            if (stack.isEmpty())
+                stacks.set(slot, ItemStack.EMPTY);
+            onContentsChanged(slot);
+            moved += inserted;
+        }
+
+        return moved;
+    }
+
+    /**
+     * Move all matching stacks from source to target. Uses the bulk path for DML handlers,
+     * standard IItemHandler extraction (simulate, insert, extract) otherwise.
+     * @return Total amount of items moved
+     */
+    public static int transfer(IItemHandler source, IItemHandler target, Predicate<ItemStack> filter) {
+        if (source instanceof ItemHandlerBase)
+            return ((ItemHandlerBase) source).drainTo(target, filter);
+
+        int moved = 0;
+
+        for (int slot = 0; slot < source.getSlots(); slot++) {
+            ItemStack stack = source.getStackInSlot(slot);
+            if (stack.isEmpty() || !filter.test(stack))
+                continue;
+
+            ItemStack available = source.extractItem(slot, stack.getCount(), true);
+            if (available.isEmpty())
+                continue;
+
+            ItemStack remainder = ItemHandlerHelper.insertItemStacked(target, available, false);
+            int inserted = available.getCount() - remainder.getCount();
+            if (inserted > 0) {
+                source.extractItem(slot, inserted, false);
+                moved += inserted;
+            }
+        }
+
+        return moved;
+    }
+
+    public static int transfer(IItemHandler source, IItemHandler target) {
+        return transfer(source, target, stack -> true);
+    }
 }
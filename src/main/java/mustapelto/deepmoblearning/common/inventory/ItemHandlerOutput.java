@@ -1,15 +1,29 @@
 package mustapelto.deepmoblearning.common.inventory;
 
+import mustapelto.deepmoblearning.common.util.ItemStackKey;
 import net.minecraft.item.ItemStack;
-import net.minecraftforge.items.ItemHandlerHelper;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
 
 public class ItemHandlerOutput extends ItemHandlerBase {
+    // Free space bookkeeping, updated incrementally in onContentsChanged
+    private final Map<ItemStackKey, Integer> freeSpace = new HashMap<>(); // Remaining room in non-empty slots, per item type
+    private final Map<ItemStackKey, Integer> itemCounts = new HashMap<>(); // Total stored amount, per item type
+    private ItemStackKey[] slotKeys = new ItemStackKey[0]; // Item type each slot was counted as (null = empty)
+    private int[] slotFreeSpace = new int[0]; // Room each slot contributed to freeSpace
+    private int[] slotCounts = new int[0]; // Amount each slot contributed to itemCounts
+    private int emptySlots = 0;
+
     public ItemHandlerOutput() {
         super();
+        rebuildFreeSpace();
     }
 
     public ItemHandlerOutput(int size) {
         super(size);
+        rebuildFreeSpace();
     }
 
     @Override
@@ -17,51 +31,166 @@ public class ItemHandlerOutput extends ItemHandlerBase {
         return stack;
     }
 
-    /** Iterate through available slots and fill with input item
-     *  until either input stack is empty or all slots are filled
+    /** Fill slots with input item until either input stack is empty or all slots are filled.
+     *  Partially filled slots of the same item are grown in place, then the remainder is placed
+     *  into the first empty slot.
      *
-     * @param stack input ItemStack
+     * @param stack input ItemStack. Ownership passes to this handler (it may be stored in a slot).
      */
     public void addItemToAvailableSlots(ItemStack stack) {
-        int i = 0;
-        while (i < getSlots() && !stack.isEmpty()) {
+        if (stack.isEmpty())
+            return;
+
+        ItemStackKey key = ItemStackKey.lookup(stack);
+        int emptySlot = -1;
+
+        for (int i = 0; i < getSlots() && !stack.isEmpty(); i++) {
             ItemStack currentSlotStack = getStackInSlot(i);
 
             if (currentSlotStack.isEmpty()) {
-                // current slot is empty -> insert entire (remaining) stack
-                setStackInSlot(i, stack.copy());
-                return;
+                if (emptySlot == -1)
+                    emptySlot = i;
+                continue;
             }
 
-            int currentSlotStackSize = currentSlotStack.getCount();
-            int currentSlotStackMaxSize = currentSlotStack.getMaxStackSize();
-            int currentSlotRemainingSpace = currentSlotStackMaxSize - currentSlotStackSize;
+            if (freeSpace.getOrDefault(key, 0) == 0 && emptySlot != -1)
+                break; // No partial slots of this item left
 
-            if (currentSlotRemainingSpace > 0 &&
-                    ItemHandlerHelper.canItemStacksStack(stack, currentSlotStack)) {
+            int currentSlotRemainingSpace = currentSlotStack.getMaxStackSize() - currentSlotStack.getCount();
+            if (currentSlotRemainingSpace > 0 && key.matches(currentSlotStack)) {
                 // Current slot has room left and is same item as input stack
-                int remaining = growItem(i, stack.getCount());
-                stack.setCount(remaining);
+                int toAdd = Math.min(currentSlotRemainingSpace, stack.getCount());
+                currentSlotStack.grow(toAdd);
+                stack.shrink(toAdd);
+                onContentsChanged(i);
             }
+        }
 
-            i++;
+        if (stack.isEmpty())
+            return;
+
+        // Remaining items go into empty slots (more than one if stack is oversized, e.g. bulk output)
+        for (int i = Math.max(emptySlot, 0); i < getSlots(); i++) {
+            if (!getStackInSlot(i).isEmpty())
+                continue;
+
+            if (stack.getCount() <= stack.getMaxStackSize()) {
+                setStackInSlot(i, stack);
+                return;
+            }
+            setStackInSlot(i, stack.splitStack(stack.getMaxStackSize()));
         }
     }
 
+    /**
+     * @return Total amount of items matching stack (item, meta, NBT) that still fit into this handler
+     */
+    public long getRoomForItem(ItemStack stack) {
+        if (stack.isEmpty())
+            return 0;
+
+        return (long) emptySlots * stack.getMaxStackSize() + freeSpace.getOrDefault(ItemStackKey.lookup(stack), 0);
+    }
+
     public boolean hasRoomForItem(ItemStack stack) {
         if (stack.isEmpty())
             return true;
 
-        int availableSpaceForItem = 0;
+        long availableSpaceForItem = (long) emptySlots * stack.getMaxStackSize();
+        if (availableSpaceForItem >= stack.getCount())
+            return true;
+
+        availableSpaceForItem += freeSpace.getOrDefault(ItemStackKey.lookup(stack), 0);
+        return availableSpaceForItem >= stack.getCount();
+    }
+
+    /**
+     * @return Total amount of items matching stack (item, meta, NBT) stored in this handler
+     */
+    public int getItemCount(ItemStack stack) {
+        if (stack.isEmpty())
+            return 0;
+
+        return itemCounts.getOrDefault(ItemStackKey.lookup(stack), 0);
+    }
+
+    //
+    // Free space bookkeeping
+    //
+
+    @Override
+    protected void onContentsChanged(int slot) {
+        updateFreeSpace(slot);
+        super.onContentsChanged(slot);
+    }
+
+    @Override
+    protected void onLoad() {
+        // Stacks were replaced without change notifications (deserializeNBT)
+        rebuildFreeSpace();
+        super.onLoad();
+    }
+
+    @Override
+    public void setSize(int size) {
+        super.setSize(size);
+        rebuildFreeSpace();
+    }
+
+    private void rebuildFreeSpace() {
+        freeSpace.clear();
+        itemCounts.clear();
+        slotKeys = new ItemStackKey[getSlots()];
+        slotFreeSpace = new int[getSlots()];
+        slotCounts = new int[getSlots()];
+        emptySlots = 0;
 
         for (int i = 0; i < getSlots(); i++) {
-            ItemStack currentSlotStack = getStackInSlot(i);
-            if (currentSlotStack.isEmpty())
-                availableSpaceForItem += stack.getMaxStackSize();
-            else if (ItemHandlerHelper.canItemStacksStack(stack, currentSlotStack))
-                availableSpaceForItem += stack.getMaxStackSize() - currentSlotStack.getCount();
+            addSlot(i);
         }
+    }
 
-        return availableSpaceForItem >= stack.getCount();
+    private void updateFreeSpace(int slot) {
+        if (slot < 0 || slot >= slotKeys.length) {
+            rebuildFreeSpace();
+            return;
+        }
+
+        removeSlot(slot);
+        addSlot(slot);
+    }
+
+    private void addSlot(int slot) {
+        ItemStack stack = getStackInSlot(slot);
+        if (stack.isEmpty()) {
+            slotKeys[slot] = null;
+            slotFreeSpace[slot] = 0;
+            slotCounts[slot] = 0;
+            emptySlots++;
+            return;
+        }
+
+        ItemStackKey key = ItemStackKey.of(stack);
+        int room = Math.max(0, stack.getMaxStackSize() - stack.getCount());
+        slotKeys[slot] = key;
+        slotFreeSpace[slot] = room;
+        slotCounts[slot] = stack.getCount();
+        if (room > 0)
+            freeSpace.merge(key, room, Integer::sum);
+        itemCounts.merge(key, stack.getCount(), Integer::sum);
+    }
+
+    private void removeSlot(int slot) {
+        @Nullable ItemStackKey key = slotKeys[slot];
+        if (key == null) {
+            emptySlots--;
+            return;
+        }
+
+        int room = slotFreeSpace[slot];
+        if (room > 0)
+            freeSpace.computeIfPresent(key, (k, v) -> (v - room > 0) ? v - room : null);
+        int count = slotCounts[slot];
+        itemCounts.computeIfPresent(key, (k, v) -> (v - count > 0) ? v - count : null);
     }
 }
@@ -20,7 +20,7 @@ public abstract class ItemHandlerPristineMatter extends ItemHandlerBase {
     @Override
     public void deserializeNBT(NBTTagCompound nbt) {
         super.deserializeNBT(nbt);
-        updateMetadata();
+        refreshMetadata();
     }
 
     @Override
@@ -28,7 +28,7 @@ public abstract class ItemHandlerPristineMatter extends ItemHandlerBase {
         if (slot != 0)
             return;
 
-        updateMetadata();
+        refreshMetadata();
     }
 
     @Nullable
@@ -36,7 +36,10 @@ public abstract class ItemHandlerPristineMatter extends ItemHandlerBase {
         return pristineMatterMetadata;
     }
 
-    private void updateMetadata() {
+    /**
+     * Re-read metadata from contained Pristine Matter. Calls onMetadataChanged if it differs from the cached value.
+     */
+    public void refreshMetadata() {
         MetadataDataModel newMetadata = ItemPristineMatter.getDataModelMetadata(getStackInSlot(0)).orElse(null);
         if (newMetadata != pristineMatterMetadata) {
             pristineMatterMetadata = newMetadata;
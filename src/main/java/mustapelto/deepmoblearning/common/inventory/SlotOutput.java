@@ -2,6 +2,7 @@ package mustapelto.deepmoblearning.common.inventory;
 
 import net.minecraft.item.ItemStack;
 import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.IItemHandlerModifiable;
 import net.minecraftforge.items.SlotItemHandler;
 
 public class SlotOutput extends SlotItemHandler {
@@ -19,4 +20,12 @@ public class SlotOutput extends SlotItemHandler {
     public int getSlotStackLimit() {
         return 64;
     }
+
+    @Override
+    public void onSlotChanged() {
+        // Stack may have been changed in place (e.g. by shift-clicking) -> let the handler update its free space tracking
+        if (getItemHandler() instanceof IItemHandlerModifiable)
+            ((IItemHandlerModifiable) getItemHandler()).setStackInSlot(getSlotIndex(), getStack());
+        super.onSlotChanged();
+    }
 }
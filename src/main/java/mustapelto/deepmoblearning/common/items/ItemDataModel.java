@@ -23,7 +23,7 @@ import java.util.List;
 import java.util.Optional;
 
 public class ItemDataModel extends ItemBase {
-    private final MetadataDataModel metadata;
+    private MetadataDataModel metadata;
 
     public ItemDataModel(MetadataDataModel metadata) {
         super(metadata.getDataModelRegistryID(), 1, DMLRHelper.isModLoaded(metadata.getModID()));
@@ -34,6 +34,10 @@ public class ItemDataModel extends ItemBase {
         return metadata;
     }
 
+    public void setDataModelMetadata(MetadataDataModel metadata) {
+        this.metadata = metadata;
+    }
+
     @Override
     @SideOnly(Side.CLIENT)
     public void addInformation(ItemStack stack, @Nullable World worldIn, List<String> tooltip, ITooltipFlag flagIn) {
@@ -3,6 +3,8 @@ package mustapelto.deepmoblearning.common.items;
 import mustapelto.deepmoblearning.DMLConstants;
 import mustapelto.deepmoblearning.DMLRelearned;
 import mustapelto.deepmoblearning.common.DMLConfig;
+import mustapelto.deepmoblearning.common.capability.CapabilityGlitchArmorProvider;
+import mustapelto.deepmoblearning.common.capability.ICapabilityGlitchArmor;
 import mustapelto.deepmoblearning.common.util.DataModelHelper;
 import mustapelto.deepmoblearning.common.util.ItemStackHelper;
 import net.minecraft.client.resources.I18n;
@@ -64,6 +66,11 @@ public abstract class ItemGlitchArmor extends ItemArmor {
     // Helper methods
 
     public static boolean isSetEquipped(EntityPlayer player) {
+        // Tracked from equipment change events on the server
+        @Nullable ICapabilityGlitchArmor cap = player.getCapability(CapabilityGlitchArmorProvider.GLITCH_ARMOR_CAP, null);
+        if (cap != null && !player.world.isRemote)
+            return cap.isSetEquipped();
+
         return ItemStackHelper.isGlitchArmor(player.getItemStackFromSlot(EntityEquipmentSlot.HEAD)) &&
                 ItemStackHelper.isGlitchArmor(player.getItemStackFromSlot(EntityEquipmentSlot.CHEST)) &&
                 ItemStackHelper.isGlitchArmor(player.getItemStackFromSlot(EntityEquipmentSlot.LEGS)) &&
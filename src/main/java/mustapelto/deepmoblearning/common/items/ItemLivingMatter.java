@@ -23,7 +23,7 @@ import javax.annotation.Nullable;
 import java.util.List;
 
 public class ItemLivingMatter extends ItemBase {
-    private final MetadataLivingMatter metadata;
+    private MetadataLivingMatter metadata;
 
     public ItemLivingMatter(MetadataLivingMatter metadata) {
         super(metadata.getRegistryID(), 64, DMLRHelper.isModLoaded(metadata.getModID()));
@@ -34,6 +34,10 @@ public class ItemLivingMatter extends ItemBase {
         return metadata;
     }
 
+    public void setLivingMatterData(MetadataLivingMatter metadata) {
+        this.metadata = metadata;
+    }
+
     @Override
     @SideOnly(Side.CLIENT)
     public void addInformation(ItemStack stack, @Nullable World worldIn, List<String> tooltip, ITooltipFlag flagIn) {
@@ -17,13 +17,17 @@ import java.util.List;
 import java.util.Optional;
 
 public class ItemPristineMatter extends ItemBase {
-    private final MetadataDataModel metadata;
+    private MetadataDataModel metadata;
 
     public ItemPristineMatter(MetadataDataModel metadata) {
         super(metadata.getPristineMatterRegistryID(), 64, DMLRHelper.isModLoaded(metadata.getModID()));
         this.metadata = metadata;
     }
 
+    public void setDataModelMetadata(MetadataDataModel metadata) {
+        this.metadata = metadata;
+    }
+
     @Override
     public boolean hasEffect(ItemStack stack) {
         return true; // Make items glow
@@ -0,0 +1,137 @@
+package mustapelto.deepmoblearning.common.metadata;
+
+import com.google.common.collect.ImmutableSortedMap;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+
+/**
+ * Dense lookup table of Data Model Tiers, compiled from the tier store.
+ * Array index = tier - minTier. Gaps in the configured tiers map to null / default values.
+ */
+public final class DataModelTierTable {
+    public static final DataModelTierTable EMPTY = new DataModelTierTable();
+
+    private final int minTier;
+    private final int maxTier;
+
+    private final MetadataDataModelTier[] tierData;
+    private final int[] nextTier; // Next configured tier above this one (or max tier)
+    private final int[] prevTier; // Next configured tier below this one (or min tier)
+    private final int[] dataToNext;
+    private final int[] killMultiplier;
+    private final int[] pristineChance;
+    private final boolean[] canSimulate;
+
+    private DataModelTierTable() {
+        minTier = -1;
+        maxTier = -1;
+        tierData = new MetadataDataModelTier[0];
+        nextTier = new int[0];
+        prevTier = new int[0];
+        dataToNext = new int[0];
+        killMultiplier = new int[0];
+        pristineChance = new int[0];
+        canSimulate = new boolean[0];
+    }
+
+    private DataModelTierTable(ImmutableSortedMap<Integer, MetadataDataModelTier> store) {
+        minTier = store.firstKey();
+        maxTier = store.lastKey();
+
+        int size = maxTier - minTier + 1;
+        tierData = new MetadataDataModelTier[size];
+        nextTier = new int[size];
+        prevTier = new int[size];
+        dataToNext = new int[size];
+        killMultiplier = new int[size];
+        pristineChance = new int[size];
+        canSimulate = new boolean[size];
+
+        for (Map.Entry<Integer, MetadataDataModelTier> entry : store.entrySet()) {
+            int index = entry.getKey() - minTier;
+            MetadataDataModelTier tier = entry.getValue();
+            tierData[index] = tier;
+            dataToNext[index] = tier.getDataToNext();
+            killMultiplier[index] = tier.getKillMultiplier();
+            pristineChance[index] = tier.getPristineChance();
+            canSimulate[index] = tier.getCanSimulate();
+        }
+
+        // Walk up and down once to find the neighbouring configured tiers of every index
+        int prev = minTier;
+        for (int i = 0; i < size; i++) {
+            prevTier[i] = prev;
+            if (tierData[i] != null)
+                prev = i + minTier;
+        }
+
+        int next = maxTier;
+        for (int i = size - 1; i >= 0; i--) {
+            nextTier[i] = next;
+            if (tierData[i] != null)
+                next = i + minTier;
+        }
+    }
+
+    public static DataModelTierTable compile(ImmutableSortedMap<Integer, MetadataDataModelTier> store) {
+        return store.isEmpty() ? EMPTY : new DataModelTierTable(store);
+    }
+
+    public boolean isEmpty() {
+        return tierData.length == 0;
+    }
+
+    public int getMinTier() {
+        return minTier;
+    }
+
+    public int getMaxTier() {
+        return maxTier;
+    }
+
+    public int clamp(int tier) {
+        return (tier < minTier) ? minTier : Math.min(tier, maxTier);
+    }
+
+    private boolean isInRange(int tier) {
+        return tier >= minTier && tier <= maxTier && !isEmpty();
+    }
+
+    @Nullable
+    public MetadataDataModelTier getTierData(int tier) {
+        return isInRange(tier) ? tierData[tier - minTier] : null;
+    }
+
+    public int getNextTier(int tier) {
+        if (isEmpty())
+            return -1;
+        if (tier < minTier)
+            return minTier;
+        return (tier >= maxTier) ? maxTier : nextTier[tier - minTier];
+    }
+
+    public int getPrevTier(int tier) {
+        if (isEmpty())
+            return -1;
+        if (tier > maxTier)
+            return maxTier;
+        return (tier <= minTier) ? minTier : prevTier[tier - minTier];
+    }
+
+    public int getDataToNext(int tier) {
+        return isInRange(tier) ? dataToNext[tier - minTier] : 0;
+    }
+
+    public int getKillMultiplier(int tier) {
+        return isInRange(tier) ? killMultiplier[tier - minTier] : 0;
+    }
+
+    public int getPristineChance(int tier) {
+        return isInRange(tier) ? pristineChance[tier - minTier] : 0;
+    }
+
+    public boolean canSimulate(int tier) {
+        return isInRange(tier) && canSimulate[tier - minTier];
+    }
+}
@@ -1,12 +1,13 @@
 package mustapelto.deepmoblearning.common.metadata;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.gson.JsonObject;
 import mustapelto.deepmoblearning.DMLConstants;
 import mustapelto.deepmoblearning.DMLRelearned;
+import mustapelto.deepmoblearning.client.util.ItemTextureIndex;
 import mustapelto.deepmoblearning.common.DMLRegistry;
 import mustapelto.deepmoblearning.common.util.*;
-import net.minecraft.client.Minecraft;
 import net.minecraft.entity.*;
 import net.minecraft.entity.monster.EntityZombie;
 import net.minecraft.item.Item;
@@ -22,10 +23,13 @@ import net.minecraft.world.World;
 import net.minecraftforge.common.crafting.CraftingHelper;
 import net.minecraftforge.fml.common.registry.EntityEntry;
 import net.minecraftforge.fml.common.registry.EntityRegistry;
+import net.minecraftforge.fml.common.registry.ForgeRegistries;
 import net.minecraftforge.oredict.OreIngredient;
 import net.minecraftforge.oredict.ShapelessOreRecipe;
 
-import java.io.IOException;
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -75,6 +79,7 @@ public class MetadataDataModel extends Metadata {
     // Calculated data
     private ImmutableList<ResourceLocation> associatedMobs; // List of mobs that increase Model data.
     private ImmutableList<ItemStack> lootItems; // List of actual ItemStacks that can be selected as "loot"
+    private ImmutableMap<ItemStackKey, Integer> lootItemIndex; // Index of first loot item with given item/meta/NBT
     private ItemStack livingMatter; // Living Matter data associated with this Data Model
     private ItemStack pristineMatter; // Pristine Matter associated with this Data Model
 
@@ -156,6 +161,12 @@ public class MetadataDataModel extends Metadata {
         if (lootItems.isEmpty())
             DMLRelearned.logger.error("No valid Loot Items found for Data Model: {}. This Model's Pristine Matter won't be able to produce any loot!", dataModelID);
 
+        Map<ItemStackKey, Integer> indexBuilder = new HashMap<>();
+        for (int i = 0; i < lootItems.size(); i++) {
+            indexBuilder.putIfAbsent(ItemStackKey.of(lootItems.get(i)), i);
+        }
+        lootItemIndex = ImmutableMap.copyOf(indexBuilder);
+
         // Get associated Living Matter
         livingMatter = DMLRegistry.getLivingMatter(livingMatterString);
         pristineMatter = DMLRegistry.getPristineMatter(dataModelID);
@@ -230,29 +241,21 @@ public class MetadataDataModel extends Metadata {
     }
 
     public ResourceLocation getDataModelTexture() {
-        try {
-            // Will throw FileNotFoundException if texture file doesn't exist in mod jar or resource packs
-            ResourceLocation locationFromId = new ResourceLocation(DMLConstants.ModInfo.ID, "textures/items/" + getDataModelRegistryID() + ".png");
-            Minecraft.getMinecraft().getResourceManager().getAllResources(locationFromId);
+        if (ItemTextureIndex.hasItemTexture(getDataModelRegistryID()))
             return new ResourceLocation(DMLConstants.ModInfo.ID, "items/" + getDataModelRegistryID());
-        } catch (IOException e) {
-            // File not found -> use default model and output info
-            DMLRelearned.logger.info("Data Model texture not found for entry {}:{}. Using default texture.", modID, dataModelID);
-            return DMLConstants.DefaultModels.DATA_MODEL;
-        }
+
+        // File not found -> use default model and output info
+        DMLRelearned.logger.info("Data Model texture not found for entry {}:{}. Using default texture.", modID, dataModelID);
+        return DMLConstants.DefaultModels.DATA_MODEL;
     }
 
     public ResourceLocation getPristineMatterTexture() {
-        try {
-            // Will throw FileNotFoundException if texture file doesn't exist in mod jar or resource packs
-            ResourceLocation locationFromId = new ResourceLocation(DMLConstants.ModInfo.ID, "textures/items/" + getPristineMatterRegistryID() + ".png");
-            Minecraft.getMinecraft().getResourceManager().getAllResources(locationFromId);
+        if (ItemTextureIndex.hasItemTexture(getPristineMatterRegistryID()))
             return new ResourceLocation(DMLConstants.ModInfo.ID, "items/" + getPristineMatterRegistryID());
-        } catch (IOException e) {
-            // File not found -> use default model and output info
-            DMLRelearned.logger.info("Pristine Matter texture not found for entry {}:{}. Using default texture.", modID, dataModelID);
-            return DMLConstants.DefaultModels.PRISTINE_MATTER;
-        }
+
+        // File not found -> use default model and output info
+        DMLRelearned.logger.info("Pristine Matter texture not found for entry {}:{}. Using default texture.", modID, dataModelID);
+        return DMLConstants.DefaultModels.PRISTINE_MATTER;
     }
 
     public boolean isAssociatedMob(EntityLivingBase entity) {
@@ -281,18 +284,22 @@ public class MetadataDataModel extends Metadata {
     }
 
     public boolean hasLootItem(ItemStack item) {
-        for (ItemStack lootItem : lootItems) {
-            if (ItemStack.areItemStacksEqual(item, lootItem))
-                return true;
-        }
-        return false;
+        return getLootItemIndex(item) != -1;
     }
 
     public int getLootItemIndex(ItemStack item) {
-        if (lootItems.isEmpty() || !hasLootItem(item))
+        if (lootItemIndex == null || item.isEmpty())
             return -1;
 
-        for (int i = 0; i < lootItems.size(); i++) {
+        Integer index = lootItemIndex.get(ItemStackKey.lookup(item));
+        if (index == null)
+            return -1;
+
+        if (ItemStack.areItemStacksEqual(lootItems.get(index), item))
+            return index;
+
+        // Same item with different stack size configured more than once -> check remaining entries
+        for (int i = index + 1; i < lootItems.size(); i++) {
             if (ItemStack.areItemStacksEqual(lootItems.get(i), item))
                 return i;
         }
@@ -333,6 +340,17 @@ public class MetadataDataModel extends Metadata {
         return Optional.of(result);
     }
 
+    /**
+     * @return Registry entry (with cached entity factory) for entity name, or null if no such entity is registered
+     */
+    @Nullable
+    private static EntityEntry getEntityEntry(@Nullable ResourceLocation entityName) {
+        if (entityName == null || !ForgeRegistries.ENTITIES.containsKey(entityName))
+            return null;
+
+        return ForgeRegistries.ENTITIES.getValue(entityName);
+    }
+
     public static class TrialData {
         private static final String ENTITIES = "entities";
         private static final String MOBS_PER_WAVE = "mobsPerWave";
@@ -349,7 +367,8 @@ public class MetadataDataModel extends Metadata {
         private final double spawnDelay; // Time between wave spawns. Default: 2
         private final ImmutableList<String> rewardStrings; // List of rewards for a Trial with this mob. Default: []
 
-        private ImmutableList<WeightedString> entities; // Validated list of entities to spawn for trial
+        private ImmutableList<WeightedEntity> entities; // Validated list of entities to spawn for trial, with resolved registry entries
+        private int entitiesTotalWeight;
         private ImmutableList<ItemStack> rewards; // List of actual ItemStacks that are received as trial reward
 
         /** Default constructor, used if Data Model JSON entry doesn't have Trial entry
@@ -391,15 +410,16 @@ public class MetadataDataModel extends Metadata {
             DMLRelearned.logger.info("Registering Trial for {}", container.getDisplayName());
             // Build weighted list of trial entities
             boolean hasValidEntities = false;
-            ImmutableList.Builder<WeightedString> builder = ImmutableList.builder();
+            ImmutableList.Builder<WeightedEntity> builder = ImmutableList.builder();
             for (WeightedString entry : entityStrings) {
                 String entityString = entry.getValue();
-                if (!DMLRHelper.isRegisteredEntity(entityString)) {
+                EntityEntry entityEntry = getEntityEntry(new ResourceLocation(entityString));
+                if (entityEntry == null) {
                     DMLRelearned.logger.warn("Invalid entry \"{}\" in Trial entity list for Data Model: {}. No registered entity of this name found!", entityString, container.dataModelID);
                     continue;
                 }
                 DMLRelearned.logger.info("Registering Trial entity {} with weight {}", entityString, entry.itemWeight);
-                builder.add(new WeightedString(entityString, entry.itemWeight));
+                builder.add(new WeightedEntity(entityEntry, entry.itemWeight));
                 hasValidEntities = true;
             }
 
@@ -408,6 +428,7 @@ public class MetadataDataModel extends Metadata {
             }
 
             entities = builder.build();
+            entitiesTotalWeight = WeightedRandom.getTotalWeight(entities);
         }
 
         public boolean hasEntity() {
@@ -415,9 +436,11 @@ public class MetadataDataModel extends Metadata {
         }
 
         public Optional<EntityLiving> getRandomEntity(World world) {
-            String entityName = WeightedRandom.getRandomItem(ThreadLocalRandom.current(), entities).getValue();
-            ResourceLocation entityResource = new ResourceLocation(entityName);
-            Entity entity = EntityList.createEntityByIDFromName(entityResource, world);
+            if (!hasEntity())
+                return Optional.empty();
+
+            EntityEntry entityEntry = WeightedRandom.getRandomItem(ThreadLocalRandom.current(), entities, entitiesTotalWeight).entityEntry;
+            Entity entity = entityEntry.newInstance(world);
             return (entity instanceof EntityLiving) ? Optional.of((EntityLiving) entity) : Optional.empty();
         }
 
@@ -439,6 +462,15 @@ public class MetadataDataModel extends Metadata {
             else
                 return mobsPerWave.get(wave);
         }
+
+        private static class WeightedEntity extends WeightedRandom.Item {
+            private final EntityEntry entityEntry;
+
+            private WeightedEntity(EntityEntry entityEntry, int weight) {
+                super(weight);
+                this.entityEntry = entityEntry;
+            }
+        }
     }
 
     public static class DeepLearnerDisplayData {
@@ -475,7 +507,10 @@ public class MetadataDataModel extends Metadata {
         private final int extraEntityOffsetX; // X offset of additional entity. Default: 0
         private final int extraEntityOffsetY; // Y offset of additional entity. Default: 0
 
-        private ResourceLocation entityValidated;
+        // Resolved in finalizeData
+        @Nullable private EntityEntry entityEntry;
+        @Nullable private EntityEntry extraEntityEntry;
+        private ItemStack heldItemPrototype = ItemStack.EMPTY;
 
         private final MetadataDataModel container;
 
@@ -525,10 +560,17 @@ public class MetadataDataModel extends Metadata {
         }
 
         public void finalizeData() {
+            ResourceLocation entityValidated;
             if (entity == null && !container.associatedMobs.isEmpty())
                 entityValidated = container.associatedMobs.get(0);
             else
                 entityValidated = entity;
+
+            entityEntry = getEntityEntry(entityValidated);
+            extraEntityEntry = getEntityEntry(extraEntityName);
+
+            Item heldItem = (entityHeldItem != null) ? ForgeRegistries.ITEMS.getValue(entityHeldItem) : null;
+            heldItemPrototype = (heldItem != null) ? new ItemStack(heldItem) : ItemStack.EMPTY;
         }
 
         public int getHearts() {
@@ -540,15 +582,12 @@ public class MetadataDataModel extends Metadata {
         }
 
         public Optional<Entity> getEntity(World world) {
-            if (!EntityList.isRegistered(entityValidated))
+            if (entityEntry == null)
                 return Optional.empty();
 
-            Entity entity = EntityList.createEntityByIDFromName(entityValidated, world);
-            if (entity instanceof EntityLiving && entityHeldItem != null) {
-                Item heldItem = Item.getByNameOrId(entityHeldItem.toString());
-                if (heldItem != null)
-                    ((EntityLiving) entity).setHeldItem(EnumHand.MAIN_HAND, new ItemStack(heldItem));
-            }
+            Entity entity = entityEntry.newInstance(world);
+            if (entity instanceof EntityLiving && !heldItemPrototype.isEmpty())
+                ((EntityLiving) entity).setHeldItem(EnumHand.MAIN_HAND, heldItemPrototype.copy());
 
             return entity != null ? Optional.of(entity) : Optional.empty();
         }
@@ -566,10 +605,10 @@ public class MetadataDataModel extends Metadata {
         }
 
         public Optional<Entity> getExtraEntity(World world) {
-            if (!EntityList.isRegistered(extraEntityName))
+            if (extraEntityEntry == null)
                 return Optional.empty();
 
-            Entity entity = EntityList.createEntityByIDFromName(extraEntityName, world);
+            Entity entity = extraEntityEntry.newInstance(world);
             if (extraEntityIsChild) {
                 if (entity instanceof EntityZombie) {
                     ((EntityZombie) entity).setChild(true);
@@ -0,0 +1,131 @@
+package mustapelto.deepmoblearning.common.metadata;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gson.JsonObject;
+import mustapelto.deepmoblearning.DMLRelearned;
+import mustapelto.deepmoblearning.common.util.ItemStackDefinitionHelper;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-world fusion: dropped items lying together are consumed and turned into the output item.
+ */
+public class MetadataFusionRecipe extends Metadata {
+    // JSON Keys
+    private static final String RECIPE_ID = "id";
+    private static final String INPUTS = "inputs";
+    private static final String OUTPUT = "output";
+    private static final String DURATION = "duration";
+    private static final String REQUIRES_WATER = "requiresWater";
+
+    // Validation
+    private static final String[] REQUIRED_KEYS = new String[] {
+            RECIPE_ID, INPUTS, OUTPUT
+    };
+
+    // Default Values
+    private static final int DEFAULT_DURATION = 35;
+    private static final boolean DEFAULT_REQUIRES_WATER = true;
+
+    // Data from JSON
+    private final String recipeID;
+    private final ImmutableList<String> inputStrings;
+    private final String outputString;
+    private final int duration; // Ticks the inputs have to lie together before the first fusion. Default: 35
+    private final boolean requiresWater; // Item entity that triggers the check has to be in water. Default: true
+
+    // Calculated data
+    private ItemStack[] inputs = new ItemStack[0]; // Count is the number of items consumed by one fusion
+    private ItemStack output = ItemStack.EMPTY;
+
+    public MetadataFusionRecipe(JsonObject data) throws IllegalArgumentException {
+        if (isInvalidJson(data, REQUIRED_KEYS)) {
+            throw new IllegalArgumentException("Invalid Fusion Recipe JSON entry!");
+        }
+
+        recipeID = getString(data, RECIPE_ID)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid Fusion Recipe ID!"));
+        inputStrings = getStringList(data, INPUTS)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid Fusion Recipe inputs!"));
+        outputString = getString(data, OUTPUT)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid Fusion Recipe output!"));
+
+        duration = getInt(data, DURATION, 1, 1200)
+                .orElse(DEFAULT_DURATION);
+        requiresWater = getBoolean(data, REQUIRES_WATER)
+                .orElse(DEFAULT_REQUIRES_WATER);
+    }
+
+    @Override
+    public void finalizeData() {
+        output = ItemStackDefinitionHelper.itemStackFromString(outputString);
+
+        // Inputs with the same item are merged into one input with the summed count
+        List<ItemStack> inputList = new ArrayList<>();
+        for (String inputString : inputStrings) {
+            ItemStack input = ItemStackDefinitionHelper.itemStackFromString(inputString);
+            if (input.isEmpty()) {
+                DMLRelearned.logger.warn("Invalid input \"{}\" in Fusion Recipe \"{}\"! Recipe disabled.", inputString, recipeID);
+                inputList.clear();
+                break;
+            }
+
+            ItemStack existing = inputList.stream().filter(input::isItemEqual).findFirst().orElse(null);
+            if (existing != null)
+                existing.grow(input.getCount());
+            else
+                inputList.add(input);
+        }
+
+        if (output.isEmpty())
+            DMLRelearned.logger.warn("Invalid output \"{}\" in Fusion Recipe \"{}\"! Recipe disabled.", outputString, recipeID);
+
+        inputs = inputList.toArray(new ItemStack[0]);
+    }
+
+    @Override
+    public String getID() {
+        return recipeID;
+    }
+
+    public boolean isValid() {
+        return inputs.length > 0 && !output.isEmpty();
+    }
+
+    public int getInputCount() {
+        return inputs.length;
+    }
+
+    public Item getInputItem(int index) {
+        return inputs[index].getItem();
+    }
+
+    /**
+     * @return true if stack is the input's item (metadata checked, NBT ignored, like ItemStack.isItemEqual)
+     */
+    public boolean matchesInput(int index, ItemStack stack) {
+        return !stack.isEmpty() && stack.isItemEqual(inputs[index]);
+    }
+
+    /**
+     * @return Number of items of an input consumed by one fusion
+     */
+    public int getInputAmount(int index) {
+        return inputs[index].getCount();
+    }
+
+    public ItemStack getOutput() {
+        return output.copy();
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    public boolean requiresWater() {
+        return requiresWater;
+    }
+}
@@ -3,14 +3,13 @@ package mustapelto.deepmoblearning.common.metadata;
 import com.google.gson.JsonObject;
 import mustapelto.deepmoblearning.DMLConstants;
 import mustapelto.deepmoblearning.DMLRelearned;
+import mustapelto.deepmoblearning.client.util.ItemTextureIndex;
 import mustapelto.deepmoblearning.common.DMLRegistry;
 import mustapelto.deepmoblearning.common.util.StringHelper;
-import net.minecraft.client.Minecraft;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.text.TextFormatting;
 
-import java.io.IOException;
 
 public class MetadataLivingMatter extends Metadata {
     // JSON Keys
@@ -103,15 +102,11 @@ public class MetadataLivingMatter extends Metadata {
     }
 
     public ResourceLocation getLivingMatterTexture() {
-        try {
-            // Will throw FileNotFoundException if texture file doesn't exist in mod jar or resource packs
-            ResourceLocation locationFromId = new ResourceLocation(DMLConstants.ModInfo.ID, "textures/items/" + getRegistryID() + ".png");
-            Minecraft.getMinecraft().getResourceManager().getAllResources(locationFromId);
+        if (ItemTextureIndex.hasItemTexture(getRegistryID()))
             return new ResourceLocation(DMLConstants.ModInfo.ID, "items/" + getRegistryID());
-        } catch (IOException e) {
-            // File not found -> use default model and output info
-            DMLRelearned.logger.info("Living Matter texture not found for entry: {}. Using default texture.", livingMatterID);
-            return DMLConstants.DefaultModels.LIVING_MATTER;
-        }
+
+        // File not found -> use default model and output info
+        DMLRelearned.logger.info("Living Matter texture not found for entry: {}. Using default texture.", livingMatterID);
+        return DMLConstants.DefaultModels.LIVING_MATTER;
     }
 }
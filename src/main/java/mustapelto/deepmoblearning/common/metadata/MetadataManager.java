@@ -1,6 +1,7 @@
 package mustapelto.deepmoblearning.common.metadata;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.gson.*;
@@ -8,6 +9,7 @@ import com.google.gson.stream.JsonReader;
 import mustapelto.deepmoblearning.DMLConstants;
 import mustapelto.deepmoblearning.DMLRelearned;
 import mustapelto.deepmoblearning.common.util.DMLRHelper;
+import net.minecraft.item.Item;
 import net.minecraft.item.crafting.IRecipe;
 import net.minecraft.util.ResourceLocation;
 import net.minecraftforge.common.crafting.CraftingHelper;
@@ -18,6 +20,7 @@ import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public class MetadataManager {
     private static final String INTERNAL_PATH = "/settings/";
@@ -25,14 +28,24 @@ public class MetadataManager {
     private static final String DATA_MODEL_TIER_FILE = "DataModelTiers.json";
     private static final String LIVING_MATTER_FILE = "LivingMatter.json";
     private static final String LIVING_MATTER_RECIPES_FILE = "LivingMatterRecipes.json";
+    private static final String FUSION_RECIPES_FILE = "FusionRecipes.json";
 
     private static File configDir;
 
     private static ImmutableMap<String, MetadataDataModel> dataModelStore;
     private static ImmutableSortedMap<Integer, MetadataDataModelTier> dataModelTierStore;
+    private static DataModelTierTable dataModelTierTable = DataModelTierTable.EMPTY; // Compiled from dataModelTierStore in finalizeData
     private static ImmutableMap<String, MetadataLivingMatter> livingMatterStore;
 
     private static ImmutableList<JsonObject> livingMatterRecipesJson;
+    private static ImmutableList<MetadataFusionRecipe> fusionRecipeStore = ImmutableList.of();
+    private static ImmutableListMultimap<Item, MetadataFusionRecipe> fusionRecipesByInput = ImmutableListMultimap.of(); // Built in finalizeData
+
+    // Raw config contents, kept to report differences on reload
+    private static JsonArray dataModelJson = new JsonArray();
+    private static JsonArray dataModelTierJson = new JsonArray();
+    private static JsonArray livingMatterJson = new JsonArray();
+    private static JsonArray fusionRecipeJson = new JsonArray();
 
     public static void init(FMLPreInitializationEvent event) throws IOException {
         DMLRelearned.logger.info("Loading data from JSON config files...");
@@ -42,28 +55,60 @@ public class MetadataManager {
             throw new IOException("Could not create mod config directory!");
         }
 
-        copyConfigFile(DATA_MODEL_FILE)
-                .flatMap(MetadataManager::readConfigFile)
-                .ifPresent(MetadataManager::initDataModelStore);
-
-        copyConfigFile(DATA_MODEL_TIER_FILE)
-                .flatMap(MetadataManager::readConfigFile)
-                .ifPresent(MetadataManager::initDataModelTierStore);
-
-        copyConfigFile(LIVING_MATTER_FILE)
-                .flatMap(MetadataManager::readConfigFile)
-                .ifPresent(MetadataManager::initLivingMatterStore);
+        // Files are independent of each other -> read and parse in parallel
+        CompletableFuture<Optional<JsonArray>> dataModelJsonFuture = readConfigFileAsync(DATA_MODEL_FILE);
+        CompletableFuture<Optional<JsonArray>> dataModelTierJsonFuture = readConfigFileAsync(DATA_MODEL_TIER_FILE);
+        CompletableFuture<Optional<JsonArray>> livingMatterJsonFuture = readConfigFileAsync(LIVING_MATTER_FILE);
+        CompletableFuture<Optional<JsonArray>> livingMatterRecipesJsonFuture = readConfigFileAsync(LIVING_MATTER_RECIPES_FILE);
+        CompletableFuture<Optional<JsonArray>> fusionRecipesJsonFuture = readConfigFileAsync(FUSION_RECIPES_FILE);
+
+        CompletableFuture<Optional<ImmutableMap<String, MetadataDataModel>>> dataModelFuture =
+                dataModelJsonFuture.thenApply(json -> json.map(MetadataManager::parseDataModels));
+        CompletableFuture<Optional<ImmutableSortedMap<Integer, MetadataDataModelTier>>> dataModelTierFuture =
+                dataModelTierJsonFuture.thenApply(json -> json.map(MetadataManager::parseDataModelTiers));
+        CompletableFuture<Optional<ImmutableMap<String, MetadataLivingMatter>>> livingMatterFuture =
+                livingMatterJsonFuture.thenApply(json -> json.map(MetadataManager::parseLivingMatter));
+        CompletableFuture<Optional<ImmutableList<JsonObject>>> livingMatterRecipesFuture =
+                livingMatterRecipesJsonFuture.thenApply(json -> json.map(MetadataManager::readLivingMatterRecipes));
+        CompletableFuture<Optional<ImmutableList<MetadataFusionRecipe>>> fusionRecipesFuture =
+                fusionRecipesJsonFuture.thenApply(json -> json.map(MetadataManager::parseFusionRecipes));
+
+        dataModelJsonFuture.join().ifPresent(json -> dataModelJson = json);
+        dataModelTierJsonFuture.join().ifPresent(json -> dataModelTierJson = json);
+        livingMatterJsonFuture.join().ifPresent(json -> livingMatterJson = json);
+        fusionRecipesJsonFuture.join().ifPresent(json -> fusionRecipeJson = json);
+
+        dataModelFuture.join().ifPresent(store -> dataModelStore = store);
+        dataModelTierFuture.join().ifPresent(store -> dataModelTierStore = store);
+        livingMatterFuture.join().ifPresent(store -> livingMatterStore = store);
+        livingMatterRecipesFuture.join().ifPresent(recipes -> livingMatterRecipesJson = recipes);
+        fusionRecipesFuture.join().ifPresent(recipes -> fusionRecipeStore = recipes);
+    }
 
-        copyConfigFile(LIVING_MATTER_RECIPES_FILE)
-                .flatMap(MetadataManager::readConfigFile)
-                .ifPresent(MetadataManager::readLivingMatterRecipes);
+    private static CompletableFuture<Optional<JsonArray>> readConfigFileAsync(String filename) {
+        return CompletableFuture.supplyAsync(() -> copyConfigFile(filename).flatMap(MetadataManager::readConfigFile));
     }
 
     public static void finalizeData() {
         DMLRelearned.logger.info("Finalizing config data...");
         dataModelStore.values().forEach(MetadataDataModel::finalizeData);
         dataModelTierStore.values().forEach(MetadataDataModelTier::finalizeData);
+        dataModelTierTable = DataModelTierTable.compile(dataModelTierStore);
         livingMatterStore.values().forEach(MetadataLivingMatter::finalizeData);
+        fusionRecipeStore.forEach(MetadataFusionRecipe::finalizeData);
+        fusionRecipesByInput = indexFusionRecipes(fusionRecipeStore);
+    }
+
+    private static ImmutableListMultimap<Item, MetadataFusionRecipe> indexFusionRecipes(ImmutableList<MetadataFusionRecipe> recipes) {
+        ImmutableListMultimap.Builder<Item, MetadataFusionRecipe> builder = ImmutableListMultimap.builder();
+        for (MetadataFusionRecipe recipe : recipes) {
+            if (!recipe.isValid())
+                continue;
+
+            for (int i = 0; i < recipe.getInputCount(); i++)
+                builder.put(recipe.getInputItem(i), recipe);
+        }
+        return builder.build();
     }
 
     //
@@ -120,7 +165,7 @@ public class MetadataManager {
     // JSON parse
     //
 
-    private static void initDataModelStore(JsonArray json) {
+    private static ImmutableMap<String, MetadataDataModel> parseDataModels(JsonArray json) {
         ImmutableMap.Builder<String, MetadataDataModel> builder = ImmutableMap.builder();
 
         for (int i = 0; i < json.size(); i++) {
@@ -140,10 +185,10 @@ public class MetadataManager {
             builder.put(metadata.getID(), metadata);
         }
 
-        dataModelStore = builder.build();
+        return builder.build();
     }
 
-    private static void initDataModelTierStore(JsonArray json) {
+    private static ImmutableSortedMap<Integer, MetadataDataModelTier> parseDataModelTiers(JsonArray json) {
         ImmutableSortedMap.Builder<Integer, MetadataDataModelTier> builder = ImmutableSortedMap.naturalOrder();
 
         for (int i = 0; i < json.size(); i++) {
@@ -163,10 +208,10 @@ public class MetadataManager {
             builder.put(metadata.getTier(), metadata);
         }
 
-        dataModelTierStore = builder.build();
+        return builder.build();
     }
 
-    private static void initLivingMatterStore(JsonArray json) {
+    private static ImmutableMap<String, MetadataLivingMatter> parseLivingMatter(JsonArray json) {
         ImmutableMap.Builder<String, MetadataLivingMatter> builder = ImmutableMap.builder();
 
         for (int i = 0; i < json.size(); i++) {
@@ -186,10 +231,10 @@ public class MetadataManager {
             builder.put(metadata.getID(), metadata);
         }
 
-        livingMatterStore = builder.build();
+        return builder.build();
     }
 
-    private static void readLivingMatterRecipes(JsonArray array) {
+    private static ImmutableList<JsonObject> readLivingMatterRecipes(JsonArray array) {
         ImmutableList.Builder<JsonObject> builder = ImmutableList.builder();
 
         for (int i = 0; i < array.size(); i++) {
@@ -200,7 +245,27 @@ public class MetadataManager {
                 DMLRelearned.logger.warn(getInvalidEntryString(i, "Living Matter Recipe"));
         }
 
-        livingMatterRecipesJson = builder.build();
+        return builder.build();
+    }
+
+    private static ImmutableList<MetadataFusionRecipe> parseFusionRecipes(JsonArray json) {
+        ImmutableList.Builder<MetadataFusionRecipe> builder = ImmutableList.builder();
+
+        for (int i = 0; i < json.size(); i++) {
+            JsonElement entry = json.get(i);
+            if (!entry.isJsonObject()) {
+                DMLRelearned.logger.warn(getInvalidEntryString(i, "Fusion Recipe"));
+                continue;
+            }
+
+            try {
+                builder.add(new MetadataFusionRecipe(entry.getAsJsonObject()));
+            } catch (IllegalArgumentException e) {
+                DMLRelearned.logger.warn(getInvalidObjectString(i, "Fusion Recipe"));
+            }
+        }
+
+        return builder.build();
     }
 
     private static String getInvalidEntryString(int index, String configName) {
@@ -211,6 +276,78 @@ public class MetadataManager {
         return String.format("Invalid object structure at index %s in %s config (invalid or missing keys)", index, configName);
     }
 
+    //
+    // Reload
+    //
+
+    /**
+     * Re-read and parse the reloadable config files (Data Models, Data Model Tiers, Living Matter, Fusion Recipes).
+     * Does not touch the active stores, so this is safe to call off the main thread.
+     * @return Parsed data, or empty if any file could not be read
+     */
+    public static Optional<MetadataReload> readReloadableConfigs() {
+        Optional<JsonArray> newDataModelJson = readConfigFile(new File(configDir, DATA_MODEL_FILE));
+        Optional<JsonArray> newDataModelTierJson = readConfigFile(new File(configDir, DATA_MODEL_TIER_FILE));
+        Optional<JsonArray> newLivingMatterJson = readConfigFile(new File(configDir, LIVING_MATTER_FILE));
+        Optional<JsonArray> newFusionRecipeJson = readConfigFile(new File(configDir, FUSION_RECIPES_FILE));
+
+        if (!newDataModelJson.isPresent() || !newDataModelTierJson.isPresent() || !newLivingMatterJson.isPresent()
+                || !newFusionRecipeJson.isPresent())
+            return Optional.empty();
+
+        return Optional.of(new MetadataReload(
+                newDataModelJson.get(), parseDataModels(newDataModelJson.get()),
+                newDataModelTierJson.get(), parseDataModelTiers(newDataModelTierJson.get()),
+                newLivingMatterJson.get(), parseLivingMatter(newLivingMatterJson.get()),
+                newFusionRecipeJson.get(), parseFusionRecipes(newFusionRecipeJson.get())
+        ));
+    }
+
+    static JsonArray getDataModelJson() {
+        return dataModelJson;
+    }
+
+    static JsonArray getDataModelTierJson() {
+        return dataModelTierJson;
+    }
+
+    static JsonArray getLivingMatterJson() {
+        return livingMatterJson;
+    }
+
+    static JsonArray getFusionRecipeJson() {
+        return fusionRecipeJson;
+    }
+
+    static ImmutableMap<String, MetadataDataModel> getDataModelStore() {
+        return dataModelStore;
+    }
+
+    static ImmutableMap<String, MetadataLivingMatter> getLivingMatterStore() {
+        return livingMatterStore;
+    }
+
+    /**
+     * Replace active stores with reloaded (and already finalized) data. Must be called on the main thread.
+     */
+    static void swapStores(MetadataReload reload,
+                           ImmutableMap<String, MetadataDataModel> newDataModelStore,
+                           ImmutableSortedMap<Integer, MetadataDataModelTier> newDataModelTierStore,
+                           ImmutableMap<String, MetadataLivingMatter> newLivingMatterStore,
+                           ImmutableList<MetadataFusionRecipe> newFusionRecipeStore) {
+        dataModelStore = newDataModelStore;
+        dataModelTierStore = newDataModelTierStore;
+        dataModelTierTable = DataModelTierTable.compile(newDataModelTierStore);
+        livingMatterStore = newLivingMatterStore;
+        fusionRecipeStore = newFusionRecipeStore;
+        fusionRecipesByInput = indexFusionRecipes(newFusionRecipeStore);
+
+        dataModelJson = reload.getDataModelJson();
+        dataModelTierJson = reload.getDataModelTierJson();
+        livingMatterJson = reload.getLivingMatterJson();
+        fusionRecipeJson = reload.getFusionRecipeJson();
+    }
+
     //
     // Data access (General)
     //
@@ -244,6 +381,13 @@ public class MetadataManager {
         return builder.build();
     }
 
+    /**
+     * @return Valid fusion recipes that have item among their inputs
+     */
+    public static ImmutableList<MetadataFusionRecipe> getFusionRecipes(Item item) {
+        return fusionRecipesByInput.get(item);
+    }
+
     //
     // Data Access (Data Models)
     //
@@ -296,41 +440,38 @@ public class MetadataManager {
     // Data Access (Data Model Tiers)
     //
 
+    public static DataModelTierTable getDataModelTierTable() {
+        return dataModelTierTable;
+    }
+
     public static Optional<MetadataDataModelTier> getDataModelTierData(int tier) {
-        MetadataDataModelTier entry = dataModelTierStore.get(tier);
-        return (entry != null) ? Optional.of(entry) : Optional.empty();
+        return Optional.ofNullable(dataModelTierTable.getTierData(tier));
     }
 
     public static int getMaxDataModelTier() {
-        return dataModelTierStore.isEmpty() ? -1 : dataModelTierStore.lastKey();
+        return dataModelTierTable.getMaxTier();
     }
 
     public static boolean isMaxDataModelTier(int tier) {
-        int maxTier = getMaxDataModelTier();
+        int maxTier = dataModelTierTable.getMaxTier();
         return maxTier == -1 || tier >= maxTier;
     }
 
     public static int getMinDataModelTier() {
-        return dataModelTierStore.isEmpty() ? -1 : dataModelTierStore.firstKey();
+        return dataModelTierTable.getMinTier();
     }
 
     public static boolean isMinDataModelTier(int tier) {
-        int minTier = getMinDataModelTier();
+        int minTier = dataModelTierTable.getMinTier();
         return minTier == -1 || tier <= minTier;
     }
 
     public static int getNextDataModelTier(int current) {
-        if (dataModelTierStore.isEmpty())
-            return -1;
-        Integer next = dataModelTierStore.higherKey(current);
-        return (next != null) ? next : dataModelTierStore.lastKey();
+        return dataModelTierTable.getNextTier(current);
     }
 
     public static int getPrevDataModelTier(int current) {
-        if (dataModelTierStore.isEmpty())
-            return -1;
-        Integer next = dataModelTierStore.lowerKey(current);
-        return (next != null) ? next : dataModelTierStore.firstKey();
+        return dataModelTierTable.getPrevTier(current);
     }
 
     //
@@ -341,6 +482,10 @@ public class MetadataManager {
         return livingMatterStore.values().asList();
     }
 
+    public static Optional<MetadataLivingMatter> getLivingMatterMetadata(String id) {
+        return Optional.ofNullable(livingMatterStore.get(id));
+    }
+
     public static ImmutableMap<String, ResourceLocation> getLivingMatterTextures() {
         ImmutableMap.Builder<String, ResourceLocation> builder = ImmutableMap.builder();
 
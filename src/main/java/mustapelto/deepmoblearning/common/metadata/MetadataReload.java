@@ -0,0 +1,246 @@
+package mustapelto.deepmoblearning.common.metadata;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import mustapelto.deepmoblearning.DMLConstants;
+import mustapelto.deepmoblearning.DMLRelearned;
+import mustapelto.deepmoblearning.common.DMLRegistry;
+import mustapelto.deepmoblearning.common.tiles.TileEntityMachine;
+import mustapelto.deepmoblearning.common.util.TrialKeyHelper;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.text.ITextComponent;
+import net.minecraft.util.text.TextComponentTranslation;
+import net.minecraft.world.WorldServer;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Reload of Data Model, Data Model Tier, Living Matter and Fusion Recipe config files at runtime.
+ *
+ * Files are read and parsed off the main thread. The result is finalized and swapped into
+ * MetadataManager at the end of a server tick. Data Model and Living Matter entries can only be changed,
+ * not added or removed, since items for Data Models, Pristine Matter and Living Matter are registered once at startup.
+ */
+public class MetadataReload {
+    private static final String ID_KEY = "id";
+    private static final String TIER_KEY = "tier";
+
+    @Nullable
+    private static CompletableFuture<Optional<MetadataReload>> pendingReload = null;
+    @Nullable
+    private static ICommandSender pendingSender = null;
+
+    private final JsonArray dataModelJson;
+    private final ImmutableMap<String, MetadataDataModel> dataModels;
+    private final JsonArray dataModelTierJson;
+    private final ImmutableSortedMap<Integer, MetadataDataModelTier> dataModelTiers;
+    private final JsonArray livingMatterJson;
+    private final ImmutableMap<String, MetadataLivingMatter> livingMatter;
+    private final JsonArray fusionRecipeJson;
+    private final ImmutableList<MetadataFusionRecipe> fusionRecipes;
+
+    MetadataReload(JsonArray dataModelJson, ImmutableMap<String, MetadataDataModel> dataModels,
+                   JsonArray dataModelTierJson, ImmutableSortedMap<Integer, MetadataDataModelTier> dataModelTiers,
+                   JsonArray livingMatterJson, ImmutableMap<String, MetadataLivingMatter> livingMatter,
+                   JsonArray fusionRecipeJson, ImmutableList<MetadataFusionRecipe> fusionRecipes) {
+        this.dataModelJson = dataModelJson;
+        this.dataModels = dataModels;
+        this.dataModelTierJson = dataModelTierJson;
+        this.dataModelTiers = dataModelTiers;
+        this.livingMatterJson = livingMatterJson;
+        this.livingMatter = livingMatter;
+        this.fusionRecipeJson = fusionRecipeJson;
+        this.fusionRecipes = fusionRecipes;
+    }
+
+    JsonArray getDataModelJson() {
+        return dataModelJson;
+    }
+
+    JsonArray getDataModelTierJson() {
+        return dataModelTierJson;
+    }
+
+    JsonArray getLivingMatterJson() {
+        return livingMatterJson;
+    }
+
+    JsonArray getFusionRecipeJson() {
+        return fusionRecipeJson;
+    }
+
+    //
+    // Scheduling
+    //
+
+    public static boolean isReloadRunning() {
+        return pendingReload != null;
+    }
+
+    /**
+     * Start reading config files in the background
+     * @return false if a reload is already running
+     */
+    public static boolean start(ICommandSender sender) {
+        if (pendingReload != null)
+            return false;
+
+        DMLRelearned.logger.info("Reloading data from JSON config files...");
+        pendingSender = sender;
+        pendingReload = CompletableFuture.supplyAsync(MetadataManager::readReloadableConfigs);
+        return true;
+    }
+
+    /**
+     * Apply a finished reload. Called at the end of every server tick.
+     */
+    public static void tick(MinecraftServer server) {
+        if (pendingReload == null || !pendingReload.isDone())
+            return;
+
+        ICommandSender sender = pendingSender;
+        Optional<MetadataReload> result = pendingReload.exceptionally(e -> {
+            DMLRelearned.logger.error("Exception while reloading config files! Error message: {}", e.getMessage());
+            return Optional.empty();
+        }).join();
+        pendingReload = null;
+        pendingSender = null;
+
+        if (!result.isPresent()) {
+            if (sender != null)
+                sender.sendMessage(new TextComponentTranslation(DMLConstants.ModInfo.ID + ".command.reload.failed"));
+            return;
+        }
+
+        ImmutableList<ITextComponent> report = result.get().apply(server);
+        if (sender != null)
+            report.forEach(sender::sendMessage);
+    }
+
+    //
+    // Apply
+    //
+
+    private ImmutableList<ITextComponent> apply(MinecraftServer server) {
+        ImmutableList.Builder<ITextComponent> report = ImmutableList.builder();
+
+        // Compare raw JSON before swapping
+        report.addAll(ConfigDiff.create("Data Models", MetadataManager.getDataModelJson(), dataModelJson, ID_KEY, true).getReport());
+        report.addAll(ConfigDiff.create("Data Model Tiers", MetadataManager.getDataModelTierJson(), dataModelTierJson, TIER_KEY, false).getReport());
+        report.addAll(ConfigDiff.create("Living Matter", MetadataManager.getLivingMatterJson(), livingMatterJson, ID_KEY, true).getReport());
+        report.addAll(ConfigDiff.create("Fusion Recipes", MetadataManager.getFusionRecipeJson(), fusionRecipeJson, ID_KEY, false).getReport());
+
+        ImmutableMap<String, MetadataDataModel> newDataModels = merge(MetadataManager.getDataModelStore(), dataModels);
+        ImmutableMap<String, MetadataLivingMatter> newLivingMatter = merge(MetadataManager.getLivingMatterStore(), livingMatter);
+
+        // Only reloaded entries need finalizing, kept entries already are.
+        // Reloaded entries are new objects, so a failure here leaves the active stores untouched.
+        try {
+            newDataModels.forEach((id, metadata) -> {
+                if (metadata == dataModels.get(id))
+                    metadata.finalizeData();
+            });
+            dataModelTiers.values().forEach(MetadataDataModelTier::finalizeData);
+            newLivingMatter.forEach((id, metadata) -> {
+                if (metadata == livingMatter.get(id))
+                    metadata.finalizeData();
+            });
+            fusionRecipes.forEach(MetadataFusionRecipe::finalizeData);
+        } catch (RuntimeException e) {
+            DMLRelearned.logger.error("Exception while finalizing reloaded config data, keeping previous data! Error message: {}", e.getMessage());
+            return ImmutableList.of(new TextComponentTranslation(DMLConstants.ModInfo.ID + ".command.reload.failed"));
+        }
+
+        MetadataManager.swapStores(this, newDataModels, dataModelTiers, newLivingMatter, fusionRecipes);
+
+        // Invalidate everything that holds on to old metadata objects
+        DMLRegistry.updateMetadataReferences();
+        TrialKeyHelper.clearAttunementCache();
+        for (WorldServer world : server.worlds) {
+            for (TileEntity tileEntity : world.loadedTileEntityList) {
+                if (tileEntity instanceof TileEntityMachine)
+                    ((TileEntityMachine) tileEntity).onMetadataReloaded();
+            }
+        }
+
+        DMLRelearned.logger.info("Config data reloaded");
+        return report.build();
+    }
+
+    /**
+     * Keep the key set of the active store (items exist only for those entries), using reloaded entries where available
+     */
+    private static <T> ImmutableMap<String, T> merge(ImmutableMap<String, T> current, ImmutableMap<String, T> reloaded) {
+        ImmutableMap.Builder<String, T> builder = ImmutableMap.builder();
+        current.forEach((id, metadata) -> builder.put(id, reloaded.getOrDefault(id, metadata)));
+        return builder.build();
+    }
+
+    private static class ConfigDiff {
+        private final String configName;
+        private final boolean fixedKeys; // Entries can't be added or removed without restart
+        private final List<String> added = new ArrayList<>();
+        private final List<String> removed = new ArrayList<>();
+        private final List<String> changed = new ArrayList<>();
+
+        private ConfigDiff(String configName, boolean fixedKeys) {
+            this.configName = configName;
+            this.fixedKeys = fixedKeys;
+        }
+
+        private static ConfigDiff create(String configName, JsonArray oldJson, JsonArray newJson, String key, boolean fixedKeys) {
+            ConfigDiff diff = new ConfigDiff(configName, fixedKeys);
+            Map<String, JsonElement> oldEntries = indexEntries(oldJson, key);
+            Map<String, JsonElement> newEntries = indexEntries(newJson, key);
+
+            newEntries.forEach((id, entry) -> {
+                JsonElement oldEntry = oldEntries.get(id);
+                if (oldEntry == null)
+                    diff.added.add(id);
+                else if (!oldEntry.equals(entry))
+                    diff.changed.add(id);
+            });
+            oldEntries.keySet().forEach(id -> {
+                if (!newEntries.containsKey(id))
+                    diff.removed.add(id);
+            });
+
+            return diff;
+        }
+
+        private static Map<String, JsonElement> indexEntries(JsonArray json, String key) {
+            Map<String, JsonElement> result = new LinkedHashMap<>();
+            for (JsonElement entry : json) {
+                if (!entry.isJsonObject())
+                    continue;
+                JsonObject object = entry.getAsJsonObject();
+                if (object.has(key) && object.get(key).isJsonPrimitive())
+                    result.put(object.get(key).getAsString(), entry);
+            }
+            return result;
+        }
+
+        private ImmutableList<ITextComponent> getReport() {
+            ImmutableList.Builder<ITextComponent> builder = ImmutableList.builder();
+            String prefix = DMLConstants.ModInfo.ID + ".command.reload.";
+
+            builder.add(new TextComponentTranslation(prefix + "summary", configName, changed.size(), added.size(), removed.size()));
+            if (!changed.isEmpty())
+                builder.add(new TextComponentTranslation(prefix + "changed", String.join(", ", changed)));
+            if (!added.isEmpty())
+                builder.add(new TextComponentTranslation(prefix + (fixedKeys ? "added_restart" : "added"), String.join(", ", added)));
+            if (!removed.isEmpty())
+                builder.add(new TextComponentTranslation(prefix + (fixedKeys ? "removed_restart" : "removed"), String.join(", ", removed)));
+
+            return builder.build();
+        }
+    }
+}
@@ -34,6 +34,8 @@ public class DMLPacketHandler {
         network.registerMessage(MessageTrialStart.Handler.class, MessageTrialStart.class, id++, Side.SERVER);
         network.registerMessage(MessageUpdateTrialCapability.Handler.class, MessageUpdateTrialCapability.class, id++, Side.CLIENT);
         network.registerMessage(MessageTrialOverlay.Handler.class, MessageTrialOverlay.class, id++, Side.CLIENT);
+        network.registerMessage(MessageLootFabPlanEntry.Handler.class, MessageLootFabPlanEntry.class, id++, Side.SERVER);
+        network.registerMessage(MessageAutoExport.Handler.class, MessageAutoExport.class, id++, Side.SERVER);
     }
 
     public static void sendToClient(IMessage message, World world, BlockPos pos) {
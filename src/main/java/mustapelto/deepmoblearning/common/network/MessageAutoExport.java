@@ -0,0 +1,58 @@
+package mustapelto.deepmoblearning.common.network;
+
+import io.netty.buffer.ByteBuf;
+import mustapelto.deepmoblearning.common.tiles.TileEntityMachine;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.fml.common.FMLCommonHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+
+import javax.annotation.Nullable;
+
+public class MessageAutoExport implements IMessage {
+    private BlockPos pos;
+    private int dimension;
+    private int autoExportSides;
+
+    public MessageAutoExport() {}
+
+    public MessageAutoExport(BlockPos pos, int dimension, int autoExportSides) {
+        this.pos = pos;
+        this.dimension = dimension;
+        this.autoExportSides = autoExportSides;
+    }
+
+    public MessageAutoExport(TileEntityMachine target, int autoExportSides) {
+        this(target.getPos(), target.getWorld().provider.getDimension(), autoExportSides);
+    }
+
+    @Override
+    public void toBytes(ByteBuf buf) {
+        buf.writeLong(pos.toLong());
+        buf.writeInt(dimension);
+        buf.writeInt(autoExportSides);
+    }
+
+    @Override
+    public void fromBytes(ByteBuf buf) {
+        pos = BlockPos.fromLong(buf.readLong());
+        dimension = buf.readInt();
+        autoExportSides = buf.readInt();
+    }
+
+    public static class Handler implements IMessageHandler<MessageAutoExport, IMessage> {
+        @Override
+        @Nullable
+        public IMessage onMessage(MessageAutoExport message, MessageContext ctx) {
+            WorldServer world = FMLCommonHandler.instance().getMinecraftServerInstance().getWorld(message.dimension);
+            return DMLPacketHandler.handleMessageServer(ctx, () -> {
+                TileEntityMachine te = (TileEntityMachine) world.getTileEntity(message.pos);
+                if (te != null) {
+                    te.setAutoExportSides(message.autoExportSides);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package mustapelto.deepmoblearning.common.network;
+
+import io.netty.buffer.ByteBuf;
+import mustapelto.deepmoblearning.common.tiles.TileEntityLootFabricator;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.fml.common.FMLCommonHandler;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+
+import javax.annotation.Nullable;
+
+public class MessageLootFabPlanEntry implements IMessage {
+    private BlockPos pos;
+    private int dimension;
+    private ItemStack item;
+    private int ratio;
+    private int stockLimit;
+
+    public MessageLootFabPlanEntry() {}
+
+    public MessageLootFabPlanEntry(BlockPos pos, int dimension, ItemStack item, int ratio, int stockLimit) {
+        this.pos = pos;
+        this.dimension = dimension;
+        this.item = item;
+        this.ratio = ratio;
+        this.stockLimit = stockLimit;
+    }
+
+    public MessageLootFabPlanEntry(TileEntityLootFabricator target, ItemStack item, int ratio, int stockLimit) {
+        this(target.getPos(), target.getWorld().provider.getDimension(), item, ratio, stockLimit);
+    }
+
+    @Override
+    public void toBytes(ByteBuf buf) {
+        buf.writeLong(pos.toLong());
+        buf.writeInt(dimension);
+        ByteBufUtils.writeItemStack(buf, item);
+        buf.writeInt(ratio);
+        buf.writeInt(stockLimit);
+    }
+
+    @Override
+    public void fromBytes(ByteBuf buf) {
+        pos = BlockPos.fromLong(buf.readLong());
+        dimension = buf.readInt();
+        item = ByteBufUtils.readItemStack(buf);
+        ratio = buf.readInt();
+        stockLimit = buf.readInt();
+    }
+
+    public static class Handler implements IMessageHandler<MessageLootFabPlanEntry, IMessage> {
+        @Override
+        @Nullable
+        public IMessage onMessage(MessageLootFabPlanEntry message, MessageContext ctx) {
+            WorldServer world = FMLCommonHandler.instance().getMinecraftServerInstance().getWorld(message.dimension);
+            return DMLPacketHandler.handleMessageServer(ctx, () -> {
+                TileEntityLootFabricator te = (TileEntityLootFabricator) world.getTileEntity(message.pos);
+                if (te != null) {
+                    te.setPlanEntry(message.item, message.ratio, message.stockLimit);
+                }
+            });
+        }
+    }
+}
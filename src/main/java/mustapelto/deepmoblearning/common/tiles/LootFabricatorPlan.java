@@ -0,0 +1,220 @@
+package mustapelto.deepmoblearning.common.tiles;
+
+import io.netty.buffer.ByteBuf;
+import mustapelto.deepmoblearning.common.util.MathHelper;
+import mustapelto.deepmoblearning.common.util.NBTHelper;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Production plan of a Loot Fabricator: a list of loot items, each with a target ratio and an optional stock threshold.
+ *
+ * The next output is picked by smooth weighted round-robin over all currently eligible entries,
+ * so over time each item is crafted in proportion to its ratio (e.g. 3:1 -> A A B A, A A B A, ...).
+ * Entries that are at their stock threshold, have no room in the output buffer or don't belong to the current
+ * Pristine Matter's loot list are skipped without affecting the ratios of the others.
+ */
+public class LootFabricatorPlan {
+    public static final int MAX_ENTRIES = 9;
+    public static final int MAX_RATIO = 8;
+    public static final int NO_STOCK_LIMIT = 0;
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    public int indexOf(ItemStack item) {
+        for (int i = 0; i < entries.size(); i++) {
+            if (ItemStack.areItemStacksEqual(entries.get(i).item, item))
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Add, change or (if ratio is 0) remove the entry for an item
+     * @return false if the plan is full
+     */
+    public boolean setEntry(ItemStack item, int ratio, int stockLimit) {
+        if (item.isEmpty())
+            return false;
+
+        int index = indexOf(item);
+        if (ratio <= 0) {
+            if (index != -1)
+                entries.remove(index);
+            return true;
+        }
+
+        ratio = Math.min(ratio, MAX_RATIO);
+        stockLimit = Math.max(stockLimit, NO_STOCK_LIMIT);
+
+        if (index != -1) {
+            Entry entry = entries.get(index);
+            entry.ratio = ratio;
+            entry.stockLimit = stockLimit;
+            return true;
+        }
+
+        if (entries.size() >= MAX_ENTRIES)
+            return false;
+
+        entries.add(new Entry(item.copy(), ratio, stockLimit));
+        return true;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    //
+    // Scheduling
+    //
+
+    /**
+     * Find the entry that will be crafted next, without changing scheduler state
+     * @param isEligible Test for an entry's item (valid loot, room in output, below stock limit)
+     * @return Index of next entry, or -1 if no entry is eligible
+     */
+    public int peekNext(Predicate<Entry> isEligible) {
+        int bestIndex = -1;
+        int bestCredit = Integer.MIN_VALUE;
+
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (!isEligible.test(entry))
+                continue;
+
+            int credit = entry.credit + entry.ratio;
+            if (credit > bestCredit) {
+                bestCredit = credit;
+                bestIndex = i;
+            }
+        }
+
+        return bestIndex;
+    }
+
+    /**
+     * Update scheduler state after the entry returned by peekNext was started
+     */
+    public void commit(int index, Predicate<Entry> isEligible) {
+        if (index < 0 || index >= entries.size())
+            return;
+
+        int totalRatio = 0;
+        for (Entry entry : entries) {
+            if (!isEligible.test(entry))
+                continue;
+
+            entry.credit += entry.ratio;
+            totalRatio += entry.ratio;
+        }
+
+        entries.get(index).credit -= totalRatio;
+    }
+
+    //
+    // Client/Server Sync
+    //
+
+    public void writeToBuffer(ByteBuf buf) {
+        buf.writeByte(entries.size());
+        for (Entry entry : entries) {
+            ByteBufUtils.writeItemStack(buf, entry.item);
+            buf.writeByte(entry.ratio);
+            buf.writeInt(entry.stockLimit);
+        }
+    }
+
+    public void readFromBuffer(ByteBuf buf) {
+        entries.clear();
+        int size = buf.readByte();
+        for (int i = 0; i < size; i++) {
+            ItemStack item = ByteBufUtils.readItemStack(buf);
+            int ratio = buf.readByte();
+            int stockLimit = buf.readInt();
+            entries.add(new Entry(item, ratio, stockLimit));
+        }
+    }
+
+    //
+    // NBT Write/Read
+    //
+
+    private static final String NBT_ITEM = "item";
+    private static final String NBT_RATIO = "ratio";
+    private static final String NBT_STOCK_LIMIT = "stockLimit";
+    private static final String NBT_CREDIT = "credit";
+
+    public NBTTagList serializeNBT() {
+        NBTTagList list = new NBTTagList();
+        for (Entry entry : entries) {
+            NBTTagCompound entryTag = new NBTTagCompound();
+            entryTag.setTag(NBT_ITEM, entry.item.serializeNBT());
+            entryTag.setInteger(NBT_RATIO, entry.ratio);
+            entryTag.setInteger(NBT_STOCK_LIMIT, entry.stockLimit);
+            entryTag.setInteger(NBT_CREDIT, entry.credit);
+            list.appendTag(entryTag);
+        }
+        return list;
+    }
+
+    public void deserializeNBT(NBTTagList list) {
+        entries.clear();
+        for (int i = 0; i < list.tagCount() && entries.size() < MAX_ENTRIES; i++) {
+            NBTTagCompound entryTag = list.getCompoundTagAt(i);
+            ItemStack item = new ItemStack(entryTag.getCompoundTag(NBT_ITEM));
+            if (item.isEmpty())
+                continue;
+
+            int ratio = MathHelper.clamp(NBTHelper.getInteger(entryTag, NBT_RATIO, 1), 1, MAX_RATIO);
+            int stockLimit = Math.max(NBTHelper.getInteger(entryTag, NBT_STOCK_LIMIT, NO_STOCK_LIMIT), NO_STOCK_LIMIT);
+            Entry entry = new Entry(item, ratio, stockLimit);
+            entry.credit = NBTHelper.getInteger(entryTag, NBT_CREDIT, 0);
+            entries.add(entry);
+        }
+    }
+
+    public static class Entry {
+        private final ItemStack item;
+        private int ratio;
+        private int stockLimit; // Stop crafting this item while output buffer holds at least this many (0 = no limit)
+        private int credit = 0; // Scheduler state
+
+        private Entry(ItemStack item, int ratio, int stockLimit) {
+            this.item = item;
+            this.ratio = ratio;
+            this.stockLimit = stockLimit;
+        }
+
+        public ItemStack getItem() {
+            return item;
+        }
+
+        public int getRatio() {
+            return ratio;
+        }
+
+        public int getStockLimit() {
+            return stockLimit;
+        }
+
+        public boolean hasStockLimit() {
+            return stockLimit != NO_STOCK_LIMIT;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package mustapelto.deepmoblearning.common.tiles;
+
+import net.minecraft.item.ItemStack;
+
+import javax.annotation.Nullable;
+import java.util.function.ToIntFunction;
+
+/**
+ * Output item selected in a Loot Fabricator, and its index in the loot list of the current Pristine Matter.
+ *
+ * The index is cached. It is only looked up again when the selection or the Pristine Matter changes
+ * (slot swap, refill, NBT load, metadata reload), so the selection doesn't have to be checked every tick.
+ * Loot lists are passed as a lookup (item -> index, -1 if not in the list), or null if the slot holds no Pristine Matter.
+ */
+public class LootFabricatorSelection {
+    private ItemStack item = ItemStack.EMPTY;
+    private int lootIndex = -1; // -1 if item is not in the current loot list
+
+    public ItemStack getItem() {
+        return item;
+    }
+
+    public boolean isValid() {
+        return lootIndex != -1;
+    }
+
+    /**
+     * Select item without clearing it if it's not in lootList (e.g. synced or loaded selection)
+     */
+    public void set(ItemStack item, @Nullable ToIntFunction<ItemStack> lootList) {
+        this.item = item;
+        resolve(lootList);
+    }
+
+    public void clear() {
+        item = ItemStack.EMPTY;
+        lootIndex = -1;
+    }
+
+    /**
+     * Re-check selection after the Pristine Matter changed. An empty slot keeps the selection,
+     * so emptying and refilling the slot with the same Pristine Matter doesn't lose it.
+     */
+    public void validate(@Nullable ToIntFunction<ItemStack> lootList) {
+        resolve(lootList);
+        if (lootList != null && !isValid())
+            item = ItemStack.EMPTY;
+    }
+
+    /**
+     * Look up selection in lootList. Must be called whenever either of them changes.
+     */
+    public void resolve(@Nullable ToIntFunction<ItemStack> lootList) {
+        lootIndex = (lootList != null) ? lootList.applyAsInt(item) : -1;
+    }
+}
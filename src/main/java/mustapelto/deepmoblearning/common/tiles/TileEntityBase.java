@@ -16,6 +16,8 @@ import net.minecraft.world.World;
 import javax.annotation.Nullable;
 
 public abstract class TileEntityBase extends TileEntity {
+    private boolean legacyDataLoaded = false; // Set if last NBT read used the original DML tag layout
+
     @Override
     public void onLoad() {
         // Update client TileEntity on chunk load to properly set CraftingState
@@ -69,6 +71,25 @@ public abstract class TileEntityBase extends TileEntity {
         return writeToNBT(new NBTTagCompound());
     }
 
+    //
+    // Legacy Data
+    //
+
+    protected void setLegacyDataLoaded() {
+        legacyDataLoaded = true;
+    }
+
+    /**
+     * Check if this TileEntity was read from legacy NBT that still has to be written back in the new format.
+     * Resets the flag.
+     * @return true if TileEntity was read from legacy NBT since the last call
+     */
+    public boolean consumeLegacyDataLoaded() {
+        boolean result = legacyDataLoaded;
+        legacyDataLoaded = false;
+        return result;
+    }
+
     @Override
     public void markDirty() {
         if (hasWorld() && pos != null) {
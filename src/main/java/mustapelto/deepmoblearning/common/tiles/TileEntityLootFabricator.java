@@ -10,7 +10,10 @@ import mustapelto.deepmoblearning.common.inventory.*;
 import mustapelto.deepmoblearning.common.metadata.MetadataDataModel;
 import mustapelto.deepmoblearning.common.network.DMLPacketHandler;
 import mustapelto.deepmoblearning.common.network.MessageLootFabOutputItem;
+import mustapelto.deepmoblearning.common.network.MessageLootFabPlanEntry;
 import mustapelto.deepmoblearning.common.util.ItemStackHelper;
+import mustapelto.deepmoblearning.common.util.NBTHelper;
+import mustapelto.deepmoblearning.common.world.LegacyDataMigration;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.InventoryPlayer;
 import net.minecraft.item.ItemStack;
@@ -18,28 +21,45 @@ import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.world.World;
 import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.util.Constants;
 import net.minecraftforge.fml.common.network.ByteBufUtils;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 import net.minecraftforge.items.CapabilityItemHandler;
+import net.minecraftforge.items.IItemHandler;
 import net.minecraftforge.items.wrapper.CombinedInvWrapper;
 
 import javax.annotation.Nullable;
+import java.util.function.ToIntFunction;
 
 public class TileEntityLootFabricator extends TileEntityMachine {
     private final ItemHandlerPristineMatter inputPristineMatter = new ItemHandlerPristineMatter() {
         @Override
         protected void onMetadataChanged() {
-            if (this.pristineMatterMetadata != null && !isValidOutputItem())
-                outputItem = ItemStack.EMPTY; // Don't reset output item if stack empties or refills with same item
-
-            resetCrafting();
+            onPristineMatterChanged();
         }
     };
     private final ItemHandlerInputWrapper pristineMatterWrapper = new ItemHandlerInputWrapper(inputPristineMatter);
-    private final ItemHandlerOutput output = new ItemHandlerOutput(16);
+    private final ItemHandlerOutput output = new ItemHandlerOutput(16) {
+        @Override
+        protected void onContentsChanged(int slot) {
+            super.onContentsChanged(slot);
+            plannedOutputDirty = true; // Room and stock levels changed
+            onOutputChanged();
+        }
+    };
+    private final IItemHandler[] autoExportHandlers = { output };
 
-    private ItemStack outputItem = ItemStack.EMPTY;
+    private final LootFabricatorSelection selection = new LootFabricatorSelection();
+
+    // Production plan (if not empty, the selection is picked from the plan before each crafting cycle)
+    private final LootFabricatorPlan plan = new LootFabricatorPlan();
+    private int plannedEntryIndex = -1;
+    private boolean plannedOutputDirty = true;
+
+    // Bulk processing (batchSize > 1 only while a bulk cycle is running)
+    private int batchSize = 1;
+    private int reservedEnergy = 0; // Energy voided at start of bulk cycle and not yet used up or returned to the buffer
 
     public TileEntityLootFabricator() {
         super(getEnergyCapacity(), getEnergyPerTick());
@@ -57,19 +77,110 @@ public class TileEntityLootFabricator extends TileEntityMachine {
         return (int) Math.min(energyPerTick, Integer.MAX_VALUE);
     }
 
+    //
+    // ITickable
+    //
+
+    @Override
+    public void update() {
+        if (!world.isRemote && !crafting && reservedEnergy > 0)
+            refundReservedEnergy(); // Left over from a cancelled cycle while the buffer was full
+
+        if (!world.isRemote && !crafting && plannedOutputDirty && !plan.isEmpty())
+            selectPlannedOutput();
+
+        super.update();
+    }
+
     //
     // CRAFTING
     //
 
 
     @Override
-    public void update() {
-        if (!inputPristineMatter.getStackInSlot(0).isEmpty() && !isValidOutputItem()) {
-            outputItem = ItemStack.EMPTY;
-            resetCrafting();
+    protected void startCrafting() {
+        batchSize = getPossibleBatchSize();
+        if (batchSize > 1)
+            reserveBatchEnergy(batchSize);
+
+        super.startCrafting();
+
+        if (!plan.isEmpty() && plannedEntryIndex != -1) {
+            for (int i = 0; i < batchSize; i++) {
+                plan.commit(plannedEntryIndex, this::isPlanEntryEligible);
+            }
+            plannedOutputDirty = true;
         }
+    }
 
-        super.update();
+    /**
+     * @return Amount of Pristine Matter to process in the next cycle, limited by bulk size config, input, output room and energy
+     */
+    private int getPossibleBatchSize() {
+        int maxBatchSize = Math.min(DMLConfig.MACHINE_SETTINGS.LOOT_FABRICATOR_BULK_SIZE, inputPristineMatter.getStackInSlot(0).getCount());
+        ItemStack outputItem = selection.getItem();
+        if (maxBatchSize <= 1 || outputItem.isEmpty())
+            return 1;
+
+        maxBatchSize = (int) Math.min(maxBatchSize, output.getRoomForItem(outputItem) / outputItem.getCount());
+
+        long energyPerItem = getEnergyPerItem();
+        if (energyPerItem > 0)
+            maxBatchSize = (int) Math.min(maxBatchSize, ((long) energyStorage.getEnergyStored() + reservedEnergy) / energyPerItem);
+
+        return Math.max(maxBatchSize, 1);
+    }
+
+    /**
+     * Bulk cycle -> take energy for the whole cycle now instead of every tick.
+     * Energy still reserved from an earlier cycle counts towards the cycle, and only what was actually drained
+     * from the buffer is added to the reserve.
+     */
+    void reserveBatchEnergy(int batchSize) {
+        long missingEnergy = batchSize * getEnergyPerItem() - reservedEnergy;
+        if (missingEnergy > 0)
+            reservedEnergy += energyStorage.voidEnergy((int) Math.min(missingEnergy, Integer.MAX_VALUE));
+    }
+
+    int getReservedEnergy() {
+        return reservedEnergy;
+    }
+
+    private long getEnergyPerItem() {
+        return (long) DMLConfig.MACHINE_SETTINGS.LOOT_FABRICATOR_PROCESSING_TIME * getCraftingEnergyCost();
+    }
+
+    @Override
+    public boolean hasEnergyForCrafting() {
+        if (reservedEnergy >= getCraftingEnergyCost())
+            return true; // Energy has been reserved at start of bulk cycle
+
+        return super.hasEnergyForCrafting();
+    }
+
+    @Override
+    protected void consumeCraftingEnergy() {
+        if (reservedEnergy >= getCraftingEnergyCost())
+            reservedEnergy -= getCraftingEnergyCost();
+        else
+            super.consumeCraftingEnergy();
+    }
+
+    @Override
+    protected void resetCrafting() {
+        // Cycle was cancelled -> return unused energy
+        refundReservedEnergy();
+        batchSize = 1;
+
+        super.resetCrafting();
+    }
+
+    /**
+     * Return reserved energy to the buffer. What doesn't fit stays reserved and is used by the next cycle.
+     */
+    private void refundReservedEnergy() {
+        if (reservedEnergy > 0)
+            reservedEnergy -= energyStorage.refundEnergy(reservedEnergy);
     }
 
     @Override
@@ -84,8 +195,10 @@ public class TileEntityLootFabricator extends TileEntityMachine {
         // without losing Pristine Matter
         // (same behavior as vanilla furnace)
 
+        int craftedBatchSize = batchSize;
         resetCrafting();
 
+        ItemStack outputItem = selection.getItem();
         if (outputItem.isEmpty()) {
             // Crafting without selected output. Shouldn't happen i.e. something went wrong.
             DMLRelearned.logger.warn("Loot Fabricator at {} crafted without selected output!", pos.toString());
@@ -95,17 +208,28 @@ public class TileEntityLootFabricator extends TileEntityMachine {
         if (!isValidOutputItem()) {
             // Crafting with invalid output item selected. Shouldn't happen i.e. something went wrong.
             DMLRelearned.logger.warn("Loot Fabricator at {} crafted with invalid output selection!", pos.toString());
-            outputItem = ItemStack.EMPTY;
+            selection.clear();
             return;
         }
 
-        output.addItemToAvailableSlots(outputItem.copy());
-        inputPristineMatter.voidItem();
+        // Input may have been reduced or output changed during the cycle -> only process what fits
+        int craftable = (int) Math.min(craftedBatchSize, output.getRoomForItem(outputItem) / outputItem.getCount());
+        int consumed = craftable - inputPristineMatter.voidItem(0, craftable);
+        if (consumed <= 0)
+            return;
+
+        ItemStack result = outputItem.copy();
+        result.setCount(outputItem.getCount() * consumed);
+        output.addItemToAvailableSlots(result);
     }
 
     @Override
     protected int getCraftingDuration() {
-        return DMLConfig.MACHINE_SETTINGS.LOOT_FABRICATOR_PROCESSING_TIME;
+        return DMLConfig.MACHINE_SETTINGS.LOOT_FABRICATOR_PROCESSING_TIME * batchSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
     }
 
     @Override
@@ -124,8 +248,39 @@ public class TileEntityLootFabricator extends TileEntityMachine {
     }
 
     private boolean isValidOutputItem() {
+        return selection.isValid();
+    }
+
+    /**
+     * Pristine Matter in the input slot was replaced by a different type, or removed
+     */
+    void onPristineMatterChanged() {
+        validateOutputItem();
+        resetCrafting();
+    }
+
+    /**
+     * Re-check selected output against current Pristine Matter.
+     * Selection can only become invalid through one of the events that call this, so no per-tick check is needed.
+     */
+    private void validateOutputItem() {
+        selection.validate(getLootList());
+        plannedOutputDirty = true;
+    }
+
+    /**
+     * @return Loot index lookup of current Pristine Matter, or null if there is none
+     */
+    @Nullable
+    ToIntFunction<ItemStack> getLootList() {
         MetadataDataModel pristineMatterMetadata = getPristineMatterMetadata();
-        return !outputItem.isEmpty() && pristineMatterMetadata != null && pristineMatterMetadata.hasLootItem(outputItem);
+        return (pristineMatterMetadata != null) ? pristineMatterMetadata::getLootItemIndex : null;
+    }
+
+    @Override
+    public void onMetadataReloaded() {
+        inputPristineMatter.refreshMetadata(); // Calls onMetadataChanged if Pristine Matter's metadata object was replaced
+        validateOutputItem(); // Loot list may have changed either way
     }
 
     @Nullable
@@ -134,17 +289,96 @@ public class TileEntityLootFabricator extends TileEntityMachine {
     }
 
     public ItemStack getOutputItem() {
-        return outputItem;
+        return selection.getItem();
     }
 
+    /**
+     * Select a single output item. Replaces the production plan.
+     */
     public void setOutputItem(ItemStack outputItem) {
-        this.outputItem = outputItem;
+        plan.clear();
+        plannedEntryIndex = -1;
+        selection.set(outputItem, getLootList());
 
-        if (!isValidOutputItem())
-            this.outputItem = ItemStack.EMPTY;
+        if (!isValidOutputItem()) {
+            selection.clear();
+            if (!world.isRemote)
+                resetCrafting();
+        }
 
         if (world.isRemote)
-            DMLPacketHandler.sendToServer(new MessageLootFabOutputItem(this, this.outputItem));
+            DMLPacketHandler.sendToServer(new MessageLootFabOutputItem(this, selection.getItem()));
+    }
+
+    //
+    // PRODUCTION PLAN
+    //
+
+    public LootFabricatorPlan getPlan() {
+        return plan;
+    }
+
+    /**
+     * Add, change or (if ratio is 0) remove a production plan entry
+     * @param item Loot item of current Pristine Matter
+     * @param ratio Relative amount of crafting cycles for this item
+     * @param stockLimit Pause crafting this item while output buffer holds at least this many (0 = no limit)
+     */
+    public void setPlanEntry(ItemStack item, int ratio, int stockLimit) {
+        MetadataDataModel pristineMatterMetadata = getPristineMatterMetadata();
+        if (pristineMatterMetadata == null || pristineMatterMetadata.getLootItemIndex(item) == -1)
+            return;
+
+        if (!plan.setEntry(item, ratio, stockLimit))
+            return;
+
+        plannedOutputDirty = true;
+        if (world.isRemote) {
+            DMLPacketHandler.sendToServer(new MessageLootFabPlanEntry(this, item, ratio, stockLimit));
+        } else {
+            if (plan.isEmpty()) {
+                // Last entry removed -> nothing selected
+                plannedEntryIndex = -1;
+                selection.clear();
+                resetCrafting();
+            }
+            sendUpdatePacketToClient();
+            markDirty();
+        }
+    }
+
+    /**
+     * @return true if a production plan is set, but none of its entries can be crafted right now
+     */
+    public boolean isPlanWaiting() {
+        return !plan.isEmpty() && selection.getItem().isEmpty();
+    }
+
+    /**
+     * Pick next output item from production plan.
+     * Only runs when output buffer, Pristine Matter or plan changed since the last pick.
+     */
+    private void selectPlannedOutput() {
+        plannedOutputDirty = false;
+        plannedEntryIndex = plan.peekNext(this::isPlanEntryEligible);
+
+        ItemStack nextOutputItem = (plannedEntryIndex != -1) ? plan.getEntries().get(plannedEntryIndex).getItem() : ItemStack.EMPTY;
+        if (ItemStack.areItemStacksEqual(nextOutputItem, selection.getItem()))
+            return;
+
+        selection.set(nextOutputItem, getLootList());
+        sendUpdatePacketToClient();
+    }
+
+    private boolean isPlanEntryEligible(LootFabricatorPlan.Entry entry) {
+        MetadataDataModel pristineMatterMetadata = getPristineMatterMetadata();
+        if (pristineMatterMetadata == null || pristineMatterMetadata.getLootItemIndex(entry.getItem()) == -1)
+            return false;
+
+        if (!output.hasRoomForItem(entry.getItem()))
+            return false;
+
+        return !entry.hasStockLimit() || output.getItemCount(entry.getItem()) < entry.getStockLimit();
     }
 
     //
@@ -167,7 +401,12 @@ public class TileEntityLootFabricator extends TileEntityMachine {
     }
 
     public boolean hasRoomForOutput() {
-        return output.hasRoomForItem(outputItem);
+        return output.hasRoomForItem(selection.getItem());
+    }
+
+    @Override
+    protected IItemHandler[] getAutoExportHandlers() {
+        return autoExportHandlers;
     }
 
     //
@@ -184,27 +423,23 @@ public class TileEntityLootFabricator extends TileEntityMachine {
     @Override
     public <T> T getCapability(Capability<T> capability, @Nullable EnumFacing facing) {
         if (capability == CapabilityItemHandler.ITEM_HANDLER_CAPABILITY) {
-            if (facing == null) {
-                return CapabilityItemHandler.ITEM_HANDLER_CAPABILITY.cast(
-                        new CombinedInvWrapper(inputPristineMatter, output)
-                );
-            } else {
-                if (!DMLConfig.MACHINE_SETTINGS.LEGACY_MACHINE_SIDEDNESS) {
-                    return CapabilityItemHandler.ITEM_HANDLER_CAPABILITY.cast(
-                            new CombinedInvWrapper(pristineMatterWrapper, output)
-                    );
-                } else {
-                    if (facing == EnumFacing.UP)
-                        return CapabilityItemHandler.ITEM_HANDLER_CAPABILITY.cast(inputPristineMatter);
-                    else
-                        return CapabilityItemHandler.ITEM_HANDLER_CAPABILITY.cast(output);
-                }
-            }
+            return CapabilityItemHandler.ITEM_HANDLER_CAPABILITY.cast(getItemHandler(facing));
         }
 
         return super.getCapability(capability, facing);
     }
 
+    @Override
+    protected IItemHandler createItemHandler(@Nullable EnumFacing facing, boolean legacySidedness) {
+        if (facing == null)
+            return new CombinedInvWrapper(inputPristineMatter, output);
+
+        if (!legacySidedness)
+            return new CombinedInvWrapper(pristineMatterWrapper, output);
+
+        return (facing == EnumFacing.UP) ? inputPristineMatter : output;
+    }
+
     //
     // CLIENT/SERVER SYNC
     //
@@ -212,14 +447,19 @@ public class TileEntityLootFabricator extends TileEntityMachine {
     @Override
     public ByteBuf getUpdateData() {
         ByteBuf buf = super.getUpdateData();
-        ByteBufUtils.writeItemStack(buf, outputItem);
+        ByteBufUtils.writeItemStack(buf, selection.getItem());
+        plan.writeToBuffer(buf);
+        buf.writeInt(batchSize);
         return buf;
     }
 
     @Override
     public void handleUpdateData(ByteBuf buf) {
         super.handleUpdateData(buf);
-        outputItem = ByteBufUtils.readItemStack(buf);
+        ItemStack outputItem = ByteBufUtils.readItemStack(buf);
+        plan.readFromBuffer(buf);
+        batchSize = buf.readInt();
+        selection.set(outputItem, getLootList());
     }
 
     //
@@ -236,7 +476,10 @@ public class TileEntityLootFabricator extends TileEntityMachine {
         compound.setTag(NBT_INVENTORY, inventory);
 
         NBTTagCompound crafting = compound.getCompoundTag(NBT_CRAFTING);
-        crafting.setTag(NBT_OUTPUT_ITEM, outputItem.serializeNBT());
+        crafting.setTag(NBT_OUTPUT_ITEM, selection.getItem().serializeNBT());
+        crafting.setTag(NBT_PLAN, plan.serializeNBT());
+        crafting.setInteger(NBT_BATCH_SIZE, batchSize);
+        crafting.setInteger(NBT_RESERVED_ENERGY, reservedEnergy);
         compound.setTag(NBT_CRAFTING, crafting);
 
         return compound;
@@ -248,26 +491,40 @@ public class TileEntityLootFabricator extends TileEntityMachine {
 
         NBTTagCompound outputItemNBT;
 
-        if (compound.hasKey(NBT_LEGACY_PRISTINE)) {
+        if (!LegacyDataMigration.isWorldMigrated() && compound.hasKey(NBT_LEGACY_PRISTINE)) {
+            setLegacyDataLoaded();
+            batchSize = 1;
+            reservedEnergy = 0;
             inputPristineMatter.deserializeNBT(compound.getCompoundTag(NBT_LEGACY_PRISTINE));
             output.deserializeNBT(compound.getCompoundTag(NBT_OUTPUT));
             outputItemNBT = compound.getCompoundTag(NBT_LEGACY_OUTPUT_ITEM);
+            plan.clear();
         } else {
+            // Restore the bulk cycle before the input: loading the input resets crafting, which returns the reserved energy
+            NBTTagCompound crafting = compound.getCompoundTag(NBT_CRAFTING);
+            batchSize = Math.max(NBTHelper.getInteger(crafting, NBT_BATCH_SIZE, 1), 1);
+            reservedEnergy = Math.max(NBTHelper.getInteger(crafting, NBT_RESERVED_ENERGY, 0), 0);
+
             NBTTagCompound inventory = compound.getCompoundTag(NBT_INVENTORY);
             inputPristineMatter.deserializeNBT(inventory.getCompoundTag(NBT_PRISTINE_INPUT));
             output.deserializeNBT(inventory.getCompoundTag(NBT_OUTPUT));
 
-            NBTTagCompound crafting = compound.getCompoundTag(NBT_CRAFTING);
             outputItemNBT = crafting.getCompoundTag(NBT_OUTPUT_ITEM);
+            plan.deserializeNBT(crafting.getTagList(NBT_PLAN, Constants.NBT.TAG_COMPOUND));
         }
 
-        outputItem = new ItemStack(outputItemNBT);
+        selection.set(new ItemStack(outputItemNBT), getLootList());
+        plannedEntryIndex = plan.isEmpty() ? -1 : plan.indexOf(selection.getItem());
+        plannedOutputDirty = true;
     }
 
     // NBT Tag Names
     private static final String NBT_PRISTINE_INPUT = "inputPristine";
     private static final String NBT_OUTPUT = "output";
     private static final String NBT_OUTPUT_ITEM = "outputItem";
+    private static final String NBT_PLAN = "plan";
+    private static final String NBT_BATCH_SIZE = "batchSize";
+    private static final String NBT_RESERVED_ENERGY = "reservedEnergy";
 
     private static final String NBT_LEGACY_PRISTINE = "pristine";
     private static final String NBT_LEGACY_OUTPUT_ITEM = "resultingItem";
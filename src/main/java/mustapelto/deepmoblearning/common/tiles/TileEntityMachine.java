@@ -1,16 +1,24 @@
 package mustapelto.deepmoblearning.common.tiles;
 
 import io.netty.buffer.ByteBuf;
+import mustapelto.deepmoblearning.common.DMLConfig;
 import mustapelto.deepmoblearning.common.energy.DMLEnergyStorage;
+import mustapelto.deepmoblearning.common.inventory.ItemHandlerBase;
 import mustapelto.deepmoblearning.common.network.DMLPacketHandler;
 import mustapelto.deepmoblearning.common.network.MessageCraftingState;
 import mustapelto.deepmoblearning.common.util.NBTHelper;
+import mustapelto.deepmoblearning.common.world.LegacyDataMigration;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.energy.CapabilityEnergy;
+import net.minecraftforge.items.CapabilityItemHandler;
+import net.minecraftforge.items.IItemHandler;
 
 import javax.annotation.Nullable;
+import java.util.Arrays;
 
 public abstract class TileEntityMachine extends TileEntityTickable {
     // Energy
@@ -26,6 +34,17 @@ public abstract class TileEntityMachine extends TileEntityTickable {
     protected boolean crafting = false;
     protected int craftingProgress = 0;
 
+    // Auto-export
+    private int autoExportSides = 0; // Bit mask of EnumFacing indices
+    private boolean outputChanged = true; // Set when outputs changed since last export attempt
+    private boolean neighborHandlersValid = false;
+    private final TileEntity[] neighborTiles = new TileEntity[EnumFacing.VALUES.length];
+    private final IItemHandler[] neighborHandlers = new IItemHandler[EnumFacing.VALUES.length];
+
+    // Item handler capability wrappers, one per facing plus one for null facing (last index)
+    private final IItemHandler[] itemHandlers = new IItemHandler[EnumFacing.VALUES.length + 1];
+    private boolean itemHandlersLegacySidedness;
+
     public TileEntityMachine(int energyCapacity, int energyMaxReceive) {
         energyStorage = new DMLEnergyStorage(energyCapacity, energyMaxReceive) {
             @Override
@@ -52,7 +71,7 @@ public abstract class TileEntityMachine extends TileEntityTickable {
         }
 
         if (crafting && canContinueCrafting()) {
-            energyStorage.voidEnergy(getCraftingEnergyCost());
+            consumeCraftingEnergy();
             advanceCraftingProgress();
         }
 
@@ -62,6 +81,9 @@ public abstract class TileEntityMachine extends TileEntityTickable {
             DMLPacketHandler.sendToClient(new MessageCraftingState(this), world, pos);
             markDirty();
         }
+
+        if (autoExportSides != 0 && outputChanged && getTimer() % DMLConfig.MACHINE_SETTINGS.MACHINE_AUTO_EXPORT_INTERVAL == 0)
+            exportOutputs();
     }
 
     //
@@ -108,6 +130,12 @@ public abstract class TileEntityMachine extends TileEntityTickable {
         markDirty();
     }
 
+    /**
+     * Called after Data Model metadata has been reloaded
+     */
+    public void onMetadataReloaded() {
+    }
+
     public float getRelativeCraftingProgress() {
         return (float)craftingProgress / getCraftingDuration();
     }
@@ -124,6 +152,13 @@ public abstract class TileEntityMachine extends TileEntityTickable {
         return energyStorage.getEnergyStored() >= getCraftingEnergyCost();
     }
 
+    /**
+     * Called once per crafting tick
+     */
+    protected void consumeCraftingEnergy() {
+        energyStorage.voidEnergy(getCraftingEnergyCost());
+    }
+
     public abstract int getCraftingEnergyCost();
 
     public int getEnergy() {
@@ -145,6 +180,102 @@ public abstract class TileEntityMachine extends TileEntityTickable {
         sendBlockUpdate();
     }
 
+    //
+    // Auto-export
+    //
+
+    /**
+     * @return Output handlers whose contents are pushed into neighboring inventories
+     */
+    protected abstract IItemHandler[] getAutoExportHandlers();
+
+    /**
+     * Must be called by subclasses whenever the contents of an auto-export handler change
+     */
+    protected void onOutputChanged() {
+        outputChanged = true;
+    }
+
+    public int getAutoExportSides() {
+        return autoExportSides;
+    }
+
+    public boolean isAutoExportSide(EnumFacing side) {
+        return (autoExportSides & (1 << side.getIndex())) != 0;
+    }
+
+    public void setAutoExportSides(int sides) {
+        autoExportSides = sides & ((1 << EnumFacing.VALUES.length) - 1);
+        neighborHandlersValid = false;
+        outputChanged = true;
+        markDirty();
+        sendUpdatePacketToClient();
+    }
+
+    private void exportOutputs() {
+        if (!neighborHandlersValid || hasInvalidNeighbor())
+            updateNeighborHandlers();
+
+        boolean hasTarget = false;
+        boolean hasRemainder = false;
+
+        for (EnumFacing side : EnumFacing.VALUES) {
+            IItemHandler target = neighborHandlers[side.getIndex()];
+            if (target == null)
+                continue;
+
+            hasTarget = true;
+            for (IItemHandler source : getAutoExportHandlers()) {
+                ItemHandlerBase.transfer(source, target);
+            }
+        }
+
+        for (IItemHandler source : getAutoExportHandlers()) {
+            for (int slot = 0; slot < source.getSlots() && !hasRemainder; slot++) {
+                hasRemainder = !source.getStackInSlot(slot).isEmpty();
+            }
+        }
+
+        // Retry on next interval only if there is something left to push into an existing target.
+        // Otherwise wait for the outputs or neighbors to change.
+        outputChanged = hasTarget && hasRemainder;
+    }
+
+    /**
+     * @return true if a cached neighbor was unloaded or replaced without a block update (e.g. chunk unload)
+     */
+    private boolean hasInvalidNeighbor() {
+        for (TileEntity tile : neighborTiles) {
+            if (tile != null && tile.isInvalid())
+                return true;
+        }
+        return false;
+    }
+
+    private void updateNeighborHandlers() {
+        for (EnumFacing side : EnumFacing.VALUES) {
+            int index = side.getIndex();
+            neighborTiles[index] = null;
+            neighborHandlers[index] = null;
+
+            if (!isAutoExportSide(side))
+                continue;
+
+            BlockPos neighborPos = pos.offset(side);
+            if (!world.isBlockLoaded(neighborPos))
+                continue;
+
+            TileEntity tile = world.getTileEntity(neighborPos);
+            if (tile == null || !tile.hasCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, side.getOpposite()))
+                continue;
+
+            neighborTiles[index] = tile;
+            neighborHandlers[index] = tile.getCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, side.getOpposite());
+        }
+
+        neighborHandlersValid = true;
+    }
+
     //
     // Redstone Control
     //
@@ -182,6 +313,31 @@ public abstract class TileEntityMachine extends TileEntityTickable {
         return super.getCapability(capability, facing);
     }
 
+    /**
+     * @return Item handler exposed on this facing. Built once and reused, rebuilt if sidedness config changes.
+     */
+    protected IItemHandler getItemHandler(@Nullable EnumFacing facing) {
+        boolean legacySidedness = DMLConfig.MACHINE_SETTINGS.LEGACY_MACHINE_SIDEDNESS;
+        if (legacySidedness != itemHandlersLegacySidedness) {
+            Arrays.fill(itemHandlers, null);
+            itemHandlersLegacySidedness = legacySidedness;
+        }
+
+        int index = (facing != null) ? facing.getIndex() : EnumFacing.VALUES.length;
+        IItemHandler handler = itemHandlers[index];
+        if (handler == null) {
+            handler = createItemHandler(facing, legacySidedness);
+            itemHandlers[index] = handler;
+        }
+
+        return handler;
+    }
+
+    /**
+     * Build item handler wrapper for a facing (null = internal access, e.g. for dropping contents)
+     */
+    protected abstract IItemHandler createItemHandler(@Nullable EnumFacing facing, boolean legacySidedness);
+
     //
     // Client / Server Sync
     //
@@ -198,6 +354,8 @@ public abstract class TileEntityMachine extends TileEntityTickable {
         buf.writeInt(craftingProgress);
         buf.writeInt(craftingState.getIndex());
 
+        buf.writeByte(autoExportSides);
+
         return buf;
     }
 
@@ -213,6 +371,8 @@ public abstract class TileEntityMachine extends TileEntityTickable {
         craftingProgress = buf.readInt();
         craftingState = CraftingState.byIndex(buf.readInt());
 
+        autoExportSides = buf.readByte();
+
         sendBlockUpdate();
     }
 
@@ -225,6 +385,10 @@ public abstract class TileEntityMachine extends TileEntityTickable {
     }
 
     public void onNeighborChange() {
+        // Neighboring inventories may have been added or removed
+        neighborHandlersValid = false;
+        outputChanged = true;
+
         boolean oldRedstonePowerState = redstonePowered;
         redstoneLevel = world.getRedstonePowerFromNeighbors(pos);
         redstonePowered = redstoneLevel > 0;
@@ -246,6 +410,8 @@ public abstract class TileEntityMachine extends TileEntityTickable {
     private static final String NBT_REDSTONE_POWERED = "powered";
     private static final String NBT_REDSTONE_MODE = "mode";
 
+    private static final String NBT_AUTO_EXPORT_SIDES = "autoExportSides";
+
     protected static final String NBT_CRAFTING = "crafting"; // Crafting state subtag
     private static final String NBT_IS_CRAFTING = "isCrafting"; // Old system uses same tag, only not nested
     private static final String NBT_CRAFTING_PROGRESS = "progress";
@@ -271,6 +437,8 @@ public abstract class TileEntityMachine extends TileEntityTickable {
         craftingTag.setInteger(NBT_CRAFTING_PROGRESS, craftingProgress);
         compound.setTag(NBT_CRAFTING, craftingTag);
 
+        compound.setInteger(NBT_AUTO_EXPORT_SIDES, autoExportSides);
+
         return compound;
     }
 
@@ -285,8 +453,12 @@ public abstract class TileEntityMachine extends TileEntityTickable {
         redstonePowered = NBTHelper.getBoolean(redstoneTag, NBT_REDSTONE_POWERED, false);
         redstoneMode = RedstoneMode.byIndex(NBTHelper.getInteger(redstoneTag, NBT_REDSTONE_MODE, 0));
 
-        if (isLegacyNBT(compound)) {
+        autoExportSides = NBTHelper.getInteger(compound, NBT_AUTO_EXPORT_SIDES, 0);
+        neighborHandlersValid = false;
+
+        if (!LegacyDataMigration.isWorldMigrated() && isLegacyNBT(compound)) {
             // Original DML tag -> use old tag system without nesting and with machine-specific progress tag
+            setLegacyDataLoaded();
             crafting = NBTHelper.getBoolean(compound, NBT_IS_CRAFTING, false);
             if (this instanceof TileEntitySimulationChamber)
                 craftingProgress = NBTHelper.getInteger(compound, NBT_LEGACY_CRAFTING_PROGRESS_SIM_CHAMBER, 0);
@@ -9,6 +9,7 @@ import mustapelto.deepmoblearning.common.inventory.*;
 import mustapelto.deepmoblearning.common.util.DataModelHelper;
 import mustapelto.deepmoblearning.common.util.ItemStackHelper;
 import mustapelto.deepmoblearning.common.util.NBTHelper;
+import mustapelto.deepmoblearning.common.world.LegacyDataMigration;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.InventoryPlayer;
 import net.minecraft.item.ItemStack;
@@ -19,6 +20,7 @@ import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 import net.minecraftforge.items.CapabilityItemHandler;
+import net.minecraftforge.items.IItemHandler;
 import net.minecraftforge.items.wrapper.CombinedInvWrapper;
 
 import javax.annotation.Nullable;
@@ -34,10 +36,24 @@ public class TileEntitySimulationChamber extends TileEntityMachine {
     private final ItemHandlerInputWrapper dataModelWrapper = new ItemHandlerInputWrapper(inputDataModel);
     private final ItemHandlerPolymerClay inputPolymer = new ItemHandlerPolymerClay();
     private final ItemHandlerInputWrapper polymerWrapper = new ItemHandlerInputWrapper(inputPolymer);
-    private final ItemHandlerOutput outputLiving = new ItemHandlerOutput();
-    private final ItemHandlerOutput outputPristine = new ItemHandlerOutput();
+    private final ItemHandlerOutput outputLiving = new ItemHandlerOutput() {
+        @Override
+        protected void onContentsChanged(int slot) {
+            super.onContentsChanged(slot);
+            onOutputChanged();
+        }
+    };
+    private final ItemHandlerOutput outputPristine = new ItemHandlerOutput() {
+        @Override
+        protected void onContentsChanged(int slot) {
+            super.onContentsChanged(slot);
+            onOutputChanged();
+        }
+    };
+    private final IItemHandler[] autoExportHandlers = { outputLiving, outputPristine };
 
     private boolean pristineSuccess = false;
+    private int pristineChance = -1; // Pristine Matter chance the current roll was made with (-1 while not crafting)
 
     public TileEntitySimulationChamber() {
         super(DMLConstants.SimulationChamber.ENERGY_CAPACITY, DMLConstants.SimulationChamber.ENERGY_IN_MAX);
@@ -50,14 +66,26 @@ public class TileEntitySimulationChamber extends TileEntityMachine {
     @Override
     protected void startCrafting() {
         super.startCrafting();
+        rollPristineSuccess();
+
+        // Consume Polymer Clay
+        inputPolymer.voidItem();
+    }
 
-        // Calculate Pristine Matter success
-        int pristineChance = DataModelHelper.getPristineChance(getDataModel());
+    private void rollPristineSuccess() {
+        pristineChance = DataModelHelper.getPristineChance(getDataModel());
         int random = ThreadLocalRandom.current().nextInt(100);
         pristineSuccess = (random < pristineChance);
+    }
 
-        // Consume Polymer Clay
-        inputPolymer.voidItem();
+    @Override
+    public void onMetadataReloaded() {
+        // Running simulation is re-rolled only if its Pristine Matter chance changed. Output and energy checks read metadata every tick.
+        if (isCrafting() && DataModelHelper.getPristineChance(getDataModel()) != pristineChance) {
+            rollPristineSuccess();
+            markDirty();
+            sendUpdatePacketToClient();
+        }
     }
 
     @Override
@@ -77,14 +105,17 @@ public class TileEntitySimulationChamber extends TileEntityMachine {
         DataModelHelper.getDataModelMetadata(dataModel).ifPresent(metadata -> {
             DataModelHelper.addSimulation(dataModel);
 
-            ItemStack oldLivingMatterOutput = outputLiving.getStackInSlot(0);
-            ItemStack newLivingMatterOutput = metadata.getLivingMatter(oldLivingMatterOutput.getCount() + 1);
-            outputLiving.setStackInSlot(0, newLivingMatterOutput);
+            // Output stacks always match the Data Model here (checked in canContinueCrafting) -> grow in place
+            if (outputLiving.getStackInSlot(0).isEmpty())
+                outputLiving.setStackInSlot(0, metadata.getLivingMatter(1));
+            else
+                outputLiving.growItem();
 
             if (pristineSuccess) {
-                ItemStack oldPristineMatterOutput = outputPristine.getStackInSlot(0);
-                ItemStack newPristineMatterOutput = metadata.getPristineMatter(oldPristineMatterOutput.getCount() + 1);
-                outputPristine.setStackInSlot(0, newPristineMatterOutput);
+                if (outputPristine.getStackInSlot(0).isEmpty())
+                    outputPristine.setStackInSlot(0, metadata.getPristineMatter(1));
+                else
+                    outputPristine.growItem();
             }
         });
 
@@ -95,6 +126,7 @@ public class TileEntitySimulationChamber extends TileEntityMachine {
     protected void resetCrafting() {
         super.resetCrafting();
         pristineSuccess = false;
+        pristineChance = -1;
     }
 
     @Override
@@ -190,6 +222,11 @@ public class TileEntitySimulationChamber extends TileEntityMachine {
         return (stackIsFull || !stackMatchesDataModel);
     }
 
+    @Override
+    protected IItemHandler[] getAutoExportHandlers() {
+        return autoExportHandlers;
+    }
+
     //
     // CAPABILITIES
     //
@@ -204,28 +241,26 @@ public class TileEntitySimulationChamber extends TileEntityMachine {
     @Override
     public <T> T getCapability(Capability<T> capability, @Nullable EnumFacing facing) {
         if (capability == CapabilityItemHandler.ITEM_HANDLER_CAPABILITY) {
-            if (facing == null) {
-                return CapabilityItemHandler.ITEM_HANDLER_CAPABILITY.cast(
-                        new CombinedInvWrapper(inputDataModel, inputPolymer, outputLiving, outputPristine)
-                );
-            } else {
-                if (!DMLConfig.MACHINE_SETTINGS.LEGACY_MACHINE_SIDEDNESS) {
-                    return CapabilityItemHandler.ITEM_HANDLER_CAPABILITY.cast(
-                            new CombinedInvWrapper(dataModelWrapper, polymerWrapper, outputLiving, outputPristine)
-                    );
-                } else {
-                    if (facing == EnumFacing.UP) {
-                        return CapabilityItemHandler.ITEM_HANDLER_CAPABILITY.cast(new CombinedInvWrapper(inputDataModel, inputPolymer));
-                    } else {
-                        return CapabilityItemHandler.ITEM_HANDLER_CAPABILITY.cast(new CombinedInvWrapper(outputPristine, outputLiving));
-                    }
-                }
-            }
+            return CapabilityItemHandler.ITEM_HANDLER_CAPABILITY.cast(getItemHandler(facing));
         }
 
         return super.getCapability(capability, facing);
     }
 
+    @Override
+    protected IItemHandler createItemHandler(@Nullable EnumFacing facing, boolean legacySidedness) {
+        if (facing == null)
+            return new CombinedInvWrapper(inputDataModel, inputPolymer, outputLiving, outputPristine);
+
+        if (!legacySidedness)
+            return new CombinedInvWrapper(dataModelWrapper, polymerWrapper, outputLiving, outputPristine);
+
+        if (facing == EnumFacing.UP)
+            return new CombinedInvWrapper(inputDataModel, inputPolymer);
+        else
+            return new CombinedInvWrapper(outputPristine, outputLiving);
+    }
+
     //
     // CLIENT/SERVER SYNC
     //
@@ -256,6 +291,7 @@ public class TileEntitySimulationChamber extends TileEntityMachine {
     private static final String NBT_OUTPUT_LIVING = "outputLiving";
     private static final String NBT_OUTPUT_PRISTINE = "outputPristine";
     private static final String NBT_PRISTINE_SUCCESS = "pristineSuccess";
+    private static final String NBT_PRISTINE_CHANCE = "pristineChance";
 
     // Tag names from old mod, used for backwards compatibility
     private static final String NBT_LEGACY_INPUT_DATA_MODEL = "dataModel";
@@ -275,7 +311,9 @@ public class TileEntitySimulationChamber extends TileEntityMachine {
         inventory.setTag(NBT_OUTPUT_PRISTINE, outputPristine.serializeNBT());
         compound.setTag(NBT_INVENTORY, inventory);
 
-        compound.getCompoundTag(NBT_CRAFTING).setBoolean(NBT_PRISTINE_SUCCESS, pristineSuccess);
+        NBTTagCompound crafting = compound.getCompoundTag(NBT_CRAFTING);
+        crafting.setBoolean(NBT_PRISTINE_SUCCESS, pristineSuccess);
+        crafting.setInteger(NBT_PRISTINE_CHANCE, pristineChance);
 
         return compound;
     }
@@ -284,14 +322,16 @@ public class TileEntitySimulationChamber extends TileEntityMachine {
     public void readFromNBT(NBTTagCompound compound) {
         super.readFromNBT(compound);
 
-        if (isLegacyNBT(compound)) {
+        if (!LegacyDataMigration.isWorldMigrated() && isLegacyNBT(compound)) {
             // Original DML tag -> use old (non-nested) tag names
+            setLegacyDataLoaded();
             inputDataModel.deserializeNBT(compound.getCompoundTag(NBT_LEGACY_INPUT_DATA_MODEL));
             inputPolymer.deserializeNBT(compound.getCompoundTag(NBT_LEGACY_INPUT_POLYMER));
             outputLiving.deserializeNBT(compound.getCompoundTag(NBT_LEGACY_OUTPUT_LIVING));
             outputPristine.deserializeNBT(compound.getCompoundTag(NBT_LEGACY_OUTPUT_PRISTINE));
 
             pristineSuccess = NBTHelper.getBoolean(compound, NBT_LEGACY_PRISTINE_SUCCESS, false);
+            pristineChance = isCrafting() ? DataModelHelper.getPristineChance(getDataModel()) : -1;
         } else {
             // DML:Relearned tag -> use new (nested) tag names
             NBTTagCompound inventory = compound.getCompoundTag(NBT_INVENTORY);
@@ -300,7 +340,11 @@ public class TileEntitySimulationChamber extends TileEntityMachine {
             outputLiving.deserializeNBT(inventory.getCompoundTag(NBT_OUTPUT_LIVING));
             outputPristine.deserializeNBT(inventory.getCompoundTag(NBT_OUTPUT_PRISTINE));
 
-            pristineSuccess = NBTHelper.getBoolean(compound.getCompoundTag(NBT_CRAFTING), NBT_PRISTINE_SUCCESS, false);
+            NBTTagCompound crafting = compound.getCompoundTag(NBT_CRAFTING);
+            pristineSuccess = NBTHelper.getBoolean(crafting, NBT_PRISTINE_SUCCESS, false);
+            // Saved before the chance was stored -> assume the roll used the current chance
+            int currentChance = isCrafting() ? DataModelHelper.getPristineChance(getDataModel()) : -1;
+            pristineChance = NBTHelper.getInteger(crafting, NBT_PRISTINE_CHANCE, currentChance);
         }
     }
 
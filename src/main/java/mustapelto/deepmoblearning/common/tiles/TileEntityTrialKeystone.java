@@ -9,9 +9,14 @@ import mustapelto.deepmoblearning.common.inventory.ContainerTrialKeystone;
 import mustapelto.deepmoblearning.common.inventory.ItemHandlerTrialKey;
 import mustapelto.deepmoblearning.common.network.*;
 import mustapelto.deepmoblearning.common.trials.AttunementData;
+import mustapelto.deepmoblearning.common.trials.TrialArena;
+import mustapelto.deepmoblearning.common.trials.TrialArenaWatcher;
+import mustapelto.deepmoblearning.common.trials.TrialMobRegistry;
 import mustapelto.deepmoblearning.common.trials.affix.TrialAffix;
 import mustapelto.deepmoblearning.common.util.ItemStackHelper;
 import mustapelto.deepmoblearning.common.util.TrialKeyHelper;
+import mustapelto.deepmoblearning.common.world.LegacyDataMigration;
+import net.minecraft.entity.EntityLivingBase;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.entity.player.InventoryPlayer;
@@ -31,22 +36,13 @@ public class TileEntityTrialKeystone extends TileEntityTickable {
 
     private final ItemHandlerTrialKey trialKeyInventory = new ItemHandlerTrialKey();
     private final TrialHandler trialHandler = new TrialHandler(this);
+    @Nullable private TrialArena arena; // Created on first use (world and pos are not set during construction)
 
     @Override
     public void update() {
         super.update();
         if (!world.isRemote) {
-
-            // Progress the trial
-            if (trialHandler.isTrialActive()) {
-                trialHandler.runTrial();
-
-                // Every 15 seconds send a block update
-                // TODO is this actually needed?
-                if (getTimer() % 300 == 0) {
-                    sendBlockUpdate();
-                }
-            }
+            // The active Trial is progressed by the TrialManager
 
             // Every 5 seconds mark the tile dirty
             // TODO Is this actually needed?
@@ -87,8 +83,8 @@ public class TileEntityTrialKeystone extends TileEntityTickable {
         trialHandler.onPlayerDied(player);
     }
 
-    public void onMobDied() {
-        trialHandler.onMobDied();
+    public void onMobDied(EntityLivingBase mob) {
+        trialHandler.onMobDied(mob);
     }
 
     //
@@ -100,7 +96,13 @@ public class TileEntityTrialKeystone extends TileEntityTickable {
     }
 
     public boolean isTrialAreaClear() {
-        return trialHandler.isTrialAreaClear();
+        return getArena().isClear();
+    }
+
+    private TrialArena getArena() {
+        if (arena == null || arena.getWorld() != world)
+            arena = new TrialArena(world, pos);
+        return arena;
     }
 
     public ImmutableList<TrialAffix> getAffixes() {
@@ -150,6 +152,36 @@ public class TileEntityTrialKeystone extends TileEntityTickable {
         return ItemStackHelper.isTrialKey(getTrialKeyFromInventory());
     }
 
+    //
+    // Chunk / Block Load
+    //
+
+    @Override
+    public void onLoad() {
+        super.onLoad();
+        TrialArenaWatcher.register(getArena());
+        TrialMobRegistry.registerKeystone(this);
+        trialHandler.onLoad();
+    }
+
+    @Override
+    public void invalidate() {
+        super.invalidate();
+        trialHandler.onUnload();
+        TrialMobRegistry.unregisterKeystone(this);
+        if (arena != null)
+            TrialArenaWatcher.unregister(arena);
+    }
+
+    @Override
+    public void onChunkUnload() {
+        super.onChunkUnload();
+        trialHandler.onUnload();
+        TrialMobRegistry.unregisterKeystone(this);
+        if (arena != null)
+            TrialArenaWatcher.unregister(arena);
+    }
+
     //
     // RENDER
     //
@@ -223,8 +255,9 @@ public class TileEntityTrialKeystone extends TileEntityTickable {
     public void readFromNBT(NBTTagCompound compound) {
         super.readFromNBT(compound);
 
-        if (isLegacyNBT(compound)) {
+        if (!LegacyDataMigration.isWorldMigrated() && isLegacyNBT(compound)) {
             // Original DML tag -> read Trial Key from legacy inventory tag and set Trial State to default values
+            setLegacyDataLoaded();
             trialKeyInventory.deserializeNBT(compound.getCompoundTag(NBT_LEGACY_TRIAL_KEY));
             trialHandler.resetTrial();
         } else {
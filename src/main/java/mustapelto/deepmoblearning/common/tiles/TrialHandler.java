@@ -7,19 +7,29 @@ import mustapelto.deepmoblearning.common.entities.EntityGlitch;
 import mustapelto.deepmoblearning.common.network.DMLPacketHandler;
 import mustapelto.deepmoblearning.common.network.MessageUpdateTileEntity;
 import mustapelto.deepmoblearning.common.trials.AttunementData;
+import mustapelto.deepmoblearning.common.trials.TrialManager;
+import mustapelto.deepmoblearning.common.trials.TrialManager.TickContext;
+import mustapelto.deepmoblearning.common.trials.TrialParticipants;
+import mustapelto.deepmoblearning.common.trials.TrialScheduler;
+import mustapelto.deepmoblearning.common.trials.TrialSpawnPoints;
+import mustapelto.deepmoblearning.common.trials.TrialWaves;
 import mustapelto.deepmoblearning.common.trials.affix.TrialAffix;
 import mustapelto.deepmoblearning.common.util.*;
-import net.minecraft.block.Block;
-import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityLiving;
+import net.minecraft.entity.EntityLivingBase;
 import net.minecraft.entity.item.EntityItem;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.nbt.NBTUtil;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.text.TextComponentTranslation;
 import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.common.util.Constants;
 import net.minecraftforge.fml.common.network.ByteBufUtils;
 
 import javax.annotation.Nullable;
@@ -27,79 +37,68 @@ import java.util.*;
 import java.util.concurrent.ThreadLocalRandom;
 
 // TODO Organize and clean up
-// TODO Fix in-progress trials not running on world load
-public class TrialHandler {
+public class TrialHandler implements TrialManager.Trial {
 
     private final TileEntityTrialKeystone te;
-    private final Set<EntityPlayerMP> participants = Collections.newSetFromMap(new WeakHashMap<>());
+    private final TrialParticipants participants = new TrialParticipants();
+    private final TrialScheduler scheduler = new TrialScheduler(); // Timed affix callbacks
 
     private ItemStack activeTrialKey = ItemStack.EMPTY;
     private boolean active;
-    private int currentWave;
-    private int mobsDefeated;
-    private int mobsSpawned;
-    private int ticksToNextWave;
+    private final TrialWaves waves = new TrialWaves();
+    private final WaveListener waveListener = new WaveListener();
+
+    // Resume state (Trial loaded from NBT while active)
+    private final Set<UUID> trialMobs = new HashSet<>(); // Wave mobs spawned by this Trial that have not died yet
+    private final Set<UUID> absentParticipants = new HashSet<>(); // Saved participants that have not rejoined yet
+    private int resumeTicks; // Ticks spent waiting for absent participants
+    private boolean checkTrialMobs; // Tracked mobs have to be matched against loaded entities
+
+    @Nullable private TrialSpawnPoints spawnPoints; // Computed on Trial start (or resume)
 
     protected TrialHandler(TileEntityTrialKeystone te) {
         this.te = te;
     }
 
-    protected void runTrial() {
-        disableFlying();
-        removeDistantParticipants();
+    /**
+     * Called by the TrialManager once per tick while the Trial is active
+     */
+    @Override
+    public void runTrial(TickContext context) {
+        participants.update(getWorld(), getPos(), this::onParticipantLeft);
+
+        if (context.isPeriodic(20)) {
+            if (!absentParticipants.isEmpty())
+                rejoinAbsentParticipants();
+            if (checkTrialMobs && !participants.isEmpty())
+                removeMissingTrialMobs();
+        }
+
+        // Every 15 seconds send a block update
+        // TODO is this actually needed?
+        if (context.isPeriodic(300)) {
+            te.sendBlockUpdate();
+        }
 
         if (participants.isEmpty()) {
 
+            // Trial was loaded while active -> wait for saved participants to come back
+            if (!absentParticipants.isEmpty() && resumeTicks < DMLConstants.TrialKeystone.TRIAL_RESUME_TIMEOUT) {
+                resumeTicks++;
+                return;
+            }
+
             // End the trial, all participants have left or died
             List<EntityPlayerMP> nearbyPlayers = PlayerHelper.getLivingPlayersInArea(getWorld(), getPos(), 80, 60, -30);
             nearbyPlayers.forEach(p -> p.sendMessage(new TextComponentTranslation("deepmoblearning.trial.message.failed")));
             nearbyPlayers.forEach(PlayerHelper::resetTrialCapability);
             stopTrial(true, false);
             return;
-
-        } else if (ticksToNextWave > 0) {
-
-            // Progress the wave, and advance to next wave if needed
-            ticksToNextWave--;
-            if (ticksToNextWave == 0) {
-                startNextWave();
-            }
-            // Return early during wave intermission
-            return;
-
-        } else if (currentWave <= getLastWave()) {
-
-            // Spawn mobs during the current wave if there are any left to spawn
-            if (mobsSpawned < getWaveMobTotal()) {
-                if (getTimer() % (20 * getSpawnDelay()) == 0) {
-                    EntityHelper.spawnTrialMob(getRandomTrialEntity(), getWorld(), getPos(), getAffixes());
-                    mobsSpawned++;
-                }
-            }
-
-            // Complete the trial if all waves are finished
-            if (mobsDefeated >= getWaveMobTotal()) {
-                if (currentWave == (getLastWave() - 1)) {
-                    stopTrial(false, true);
-                    return;
-                } else {
-                    ticksToNextWave = 100;
-                    participants.forEach(participant -> PlayerHelper.sendMessageToOverlay(participant, DMLConstants.Trials.Message.WAVE_COUNTDOWN));
-                    SoundHelper.playSound(getWorld(), getPos(), DMLConstants.Sounds.WAVE_COUNTDOWN);
-                }
-            }
-        } else {
-
-            // End the trial
-            resetTrial();
-            return;
         }
 
-        // Run affixes always while the trial is running
-        getAffixes().forEach(TrialAffix::run);
-
-        // Every 14 seconds
-        if (getTimer() % 280 == 0) spawnGlitch();
+        // Progress the waves. Spawns, affixes and Glitches wait while the tick budget is used up.
+        if (waves.tick(waveListener, context.isOverBudget()))
+            context.markDeferred();
     }
 
     protected boolean startTrial(ItemStack trialKey) {
@@ -120,6 +119,9 @@ public class TrialHandler {
         );
 
         active = true;
+        spawnPoints = null;
+        getSpawnPoints();
+        TrialManager.add(getWorld(), getPos(), this);
 
         updateCapability();
         onWaveStart();
@@ -151,10 +153,9 @@ public class TrialHandler {
         participants.forEach(p -> PlayerHelper.sendMessageToOverlay(p, DMLConstants.Trials.Message.WAVE_NUMBER));
     }
 
-    private void startNextWave() {
-        currentWave++;
-        mobsDefeated = 0;
-        mobsSpawned = 0;
+    private void onNextWave() {
+        trialMobs.clear();
+        absentParticipants.clear();
         participants.clear();
         participants.addAll(PlayerHelper.getLivingPlayersInArea(getWorld(), getPos(), DMLConstants.TrialKeystone.TRIAL_AREA_RADIUS, DMLConstants.TrialKeystone.TRIAL_AREA_HEIGHT, 0));
         participants.forEach(p -> DMLPacketHandler.sendToClientPlayer(new MessageUpdateTileEntity(te), p));
@@ -167,53 +168,104 @@ public class TrialHandler {
         PlayerHelper.resetTrialCapability(player);
     }
 
-    protected void onMobDied() {
-        mobsDefeated++;
+    protected void onMobDied(EntityLivingBase mob) {
+        trialMobs.remove(mob.getUniqueID());
+        waves.onMobDefeated();
         updateCapability();
     }
 
-    protected boolean isTrialActive() {
+    @Override
+    public boolean isTrialActive() {
         return active;
     }
 
-    private void disableFlying() {
-        participants.forEach(p -> {
-            if (!p.isDead && !p.capabilities.isCreativeMode && p.capabilities.allowFlying) {
-                p.capabilities.allowFlying = false;
-                p.capabilities.isFlying = false;
-                p.sendPlayerAbilities();
-            }
-        });
+    private void onParticipantLeft(EntityPlayerMP player) {
+        player.sendMessage(new TextComponentTranslation("deepmoblearning.trial.message.player_left"));
+        PlayerHelper.resetTrialCapability(player);
     }
 
-    private void removeDistantParticipants() {
-        Iterator<EntityPlayerMP> iterator = participants.iterator();
+    /**
+     * Add saved participants back to the Trial once they are online and inside the arena again
+     */
+    private void rejoinAbsentParticipants() {
+        boolean rejoined = false;
+
+        Iterator<UUID> iterator = absentParticipants.iterator();
         while (iterator.hasNext()) {
-            EntityPlayerMP player = iterator.next();
-            double distance = BlockDistance.getBlockDistance(getPos(), player.getPosition());
-            if (distance > DMLConstants.TrialKeystone.TRIAL_ARENA_RADIUS) {
+            EntityPlayer player = getWorld().getPlayerEntityByUUID(iterator.next());
+            if (!(player instanceof EntityPlayerMP) || player.isDead)
+                continue;
+            if (BlockDistance.getBlockDistance(getPos(), player.getPosition()) > DMLConstants.TrialKeystone.TRIAL_ARENA_RADIUS)
+                continue;
+
+            participants.add((EntityPlayerMP) player);
+            DMLPacketHandler.sendToClientPlayer(new MessageUpdateTileEntity(te), (EntityPlayerMP) player);
+            iterator.remove();
+            rejoined = true;
+        }
+
+        if (rejoined) {
+            resumeTicks = 0;
+            updateCapability();
+        }
+    }
+
+    /**
+     * Forget tracked mobs that did not come back with their chunks, so they are spawned again
+     */
+    private void removeMissingTrialMobs() {
+        checkTrialMobs = false;
+        if (!(getWorld() instanceof WorldServer))
+            return;
 
-                player.sendMessage(new TextComponentTranslation("deepmoblearning.trial.message.player_left"));
-                PlayerHelper.resetTrialCapability(player);
+        WorldServer world = (WorldServer) getWorld();
+        int missing = 0;
+
+        Iterator<UUID> iterator = trialMobs.iterator();
+        while (iterator.hasNext()) {
+            Entity entity = world.getEntityFromUuid(iterator.next());
+            if (entity == null || entity.isDead) {
                 iterator.remove();
+                missing++;
             }
         }
+
+        waves.onMobsMissing(missing);
+    }
+
+    /**
+     * @return true if a mob was spawned
+     */
+    private boolean spawnWaveMob() {
+        EntityLiving entity = getRandomTrialEntity();
+        if (entity == null)
+            return false;
+
+        BlockPos spawnPos = getSpawnPoints().getGroundPoint(ThreadLocalRandom.current());
+        if (!EntityHelper.spawnTrialMob(entity, getWorld(), getPos(), spawnPos, participants.getNextTarget(), getAffixes()))
+            return false;
+
+        trialMobs.add(entity.getUniqueID());
+        return true;
+    }
+
+    private void onWaveCleared() {
+        participants.forEach(participant -> PlayerHelper.sendMessageToOverlay(participant, DMLConstants.Trials.Message.WAVE_COUNTDOWN));
+        SoundHelper.playSound(getWorld(), getPos(), DMLConstants.Sounds.WAVE_COUNTDOWN);
     }
 
     private void spawnGlitch() {
         // Spawn randomly within the confines of the trial
         ThreadLocalRandom rand = ThreadLocalRandom.current();
-        int randomX = getPos().getX() + rand.nextInt(-5, 5);
-        int randomY = getPos().getY() + rand.nextInt(0, 1);
-        int randomZ = getPos().getZ() + rand.nextInt(-5, 5);
 
         // TODO based on tier??
         if (rand.nextInt(1, 100) <= getGlitchChance()) {
+            BlockPos spawnPos = getSpawnPoints().getGroundPoint(rand);
             EntityGlitch e = new EntityGlitch(getWorld());
-            e.setLocationAndAngles(randomX, randomY, randomZ, 0, 0);
+            e.setLocationAndAngles(spawnPos.getX() + 0.5, spawnPos.getY(), spawnPos.getZ() + 0.5, 0, 0);
             e.enablePersistence();
 
-            EntityPlayer target = e.world.getNearestAttackablePlayer(e.getPosition(), 32, 5);
+            EntityPlayer target = participants.getNextTarget();
             if (target != null && target.isEntityAlive()) {
                 e.setAttackTarget(target);
             }
@@ -227,66 +279,118 @@ public class TrialHandler {
         }
     }
 
-    protected boolean isTrialAreaClear() {
-        int groundY = getPos().getY() - 1;
-        int keystoneY = getPos().getY();
-        int areaMaxY = getPos().getY() + DMLConstants.TrialKeystone.TRIAL_AREA_HEIGHT;
-        int areaMinX = getPos().getX() - DMLConstants.TrialKeystone.TRIAL_AREA_RADIUS;
-        int areaMaxX = getPos().getX() + DMLConstants.TrialKeystone.TRIAL_AREA_RADIUS;
-        int areaMinZ = getPos().getZ() - DMLConstants.TrialKeystone.TRIAL_AREA_RADIUS;
-        int areaMaxZ = getPos().getZ() + DMLConstants.TrialKeystone.TRIAL_AREA_RADIUS;
-
-        // Check if layer below Trial area is "ground"
-        Iterable<BlockPos> groundLayer = BlockPos.getAllInBox(areaMinX, groundY, areaMinZ, areaMaxX, groundY, areaMaxZ);
-        for (BlockPos blockPos : groundLayer) {
-            if (!getWorld().getBlockState(blockPos).isFullBlock())
-                return false;
-        }
-
-        // Check if layers above Trial area are "air"
-        Iterable<BlockPos> airLayer = BlockPos.getAllInBox(areaMinX, keystoneY, areaMinZ, areaMaxX, areaMaxY, areaMaxZ);
-        for (BlockPos blockPos : airLayer) {
-            if (blockPos.equals(getPos()))
-                continue; // Skip Trial Keystone block
-
-            IBlockState state = getWorld().getBlockState(blockPos);
-            Block block = state.getBlock();
-            if (!block.isAir(state, getWorld(), blockPos))
-                return false;
-        }
-
-        return true;
-    }
-
     private void updateCapability() {
         PlayerHelper.updateTrialCapability(
-                participants,
+                participants.getPlayers(),
                 getWaveMobTotal(),
-                currentWave,
-                mobsDefeated,
+                waves.getCurrentWave(),
+                waves.getMobsDefeated(),
                 getLastWave(),
                 getPos(),
                 active
         );
     }
 
+    /**
+     * Keystone was loaded: hand a saved active Trial to the TrialManager
+     */
+    protected void onLoad() {
+        if (active)
+            TrialManager.add(getWorld(), getPos(), this);
+    }
+
+    /**
+     * Keystone was unloaded or removed: release participants (tracking and flight lock).
+     * Their UUIDs are kept, so they can rejoin if the Trial is saved and loaded again.
+     */
+    protected void onUnload() {
+        TrialManager.remove(getWorld(), this);
+        if (active)
+            participants.forEach(p -> absentParticipants.add(p.getUniqueID()));
+        participants.clear();
+    }
+
     protected void resetTrial() {
+        TrialManager.remove(getWorld(), this);
         active = false;
-        mobsSpawned = 0;
-        mobsDefeated = 0;
-        currentWave = 0;
-        ticksToNextWave = 0;
+        waves.reset();
+        trialMobs.clear();
+        absentParticipants.clear();
+        resumeTicks = 0;
+        checkTrialMobs = false;
+        spawnPoints = null;
+        scheduler.clear();
+        pendingAffixState = null;
         activeTrialKey = ItemStack.EMPTY;
         updateCapability();
         participants.clear();
     }
 
+    //
+    // Wave progress callbacks
+    //
+
+    private class WaveListener implements TrialWaves.Listener {
+        @Override
+        public int getLastWave() {
+            return TrialHandler.this.getLastWave();
+        }
+
+        @Override
+        public int getWaveMobTotal(int wave) {
+            AttunementData data = getData();
+            return data != null ? data.getCurrentWaveMobTotal(wave) : 0;
+        }
+
+        @Override
+        public int getSpawnInterval() {
+            return TrialHandler.this.getSpawnInterval();
+        }
+
+        @Override
+        public boolean spawnMob() {
+            return spawnWaveMob();
+        }
+
+        @Override
+        public void onWaveCleared() {
+            TrialHandler.this.onWaveCleared();
+        }
+
+        @Override
+        public void onNextWave() {
+            TrialHandler.this.onNextWave();
+        }
+
+        @Override
+        public void onTrialComplete() {
+            stopTrial(false, true);
+        }
+
+        @Override
+        public void onTrialEnded() {
+            resetTrial();
+        }
+
+        @Override
+        public void runAffixes() {
+            // Affixes register their callbacks when first created
+            getAffixes();
+            scheduler.tick();
+        }
+
+        @Override
+        public void rollGlitch() {
+            spawnGlitch();
+        }
+    }
+
     //
     // Trial state
     //
 
     protected int getCurrentWave() {
-        return currentWave;
+        return waves.getCurrentWave();
     }
 
     protected int getLastWave() {
@@ -295,13 +399,12 @@ public class TrialHandler {
     }
 
     private int getWaveMobTotal() {
-        AttunementData data = getData();
-        return data != null ? data.getCurrentWaveMobTotal(currentWave) : 0;
+        return waveListener.getWaveMobTotal(waves.getCurrentWave());
     }
 
-    private double getSpawnDelay() {
+    private int getSpawnInterval() {
         AttunementData data = getData();
-        return data != null ? data.getSpawnDelay() : 0;
+        return data != null ? Math.max(1, (int) Math.round(20 * data.getSpawnDelay())) : 1;
     }
 
     private int getGlitchChance() {
@@ -328,6 +431,15 @@ public class TrialHandler {
     // Tile Entity Passthroughs
     //
 
+    private TrialSpawnPoints getSpawnPoints() {
+        if (spawnPoints == null) {
+            spawnPoints = TrialSpawnPoints.create(getWorld(), getPos());
+            if (affixes != null)
+                affixes.forEach(affix -> affix.setSpawnPoints(spawnPoints));
+        }
+        return spawnPoints;
+    }
+
     private BlockPos getPos() {
         return te.getPos();
     }
@@ -336,16 +448,13 @@ public class TrialHandler {
         return te.getWorld();
     }
 
-    private long getTimer() {
-        return te.getTimer();
-    }
-
     //
     // Trial Key Passthroughs (with caching for convenience)
     //
 
     private AttunementData data;
     private ImmutableList<TrialAffix> affixes;
+    @Nullable private NBTTagList pendingAffixState; // Loaded affix state, applied when affixes are created
 
     protected ImmutableList<TrialAffix> getAffixes() {
         ImmutableList<TrialAffix> affixes = ImmutableList.of();
@@ -355,17 +464,37 @@ public class TrialHandler {
             if (this.affixes == null) {
                 // cache miss
                 affixes = this.affixes = TrialKeyHelper.getAffixes(activeTrialKey, getPos(), getWorld());
+                restoreAffixState(affixes);
+                if (spawnPoints != null)
+                    affixes.forEach(affix -> affix.setSpawnPoints(spawnPoints));
+                if (!getWorld().isRemote)
+                    affixes.forEach(affix -> affix.schedule(scheduler));
             } else {
                 // cache hit
                 affixes = this.affixes;
             }
         } else {
             // no active key, reset cache
-            this.affixes = ImmutableList.of();
+            this.affixes = null;
         }
         return affixes;
     }
 
+    private void restoreAffixState(ImmutableList<TrialAffix> affixes) {
+        if (pendingAffixState == null)
+            return;
+
+        for (int i = 0; i < affixes.size() && i < pendingAffixState.tagCount(); i++) {
+            NBTTagCompound affixState = pendingAffixState.getCompoundTagAt(i);
+            TrialAffix affix = affixes.get(i);
+            if (affix.getId().equals(affixState.getString(NBT_AFFIX_ID))) {
+                affix.readScheduleFromNBT(affixState);
+                affix.readFromNBT(affixState);
+            }
+        }
+        pendingAffixState = null;
+    }
+
     @Nullable
     private AttunementData getData() {
         AttunementData data = null;
@@ -389,46 +518,95 @@ public class TrialHandler {
     //
     // NBT / Sync
     //
-    // TODO Make sure all of this is ""everything"" we need to sync/save
 
     // NBT Tag Names
     private static final String NBT_ACTIVE_TRIAL_KEY = "activeTrialKey";
-    private static final String NBT_CURRENT_WAVE = "currentWave";
-    private static final String NBT_MOBS_DEFEATED = "mobsDefeated";
     private static final String NBT_IS_ACTIVE = "active";
+    private static final String NBT_TRIAL_MOBS = "trialMobs";
+    private static final String NBT_PARTICIPANTS = "participants";
+    private static final String NBT_AFFIX_STATE = "affixState";
+    private static final String NBT_AFFIX_ID = "id";
 
     protected ByteBuf getUpdateData(ByteBuf buf) {
         buf.writeBoolean(active);
-        buf.writeInt(currentWave);
+        buf.writeInt(waves.getCurrentWave());
         ByteBufUtils.writeItemStack(buf, activeTrialKey);
         return buf;
     }
 
     protected void handleUpdateData(ByteBuf buf) {
         this.active = buf.readBoolean();
-        this.currentWave = buf.readInt();
+        waves.setCurrentWave(buf.readInt());
         this.activeTrialKey = ByteBufUtils.readItemStack(buf);
     }
 
     protected void writeToNBT(NBTTagCompound compound) {
         compound.setBoolean(NBT_IS_ACTIVE, active);
-        compound.setInteger(NBT_CURRENT_WAVE, currentWave);
-        compound.setInteger(NBT_MOBS_DEFEATED, mobsDefeated);
+        waves.writeToNBT(compound);
         if (activeTrialKey != null) {
             NBTTagCompound trialKey = activeTrialKey.writeToNBT(new NBTTagCompound());
             compound.setTag(NBT_ACTIVE_TRIAL_KEY, trialKey);
         }
+
+        if (!active)
+            return;
+
+        compound.setTag(NBT_TRIAL_MOBS, writeUUIDs(trialMobs));
+
+        Set<UUID> participantUUIDs = new HashSet<>(absentParticipants);
+        participants.forEach(p -> participantUUIDs.add(p.getUniqueID()));
+        compound.setTag(NBT_PARTICIPANTS, writeUUIDs(participantUUIDs));
+
+        if (affixes != null) {
+            NBTTagList affixState = new NBTTagList();
+            for (TrialAffix affix : affixes) {
+                NBTTagCompound state = new NBTTagCompound();
+                state.setString(NBT_AFFIX_ID, affix.getId());
+                affix.writeScheduleToNBT(state);
+                affix.writeToNBT(state);
+                affixState.appendTag(state);
+            }
+            compound.setTag(NBT_AFFIX_STATE, affixState);
+        } else if (pendingAffixState != null) {
+            compound.setTag(NBT_AFFIX_STATE, pendingAffixState);
+        }
     }
 
     protected void readFromNBT(NBTTagCompound compound) {
         this.active = compound.getBoolean(NBT_IS_ACTIVE);
-        this.currentWave = compound.getInteger(NBT_CURRENT_WAVE);
-        this.mobsDefeated = compound.getInteger(NBT_MOBS_DEFEATED);
-        // If world is closed while Trial is running, already spawned but not defeated mobs will despawn.
-        // We can get them back by resetting the count to the number of defeated mobs.
-        this.mobsSpawned = mobsDefeated;
+        waves.readFromNBT(compound);
 
         NBTTagCompound trialKey = compound.getCompoundTag(NBT_ACTIVE_TRIAL_KEY);
         this.activeTrialKey = new ItemStack(trialKey);
+        this.data = null;
+        this.affixes = null;
+        scheduler.clear();
+
+        this.resumeTicks = 0;
+        readUUIDs(compound.getTagList(NBT_PARTICIPANTS, Constants.NBT.TAG_COMPOUND), absentParticipants);
+        this.pendingAffixState = compound.hasKey(NBT_AFFIX_STATE) ? compound.getTagList(NBT_AFFIX_STATE, Constants.NBT.TAG_COMPOUND) : null;
+
+        if (compound.hasKey(NBT_TRIAL_MOBS)) {
+            // Spawned mobs are persistent and come back with their chunks. Missing ones are spawned again once the Trial resumes.
+            readUUIDs(compound.getTagList(NBT_TRIAL_MOBS, Constants.NBT.TAG_COMPOUND), trialMobs);
+            this.checkTrialMobs = active;
+        } else {
+            // Older Trial state without tracked mobs: all undefeated mobs of the wave are spawned again (see TrialWaves)
+            trialMobs.clear();
+            this.checkTrialMobs = false;
+        }
+    }
+
+    private static NBTTagList writeUUIDs(Collection<UUID> uuids) {
+        NBTTagList list = new NBTTagList();
+        uuids.forEach(uuid -> list.appendTag(NBTUtil.createUUIDTag(uuid)));
+        return list;
+    }
+
+    private static void readUUIDs(NBTTagList list, Set<UUID> uuids) {
+        uuids.clear();
+        for (int i = 0; i < list.tagCount(); i++) {
+            uuids.add(NBTUtil.getUUIDFromTag(list.getCompoundTagAt(i)));
+        }
     }
 }
@@ -0,0 +1,141 @@
+package mustapelto.deepmoblearning.common.trials;
+
+import mustapelto.deepmoblearning.DMLConstants;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+/**
+ * Area around a Trial Keystone that has to be clear for a Trial to start:
+ * a solid ground layer below the keystone and only air above it.
+ *
+ * The check reads chunk sections directly, skipping sections that contain only air.
+ * Its result is cached until a block inside the area changes (see TrialArenaWatcher).
+ */
+public class TrialArena {
+    private static final int RADIUS = DMLConstants.TrialKeystone.TRIAL_AREA_RADIUS;
+    private static final int HEIGHT = DMLConstants.TrialKeystone.TRIAL_AREA_HEIGHT;
+
+    private final World world;
+    private final BlockPos keystonePos;
+    private final int minX, maxX, minZ, maxZ;
+    private final int groundY, minY, maxY;
+
+    private boolean watched = false; // Cache is only valid while block changes are reported
+    private boolean cacheValid = false;
+    private boolean clear = false;
+
+    public TrialArena(World world, BlockPos keystonePos) {
+        this.world = world;
+        this.keystonePos = keystonePos.toImmutable();
+        minX = keystonePos.getX() - RADIUS;
+        maxX = keystonePos.getX() + RADIUS;
+        minZ = keystonePos.getZ() - RADIUS;
+        maxZ = keystonePos.getZ() + RADIUS;
+        groundY = keystonePos.getY() - 1;
+        minY = keystonePos.getY();
+        maxY = keystonePos.getY() + HEIGHT;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public boolean isClear() {
+        if (watched && cacheValid)
+            return clear;
+
+        clear = isGroundSolid() && isAreaEmpty();
+        cacheValid = true;
+        return clear;
+    }
+
+    /**
+     * @return true if block at pos is part of the ground layer or air volume
+     */
+    public boolean contains(BlockPos pos) {
+        return pos.getX() >= minX && pos.getX() <= maxX &&
+                pos.getZ() >= minZ && pos.getZ() <= maxZ &&
+                pos.getY() >= groundY && pos.getY() <= maxY;
+    }
+
+    public void invalidate() {
+        cacheValid = false;
+    }
+
+    public void setWatched(boolean watched) {
+        this.watched = watched;
+        cacheValid = false;
+    }
+
+    //
+    // Scan
+    //
+
+    private boolean isGroundSolid() {
+        if (groundY < 0 || groundY >= world.getHeight())
+            return false;
+
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                ExtendedBlockStorage section = world.getChunk(chunkX, chunkZ).getBlockStorageArray()[groundY >> 4];
+                if (section == Chunk.NULL_BLOCK_STORAGE || section.isEmpty())
+                    return false; // Only air
+
+                int x0 = Math.max(minX, chunkX << 4), x1 = Math.min(maxX, (chunkX << 4) + 15);
+                int z0 = Math.max(minZ, chunkZ << 4), z1 = Math.min(maxZ, (chunkZ << 4) + 15);
+                for (int x = x0; x <= x1; x++) {
+                    for (int z = z0; z <= z1; z++) {
+                        if (!section.get(x & 15, groundY & 15, z & 15).isFullBlock())
+                            return false;
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private boolean isAreaEmpty() {
+        int minSection = Math.max(minY, 0) >> 4;
+        int maxSection = Math.min(maxY, world.getHeight() - 1) >> 4;
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                ExtendedBlockStorage[] sections = world.getChunk(chunkX, chunkZ).getBlockStorageArray();
+                int x0 = Math.max(minX, chunkX << 4), x1 = Math.min(maxX, (chunkX << 4) + 15);
+                int z0 = Math.max(minZ, chunkZ << 4), z1 = Math.min(maxZ, (chunkZ << 4) + 15);
+
+                for (int sectionY = minSection; sectionY <= maxSection; sectionY++) {
+                    ExtendedBlockStorage section = sections[sectionY];
+                    if (section == Chunk.NULL_BLOCK_STORAGE || section.isEmpty())
+                        continue; // Only air
+
+                    int y0 = Math.max(Math.max(minY, 0), sectionY << 4), y1 = Math.min(maxY, (sectionY << 4) + 15);
+                    for (int y = y0; y <= y1; y++) {
+                        for (int x = x0; x <= x1; x++) {
+                            for (int z = z0; z <= z1; z++) {
+                                IBlockState state = section.get(x & 15, y & 15, z & 15);
+                                if (state.getBlock() == Blocks.AIR)
+                                    continue;
+
+                                pos.setPos(x, y, z);
+                                if (pos.equals(keystonePos))
+                                    continue; // Skip Trial Keystone block
+
+                                if (!state.getBlock().isAir(state, world, pos))
+                                    return false;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,65 @@
+package mustapelto.deepmoblearning.common.trials;
+
+import mustapelto.deepmoblearning.common.world.WorldEventListenerBase;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+import java.util.*;
+
+/**
+ * Invalidates cached Trial arena checks when a block inside an arena changes.
+ * One listener per world (client and server), created when the first arena in that world is registered.
+ * Client and server threads each use their own map, so the maps are never shared between threads.
+ */
+@EventBusSubscriber
+public class TrialArenaWatcher extends WorldEventListenerBase {
+    private static final Map<World, TrialArenaWatcher> serverWatchers = new WeakHashMap<>();
+    private static final Map<World, TrialArenaWatcher> clientWatchers = new WeakHashMap<>();
+
+    private final Set<TrialArena> arenas = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    public static void register(TrialArena arena) {
+        TrialArenaWatcher watcher = getWatchers(arena.getWorld()).computeIfAbsent(arena.getWorld(), world -> {
+            TrialArenaWatcher newWatcher = new TrialArenaWatcher();
+            world.addEventListener(newWatcher);
+            return newWatcher;
+        });
+        watcher.arenas.add(arena);
+        arena.setWatched(true);
+    }
+
+    public static void unregister(TrialArena arena) {
+        TrialArenaWatcher watcher = getWatchers(arena.getWorld()).get(arena.getWorld());
+        if (watcher != null)
+            watcher.arenas.remove(arena);
+        arena.setWatched(false);
+    }
+
+    @SubscribeEvent
+    public static void worldUnload(WorldEvent.Unload event) {
+        TrialArenaWatcher watcher = getWatchers(event.getWorld()).remove(event.getWorld());
+        if (watcher != null) {
+            watcher.arenas.forEach(arena -> arena.setWatched(false));
+            event.getWorld().removeEventListener(watcher);
+        }
+    }
+
+    private static Map<World, TrialArenaWatcher> getWatchers(World world) {
+        return world.isRemote ? clientWatchers : serverWatchers;
+    }
+
+    @Override
+    public void notifyBlockUpdate(World world, BlockPos pos, IBlockState oldState, IBlockState newState, int flags) {
+        if (oldState == newState)
+            return;
+
+        for (TrialArena arena : arenas) {
+            if (arena.contains(pos))
+                arena.invalidate();
+        }
+    }
+}
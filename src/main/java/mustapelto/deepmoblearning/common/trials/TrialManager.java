@@ -0,0 +1,254 @@
+package mustapelto.deepmoblearning.common.trials;
+
+import mustapelto.deepmoblearning.common.DMLConfig;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * Runs all active Trials of a server world once per world tick.
+ *
+ * Periodic work of each Trial is offset by a phase (spread over STAGGER_PERIOD ticks), so Trials started or loaded
+ * together do not all run it on the same tick. Once the configured tick budget is used up, the remaining Trials
+ * only update their wave state and defer spawns to a later tick. The Trial that runs first rotates every tick.
+ *
+ * Run time of each Trial is recorded and can be listed with "/dml trials".
+ */
+@EventBusSubscriber
+public class TrialManager {
+    private static final int STAGGER_PERIOD = 20;
+    private static final Map<World, TrialManager> managers = new WeakHashMap<>();
+
+    private final List<ActiveTrial> trials = new ArrayList<>();
+    private final Map<Trial, ActiveTrial> trialMap = new IdentityHashMap<>();
+    private final int[] phaseLoad = new int[STAGGER_PERIOD]; // Number of Trials per phase
+    private final TickContext context = new TickContext();
+    private int cursor = 0; // Index of the Trial that runs first
+    private boolean ticking = false;
+
+    public interface Trial {
+        boolean isTrialActive();
+
+        void runTrial(TickContext context);
+    }
+
+    //
+    // Registration
+    //
+
+    public static void add(@Nullable World world, BlockPos pos, Trial trial) {
+        if (world == null || world.isRemote)
+            return;
+
+        TrialManager manager = managers.computeIfAbsent(world, w -> new TrialManager());
+        if (manager.trialMap.containsKey(trial))
+            return;
+
+        ActiveTrial activeTrial = new ActiveTrial(trial, pos.toImmutable(), world.provider.getDimension(), manager.getFreePhase());
+        manager.phaseLoad[activeTrial.phase]++;
+        manager.trialMap.put(trial, activeTrial);
+        manager.trials.add(activeTrial);
+    }
+
+    public static void remove(@Nullable World world, Trial trial) {
+        if (world == null || world.isRemote)
+            return;
+
+        TrialManager manager = managers.get(world);
+        if (manager == null)
+            return;
+
+        ActiveTrial activeTrial = manager.trialMap.remove(trial);
+        if (activeTrial == null)
+            return;
+
+        manager.phaseLoad[activeTrial.phase]--;
+        activeTrial.removed = true;
+        if (!manager.ticking)
+            manager.trials.remove(activeTrial);
+    }
+
+    /**
+     * @return Run time metrics of all active Trials in world
+     */
+    public static List<TrialMetrics> getMetrics(World world) {
+        TrialManager manager = managers.get(world);
+        return (manager != null) ? Collections.unmodifiableList(manager.trials) : Collections.emptyList();
+    }
+
+    private int getFreePhase() {
+        int phase = 0;
+        for (int i = 1; i < STAGGER_PERIOD; i++) {
+            if (phaseLoad[i] < phaseLoad[phase])
+                phase = i;
+        }
+        return phase;
+    }
+
+    //
+    // Events
+    //
+
+    @SubscribeEvent
+    public static void worldTick(TickEvent.WorldTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || event.world.isRemote)
+            return;
+
+        TrialManager manager = managers.get(event.world);
+        if (manager != null && !manager.trials.isEmpty())
+            manager.tick(event.world.getTotalWorldTime());
+    }
+
+    @SubscribeEvent
+    public static void worldUnload(WorldEvent.Unload event) {
+        // Managers exist for server worlds only, and the map must not be touched from the client thread
+        if (!event.getWorld().isRemote)
+            managers.remove(event.getWorld());
+    }
+
+    private void tick(long worldTime) {
+        long budget = DMLConfig.TRIAL_SETTINGS.TRIAL_TICK_BUDGET * 1000L;
+        long start = System.nanoTime();
+        int count = trials.size();
+
+        ticking = true;
+        for (int i = 0; i < count; i++) {
+            ActiveTrial activeTrial = trials.get((cursor + i) % count);
+            if (activeTrial.removed)
+                continue;
+
+            long trialStart = System.nanoTime();
+            context.begin(worldTime, activeTrial.phase, budget > 0 && trialStart - start >= budget);
+
+            if (activeTrial.trial.isTrialActive())
+                activeTrial.trial.runTrial(context);
+
+            activeTrial.record(System.nanoTime() - trialStart, context.deferred);
+        }
+        ticking = false;
+
+        // Drop Trials that were removed or ended while ticking
+        Iterator<ActiveTrial> iterator = trials.iterator();
+        while (iterator.hasNext()) {
+            ActiveTrial activeTrial = iterator.next();
+            if (!activeTrial.removed && activeTrial.trial.isTrialActive())
+                continue;
+
+            if (!activeTrial.removed) {
+                trialMap.remove(activeTrial.trial);
+                phaseLoad[activeTrial.phase]--;
+            }
+            iterator.remove();
+        }
+        cursor = trials.isEmpty() ? 0 : (cursor + 1) % trials.size();
+    }
+
+    /**
+     * Scheduling state passed to a Trial while it runs
+     */
+    public static class TickContext {
+        private long worldTime;
+        private int phase;
+        private boolean overBudget;
+        private boolean deferred;
+
+        /**
+         * Prepare the context for the next Trial
+         */
+        void begin(long worldTime, int phase, boolean overBudget) {
+            this.worldTime = worldTime;
+            this.phase = phase;
+            this.overBudget = overBudget;
+            this.deferred = false;
+        }
+
+        /**
+         * @return true on one tick per interval, offset by the Trial's phase
+         */
+        public boolean isPeriodic(int interval) {
+            return (worldTime + phase) % interval == 0;
+        }
+
+        /**
+         * @return true if spawns and other deferrable work should wait for a later tick
+         */
+        public boolean isOverBudget() {
+            return overBudget;
+        }
+
+        public void markDeferred() {
+            deferred = true;
+        }
+    }
+
+    public interface TrialMetrics {
+        BlockPos getPos();
+
+        int getDimension();
+
+        double getAverageMicros();
+
+        double getMaxMicros();
+
+        long getDeferredTicks();
+    }
+
+    private static class ActiveTrial implements TrialMetrics {
+        private static final double AVERAGE_WEIGHT = 0.05; // Weight of the latest tick in the moving average
+
+        private final Trial trial;
+        private final BlockPos pos;
+        private final int dimension;
+        private final int phase;
+        private boolean removed = false;
+
+        private double averageNanos = 0;
+        private long maxNanos = 0;
+        private long deferredTicks = 0;
+
+        private ActiveTrial(Trial trial, BlockPos pos, int dimension, int phase) {
+            this.trial = trial;
+            this.pos = pos;
+            this.dimension = dimension;
+            this.phase = phase;
+        }
+
+        private void record(long nanos, boolean deferred) {
+            averageNanos += (nanos - averageNanos) * AVERAGE_WEIGHT;
+            maxNanos = Math.max(maxNanos, nanos);
+            if (deferred)
+                deferredTicks++;
+        }
+
+        @Override
+        public BlockPos getPos() {
+            return pos;
+        }
+
+        @Override
+        public int getDimension() {
+            return dimension;
+        }
+
+        @Override
+        public double getAverageMicros() {
+            return averageNanos / 1000;
+        }
+
+        @Override
+        public double getMaxMicros() {
+            return maxNanos / 1000.0;
+        }
+
+        @Override
+        public long getDeferredTicks() {
+            return deferredTicks;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package mustapelto.deepmoblearning.common.trials;
+
+import mustapelto.deepmoblearning.DMLConstants;
+import mustapelto.deepmoblearning.common.tiles.TileEntityTrialKeystone;
+import mustapelto.deepmoblearning.common.world.WorldEventListenerBase;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityLiving;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.IntHashMap;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+
+/**
+ * Live Trial mobs (wave mobs and affix spawns) of a server world, indexed by entity ID,
+ * plus the loaded Trial Keystones they belong to.
+ *
+ * Lets death and drop handlers reject non-Trial mobs with a single lookup instead of reading entity NBT.
+ * Mobs are added when spawned and when persisted Trial mobs are loaded with their chunk,
+ * and removed when they leave the world (death or chunk unload).
+ */
+@EventBusSubscriber
+public class TrialMobRegistry extends WorldEventListenerBase {
+    private static final Map<World, TrialMobRegistry> registries = new WeakHashMap<>();
+
+    private final IntHashMap<TrialMob> mobs = new IntHashMap<>();
+    private final Map<BlockPos, TileEntityTrialKeystone> keystones = new HashMap<>();
+
+    @SubscribeEvent
+    public static void worldLoad(WorldEvent.Load event) {
+        World world = event.getWorld();
+        if (world.isRemote)
+            return;
+
+        TrialMobRegistry registry = new TrialMobRegistry();
+        registries.put(world, registry);
+        world.addEventListener(registry);
+    }
+
+    @SubscribeEvent
+    public static void worldUnload(WorldEvent.Unload event) {
+        World world = event.getWorld();
+        if (world.isRemote)
+            return; // Registry map is only used on the server thread
+
+        TrialMobRegistry registry = registries.remove(world);
+        if (registry != null)
+            world.removeEventListener(registry);
+    }
+
+    //
+    // Registration
+    //
+
+    public static void registerWaveMob(EntityLiving entity, BlockPos keystonePos) {
+        getRegistry(entity.world).ifPresent(registry -> registry.add(entity, keystonePos.toImmutable(), ""));
+    }
+
+    public static void registerAffixMob(EntityLiving entity, String affix) {
+        getRegistry(entity.world).ifPresent(registry -> registry.add(entity, null, affix));
+    }
+
+    public static void registerKeystone(TileEntityTrialKeystone keystone) {
+        getRegistry(keystone.getWorld()).ifPresent(registry -> registry.keystones.put(keystone.getPos(), keystone));
+    }
+
+    public static void unregisterKeystone(TileEntityTrialKeystone keystone) {
+        getRegistry(keystone.getWorld()).ifPresent(registry -> registry.keystones.remove(keystone.getPos(), keystone));
+    }
+
+    //
+    // Lookup
+    //
+
+    public static Optional<TrialMob> getTrialMob(Entity entity) {
+        return getRegistry(entity.world).map(registry -> registry.mobs.lookup(entity.getEntityId()));
+    }
+
+    private static Optional<TrialMobRegistry> getRegistry(@Nullable World world) {
+        // Keystones also load on the client thread. Even get() can modify a WeakHashMap, so don't touch it there.
+        return (world != null && !world.isRemote) ? Optional.ofNullable(registries.get(world)) : Optional.empty();
+    }
+
+    private void add(EntityLiving entity, @Nullable BlockPos keystonePos, String affix) {
+        mobs.addKey(entity.getEntityId(), new TrialMob(keystonePos, affix));
+    }
+
+    //
+    // IWorldEventListener
+    //
+
+    @Override
+    public void onEntityAdded(Entity entity) {
+        // Trial mobs are persistent, so only those need their NBT checked (when loaded with a chunk)
+        if (!(entity instanceof EntityLiving) || !((EntityLiving) entity).isNoDespawnRequired())
+            return;
+        if (mobs.containsItem(entity.getEntityId()))
+            return;
+
+        NBTTagCompound data = entity.getEntityData();
+        if (data.hasKey(DMLConstants.Trials.TRIAL_KEYSTONE_POS))
+            add((EntityLiving) entity, BlockPos.fromLong(data.getLong(DMLConstants.Trials.TRIAL_KEYSTONE_POS)), "");
+        else if (data.hasKey(DMLConstants.Trials.TRIAL_AFFIX_CONNECTION))
+            add((EntityLiving) entity, null, data.getString(DMLConstants.Trials.TRIAL_AFFIX_CONNECTION));
+    }
+
+    @Override
+    public void onEntityRemoved(Entity entity) {
+        mobs.removeObject(entity.getEntityId());
+    }
+
+    public class TrialMob {
+        @Nullable private final BlockPos keystonePos; // Set for wave mobs
+        private final String affix; // Set for mobs spawned by an affix, empty otherwise
+
+        private TrialMob(@Nullable BlockPos keystonePos, String affix) {
+            this.keystonePos = keystonePos;
+            this.affix = affix;
+        }
+
+        public boolean isWaveMob() {
+            return keystonePos != null;
+        }
+
+        public String getAffix() {
+            return affix;
+        }
+
+        /**
+         * @return Loaded Trial Keystone this wave mob was spawned by
+         */
+        public Optional<TileEntityTrialKeystone> getKeystone() {
+            if (keystonePos == null)
+                return Optional.empty();
+
+            TileEntityTrialKeystone keystone = keystones.get(keystonePos);
+            return (keystone != null && !keystone.isInvalid()) ? Optional.of(keystone) : Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package mustapelto.deepmoblearning.common.trials;
+
+import mustapelto.deepmoblearning.DMLConstants;
+import mustapelto.deepmoblearning.common.capability.CapabilityPlayerTrialProvider;
+import mustapelto.deepmoblearning.common.capability.ICapabilityPlayerTrial;
+import mustapelto.deepmoblearning.common.events.PlayerEventHandler;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Players taking part in a Trial.
+ *
+ * Arena membership is only rechecked for players that moved: crossing a chunk section boundary marks a player
+ * (see onPlayerMoved), and players inside a section that is only partly within the arena are checked whenever
+ * their position changes. Players in sections fully inside the arena cost nothing per tick.
+ *
+ * Flight is locked through the player's Trial capability when they join and unlocked when they leave.
+ */
+public class TrialParticipants {
+    private static final int ARENA_RADIUS = DMLConstants.TrialKeystone.TRIAL_ARENA_RADIUS;
+    private static final Map<UUID, TrialParticipants> index = new HashMap<>(); // Player -> Trial they take part in
+
+    private final Map<UUID, Participant> participants = new LinkedHashMap<>();
+    private final Set<Participant> pending = new HashSet<>(); // Crossed a section boundary since last check
+    private final Set<Participant> boundary = new HashSet<>(); // In a section that is only partly inside the arena
+
+    private EntityPlayerMP[] targets = new EntityPlayerMP[0]; // Participants in join order, rebuilt on membership change
+    private boolean targetsDirty = false;
+    private int nextTarget = 0;
+
+    /**
+     * Mark player for a membership check by the Trial they take part in (if any).
+     * Called when player enters a new chunk section, changes dimension or logs out.
+     */
+    public static void onPlayerMoved(EntityPlayerMP player) {
+        TrialParticipants trial = index.get(player.getUniqueID());
+        if (trial == null)
+            return;
+
+        Participant participant = trial.participants.get(player.getUniqueID());
+        if (participant != null)
+            trial.pending.add(participant);
+    }
+
+    //
+    // Membership
+    //
+
+    public void add(EntityPlayerMP player) {
+        UUID uuid = player.getUniqueID();
+        TrialParticipants previous = index.put(uuid, this);
+        if (previous != null && previous != this)
+            previous.remove(uuid, false);
+
+        Participant participant = new Participant(player);
+        participants.put(uuid, participant);
+        pending.add(participant);
+        boundary.remove(participant);
+        targetsDirty = true;
+
+        lockFlight(player);
+    }
+
+    public void addAll(Collection<EntityPlayerMP> players) {
+        players.forEach(this::add);
+    }
+
+    public void remove(EntityPlayerMP player) {
+        remove(player.getUniqueID(), true);
+    }
+
+    public void clear() {
+        participants.values().forEach(participant -> {
+            index.remove(participant.player.getUniqueID(), this);
+            unlockFlight(participant.player);
+        });
+        participants.clear();
+        pending.clear();
+        boundary.clear();
+        targetsDirty = true;
+    }
+
+    public boolean isEmpty() {
+        return participants.isEmpty();
+    }
+
+    public void forEach(Consumer<EntityPlayerMP> action) {
+        participants.values().forEach(participant -> action.accept(participant.player));
+    }
+
+    public List<EntityPlayerMP> getPlayers() {
+        List<EntityPlayerMP> players = new ArrayList<>(participants.size());
+        forEach(players::add);
+        return players;
+    }
+
+    private void remove(UUID uuid, boolean unregister) {
+        Participant participant = participants.remove(uuid);
+        if (participant == null)
+            return;
+
+        pending.remove(participant);
+        boundary.remove(participant);
+        targetsDirty = true;
+        if (unregister)
+            index.remove(uuid, this);
+        unlockFlight(participant.player);
+    }
+
+    /**
+     * Attack target for a newly spawned Trial mob. Targets are handed out round-robin over participants
+     * that can be attacked, so mobs spread over the group without searching the world for players.
+     * @return Next target, or null if no participant can be attacked
+     */
+    @Nullable
+    public EntityPlayerMP getNextTarget() {
+        if (targetsDirty) {
+            targets = participants.values().stream().map(participant -> participant.player).toArray(EntityPlayerMP[]::new);
+            targetsDirty = false;
+        }
+
+        for (int i = 0; i < targets.length; i++) {
+            nextTarget = (nextTarget + 1) % targets.length;
+            EntityPlayerMP player = targets[nextTarget];
+            if (player.isEntityAlive() && !player.isCreative() && !player.isSpectator())
+                return player;
+        }
+
+        return null;
+    }
+
+    //
+    // Per-tick update
+    //
+
+    /**
+     * @return true if player takes part in any Trial
+     */
+    public static boolean isParticipant(EntityPlayerMP player) {
+        return index.containsKey(player.getUniqueID());
+    }
+
+    /**
+     * Check players that moved since the last update and remove those that are no longer part of the Trial.
+     * @param onLeft Called for each player that left the arena, changed dimension or logged out (after removal).
+     *               Not called for dead players, their death is handled by the Trial itself.
+     */
+    public void update(World world, BlockPos center, Consumer<EntityPlayerMP> onLeft) {
+        if (pending.isEmpty() && boundary.isEmpty())
+            return;
+
+        List<Participant> toCheck = new ArrayList<>(pending);
+        for (Participant participant : boundary) {
+            if (!pending.contains(participant) && participant.hasMoved())
+                toCheck.add(participant);
+        }
+        pending.clear();
+
+        for (Participant participant : toCheck) {
+            EntityPlayerMP player = participant.player;
+
+            if (player.isDead) {
+                remove(player.getUniqueID(), true);
+                continue;
+            }
+
+            if (player.hasDisconnected() || player.world != world || getDistanceSq(center, player.getPosition()) > ARENA_RADIUS * ARENA_RADIUS) {
+                remove(player.getUniqueID(), true);
+                onLeft.accept(player);
+                continue;
+            }
+
+            participant.updateLastPosition();
+            if (isSectionInsideArena(center, player.getPosition()))
+                boundary.remove(participant);
+            else
+                boundary.add(participant);
+
+            // Flight granted by other sources since last check
+            disableFlying(player);
+        }
+    }
+
+    private static long getDistanceSq(BlockPos a, BlockPos b) {
+        long x = a.getX() - b.getX();
+        long y = a.getY() - b.getY();
+        long z = a.getZ() - b.getZ();
+        return x * x + y * y + z * z;
+    }
+
+    /**
+     * @return true if every block of the chunk section containing pos is within the arena radius
+     */
+    private static boolean isSectionInsideArena(BlockPos center, BlockPos pos) {
+        long x = getFarthestOffset(center.getX(), pos.getX() >> 4);
+        long y = getFarthestOffset(center.getY(), pos.getY() >> 4);
+        long z = getFarthestOffset(center.getZ(), pos.getZ() >> 4);
+        return x * x + y * y + z * z <= (long) ARENA_RADIUS * ARENA_RADIUS;
+    }
+
+    private static long getFarthestOffset(int center, int section) {
+        int min = section << 4;
+        int max = min + 15;
+        return Math.max(Math.abs(center - min), Math.abs(center - max));
+    }
+
+    //
+    // Flight lock
+    //
+
+    private static void lockFlight(EntityPlayerMP player) {
+        getCapability(player).ifPresent(cap -> cap.setFlightLocked(true));
+        disableFlying(player);
+    }
+
+    private static void unlockFlight(EntityPlayerMP player) {
+        getCapability(player).ifPresent(cap -> cap.setFlightLocked(false));
+        if (!player.hasDisconnected())
+            PlayerEventHandler.updateGlitchArmorFlight(player);
+    }
+
+    private static void disableFlying(EntityPlayerMP player) {
+        if (!player.capabilities.isCreativeMode && !player.isSpectator() && player.capabilities.allowFlying) {
+            player.capabilities.allowFlying = false;
+            player.capabilities.isFlying = false;
+            player.sendPlayerAbilities();
+        }
+    }
+
+    private static Optional<ICapabilityPlayerTrial> getCapability(EntityPlayerMP player) {
+        @Nullable ICapabilityPlayerTrial cap = player.getCapability(CapabilityPlayerTrialProvider.PLAYER_TRIAL_CAP, null);
+        return Optional.ofNullable(cap);
+    }
+
+    private static class Participant {
+        private final EntityPlayerMP player;
+        private double lastX, lastY, lastZ;
+
+        private Participant(EntityPlayerMP player) {
+            this.player = player;
+            updateLastPosition();
+        }
+
+        private boolean hasMoved() {
+            return player.posX != lastX || player.posY != lastY || player.posZ != lastZ;
+        }
+
+        private void updateLastPosition() {
+            lastX = player.posX;
+            lastY = player.posY;
+            lastZ = player.posZ;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package mustapelto.deepmoblearning.common.trials;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs periodic callbacks (e.g. of Trial affixes) on a hierarchical timer wheel, advanced once per Trial tick.
+ *
+ * The inner wheel holds tasks due within WHEEL_SIZE ticks, one slot per tick. The outer wheel holds tasks due within
+ * WHEEL_SIZE * WHEEL_SIZE ticks, one slot per WHEEL_SIZE ticks, and moves them to the inner wheel when their slot
+ * comes up. Anything due later waits in an overflow list. A tick only touches the slot of the current tick,
+ * so ticks without due tasks cost nothing.
+ *
+ * Tasks with the same period are spread out by STAGGER_STEP ticks, so they do not all run on the same tick.
+ */
+public class TrialScheduler {
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int STAGGER_STEP = 20;
+
+    private final List<List<Task>> inner = createWheel();
+    private final List<List<Task>> outer = createWheel();
+    private final List<Task> overflow = new ArrayList<>();
+    private final Map<Integer, Integer> periodCounts = new HashMap<>(); // Period -> number of tasks scheduled with it
+    private List<Task> spare = new ArrayList<>(); // Empty list swapped in for a slot while it runs
+
+    private long time = 0;
+
+    private static List<List<Task>> createWheel() {
+        List<List<Task>> wheel = new ArrayList<>(WHEEL_SIZE);
+        for (int i = 0; i < WHEEL_SIZE; i++)
+            wheel.add(new ArrayList<>());
+        return wheel;
+    }
+
+    //
+    // Scheduling
+    //
+
+    /**
+     * Run action every period ticks, first run staggered against other tasks with the same period
+     */
+    public Task schedule(int period, Runnable action) {
+        period = Math.max(1, period);
+        int count = periodCounts.merge(period, 1, Integer::sum) - 1;
+        return schedule(period, period + (count * STAGGER_STEP) % period, action);
+    }
+
+    /**
+     * Run action every period ticks, first run after delay ticks
+     */
+    public Task schedule(int period, int delay, Runnable action) {
+        Task task = new Task(Math.max(1, period), time + Math.max(1, delay), action);
+        insert(task);
+        return task;
+    }
+
+    /**
+     * Drop all tasks and start over at time 0
+     */
+    public void clear() {
+        inner.forEach(List::clear);
+        outer.forEach(List::clear);
+        overflow.clear();
+        periodCounts.clear();
+        time = 0;
+    }
+
+    private void insert(Task task) {
+        long delta = task.due - time;
+        if (delta < WHEEL_SIZE)
+            inner.get((int) (task.due & WHEEL_MASK)).add(task);
+        else if (delta < WHEEL_SIZE * WHEEL_SIZE)
+            outer.get((int) ((task.due >> WHEEL_BITS) & WHEEL_MASK)).add(task);
+        else
+            overflow.add(task);
+    }
+
+    //
+    // Tick
+    //
+
+    public void tick() {
+        time++;
+
+        if ((time & WHEEL_MASK) == 0) {
+            if (((time >> WHEEL_BITS) & WHEEL_MASK) == 0)
+                reinsert(overflow);
+            cascade(outer, (int) ((time >> WHEEL_BITS) & WHEEL_MASK));
+        }
+
+        int slot = (int) (time & WHEEL_MASK);
+        List<Task> tasks = inner.get(slot);
+        if (tasks.isEmpty())
+            return;
+
+        inner.set(slot, spare);
+        for (Task task : tasks) {
+            if (task.cancelled)
+                continue;
+
+            if (task.due <= time) {
+                task.action.run();
+                task.due = time + task.period;
+            }
+            if (!task.cancelled)
+                insert(task);
+        }
+        tasks.clear();
+        spare = tasks;
+    }
+
+    private void cascade(List<List<Task>> wheel, int slot) {
+        List<Task> tasks = wheel.get(slot);
+        if (tasks.isEmpty())
+            return;
+
+        wheel.set(slot, spare);
+        for (Task task : tasks) {
+            if (!task.cancelled)
+                insert(task);
+        }
+        tasks.clear();
+        spare = tasks;
+    }
+
+    private void reinsert(List<Task> tasks) {
+        if (tasks.isEmpty())
+            return;
+
+        List<Task> moved = new ArrayList<>(tasks);
+        tasks.clear();
+        for (Task task : moved) {
+            if (!task.cancelled)
+                insert(task);
+        }
+    }
+
+    public class Task {
+        private final int period;
+        private final Runnable action;
+        private long due; // Scheduler time of next run
+        private boolean cancelled = false;
+
+        private Task(int period, long due, Runnable action) {
+            this.period = period;
+            this.due = due;
+            this.action = action;
+        }
+
+        public int getPeriod() {
+            return period;
+        }
+
+        /**
+         * @return Ticks until next run
+         */
+        public int getRemaining() {
+            return (int) Math.max(1, due - time);
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package mustapelto.deepmoblearning.common.trials;
+
+import com.google.common.collect.ImmutableList;
+import mustapelto.deepmoblearning.common.metadata.MetadataDataModelTier;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Runs the per-tick path of a Trial without a world, for balancing and benchmarking.
+ *
+ * Each tick goes through runTrial with a TrialManager.TickContext, like a Trial Keystone, and from there through
+ * the wave logic (TrialWaves) and the affix scheduler (TrialScheduler). A tick counter is the clock. Spawned mobs
+ * are not created, they are counted as defeated a fixed number of ticks after their spawn. Each affix gets one
+ * task with the usual affix period, which only counts its runs. Glitch spawns are only counted. The result contains
+ * duration and spawn count of each wave and the time spent per tick in runTrial.
+ */
+public class TrialSimulation implements TrialManager.Trial, TrialWaves.Listener {
+    private static final int MAX_TICKS = 20 * 60 * 60; // Give up after one hour of game time
+    private static final int AFFIX_PERIOD = 300; // Period of most affix callbacks
+
+    private final int lastWave;
+    private final IntUnaryOperator waveMobTotal;
+    private final int spawnInterval;
+    private final int killDelay;
+    private final TrialWaves waves = new TrialWaves();
+    private final TrialScheduler scheduler = new TrialScheduler();
+    private final Deque<Long> pendingKills = new ArrayDeque<>(); // Tick at which each spawned mob is defeated
+
+    private long tick = 0;
+    private long waveStart = 0;
+    private int waveSpawns = 0;
+    private int glitchRolls = 0;
+    private int affixRuns = 0;
+    private boolean finished = false;
+    private boolean completed = false;
+    private final ImmutableList.Builder<Integer> waveTicks = ImmutableList.builder();
+    private final ImmutableList.Builder<Integer> waveSpawnCounts = ImmutableList.builder();
+
+    private TrialSimulation(int lastWave, IntUnaryOperator waveMobTotal, double spawnDelay, int affixes, int killDelay) {
+        this.lastWave = lastWave;
+        this.waveMobTotal = waveMobTotal;
+        this.spawnInterval = Math.max(1, (int) Math.round(20 * spawnDelay));
+        this.killDelay = Math.max(0, killDelay);
+
+        for (int i = 0; i < affixes; i++)
+            scheduler.schedule(AFFIX_PERIOD, () -> affixRuns++);
+    }
+
+    /**
+     * Simulate a full Trial
+     * @param killDelay Ticks between the spawn of a mob and its death
+     */
+    public static Result run(AttunementData data, int killDelay) {
+        return run(new TrialSimulation(data.getMaxWave(), data::getCurrentWaveMobTotal, data.getSpawnDelay(), data.getAffixCount(), killDelay));
+    }
+
+    /**
+     * Simulate a full Trial of a tier, without Data Model metadata
+     * @param waveMobTotal Wave index -> number of mobs in that wave
+     * @param spawnDelay Seconds between two mob spawns
+     * @param killDelay Ticks between the spawn of a mob and its death
+     */
+    public static Result run(MetadataDataModelTier.TierTrialData tierData, IntUnaryOperator waveMobTotal, double spawnDelay, int killDelay) {
+        return run(new TrialSimulation(tierData.getMaxWave(), waveMobTotal, spawnDelay, tierData.getAffixes(), killDelay));
+    }
+
+    private static Result run(TrialSimulation simulation) {
+        TrialManager.TickContext context = new TrialManager.TickContext();
+
+        long start = System.nanoTime();
+        while (!simulation.finished && simulation.tick < MAX_TICKS) {
+            simulation.tick++;
+            context.begin(simulation.tick, 0, false);
+            simulation.runTrial(context);
+        }
+        long nanos = System.nanoTime() - start;
+
+        return new Result(
+                simulation.waveTicks.build(),
+                simulation.waveSpawnCounts.build(),
+                simulation.tick,
+                simulation.glitchRolls,
+                simulation.affixRuns,
+                simulation.completed,
+                simulation.tick > 0 ? (double) nanos / simulation.tick : 0
+        );
+    }
+
+    private void endWave() {
+        waveTicks.add((int) (tick - waveStart));
+        waveSpawnCounts.add(waveSpawns);
+    }
+
+    //
+    // TrialManager.Trial
+    //
+
+    @Override
+    public boolean isTrialActive() {
+        return !finished;
+    }
+
+    @Override
+    public void runTrial(TrialManager.TickContext context) {
+        while (!pendingKills.isEmpty() && pendingKills.peekFirst() <= tick) {
+            pendingKills.pollFirst();
+            waves.onMobDefeated();
+        }
+
+        if (waves.tick(this, context.isOverBudget()))
+            context.markDeferred();
+    }
+
+    //
+    // TrialWaves.Listener
+    //
+
+    @Override
+    public int getLastWave() {
+        return lastWave;
+    }
+
+    @Override
+    public int getWaveMobTotal(int wave) {
+        return waveMobTotal.applyAsInt(wave);
+    }
+
+    @Override
+    public int getSpawnInterval() {
+        return spawnInterval;
+    }
+
+    @Override
+    public boolean spawnMob() {
+        pendingKills.addLast(tick + killDelay);
+        waveSpawns++;
+        return true;
+    }
+
+    @Override
+    public void onWaveCleared() {
+        endWave();
+    }
+
+    @Override
+    public void onNextWave() {
+        waveStart = tick;
+        waveSpawns = 0;
+    }
+
+    @Override
+    public void onTrialComplete() {
+        endWave();
+        finished = true;
+        completed = true;
+    }
+
+    @Override
+    public void onTrialEnded() {
+        finished = true;
+    }
+
+    @Override
+    public void runAffixes() {
+        scheduler.tick();
+    }
+
+    @Override
+    public void rollGlitch() {
+        glitchRolls++;
+    }
+
+    public static class Result {
+        private final ImmutableList<Integer> waveTicks;
+        private final ImmutableList<Integer> waveSpawns;
+        private final long totalTicks;
+        private final int glitchRolls;
+        private final int affixRuns;
+        private final boolean completed;
+        private final double nanosPerTick;
+
+        private Result(ImmutableList<Integer> waveTicks, ImmutableList<Integer> waveSpawns, long totalTicks, int glitchRolls, int affixRuns, boolean completed, double nanosPerTick) {
+            this.waveTicks = waveTicks;
+            this.waveSpawns = waveSpawns;
+            this.totalTicks = totalTicks;
+            this.glitchRolls = glitchRolls;
+            this.affixRuns = affixRuns;
+            this.completed = completed;
+            this.nanosPerTick = nanosPerTick;
+        }
+
+        /**
+         * @return Ticks from start to clear of each completed wave
+         */
+        public ImmutableList<Integer> getWaveTicks() {
+            return waveTicks;
+        }
+
+        public ImmutableList<Integer> getWaveSpawns() {
+            return waveSpawns;
+        }
+
+        public int getTotalSpawns() {
+            return waveSpawns.stream().mapToInt(Integer::intValue).sum();
+        }
+
+        public long getTotalTicks() {
+            return totalTicks;
+        }
+
+        public int getGlitchRolls() {
+            return glitchRolls;
+        }
+
+        /**
+         * @return Number of affix callbacks run by the scheduler
+         */
+        public int getAffixRuns() {
+            return affixRuns;
+        }
+
+        public boolean isCompleted() {
+            return completed;
+        }
+
+        public double getNanosPerTick() {
+            return nanosPerTick;
+        }
+    }
+}
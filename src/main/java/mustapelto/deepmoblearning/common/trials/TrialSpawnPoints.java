@@ -0,0 +1,80 @@
+package mustapelto.deepmoblearning.common.trials;
+
+import net.minecraft.block.Block;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Spawn positions of a Trial arena, computed once when the Trial starts (or resumes).
+ *
+ * Ground points are the positions around the keystone where a mob fits (no colliding block at feet and head level),
+ * air points are free positions higher up (e.g. for thrown potions). Spawning picks from these arrays
+ * instead of rolling unchecked offsets.
+ */
+public class TrialSpawnPoints {
+    private static final int SPAWN_RADIUS = 5;
+    private static final int AIR_MIN_Y = 2;
+    private static final int AIR_MAX_Y = 8;
+
+    private final BlockPos keystonePos;
+    private final BlockPos[] groundPoints;
+    private final BlockPos[] airPoints;
+
+    private TrialSpawnPoints(BlockPos keystonePos, BlockPos[] groundPoints, BlockPos[] airPoints) {
+        this.keystonePos = keystonePos;
+        this.groundPoints = groundPoints;
+        this.airPoints = airPoints;
+    }
+
+    public static TrialSpawnPoints create(World world, BlockPos keystonePos) {
+        List<BlockPos> ground = new ArrayList<>();
+        List<BlockPos> air = new ArrayList<>();
+
+        for (int x = -SPAWN_RADIUS; x < SPAWN_RADIUS; x++) {
+            for (int z = -SPAWN_RADIUS; z < SPAWN_RADIUS; z++) {
+                if (x == 0 && z == 0)
+                    continue; // Trial Keystone
+
+                BlockPos pos = keystonePos.add(x, 0, z);
+                if (isPassable(world, pos) && isPassable(world, pos.up()))
+                    ground.add(pos);
+
+                for (int y = AIR_MIN_Y; y <= AIR_MAX_Y; y++) {
+                    BlockPos airPos = keystonePos.add(x, y, z);
+                    if (isPassable(world, airPos))
+                        air.add(airPos);
+                }
+            }
+        }
+
+        return new TrialSpawnPoints(keystonePos.toImmutable(), ground.toArray(new BlockPos[0]), air.toArray(new BlockPos[0]));
+    }
+
+    private static boolean isPassable(World world, BlockPos pos) {
+        return world.getBlockState(pos).getCollisionBoundingBox(world, pos) == Block.NULL_AABB;
+    }
+
+    /**
+     * @return Random position at keystone level where a mob fits. Unchecked random offset if the arena has none.
+     */
+    public BlockPos getGroundPoint(Random rand) {
+        if (groundPoints.length == 0)
+            return keystonePos.add(rand.nextInt(2 * SPAWN_RADIUS) - SPAWN_RADIUS, 0, rand.nextInt(2 * SPAWN_RADIUS) - SPAWN_RADIUS);
+
+        return groundPoints[rand.nextInt(groundPoints.length)];
+    }
+
+    /**
+     * @return Random free position above the arena floor. Unchecked random offset if the arena has none.
+     */
+    public BlockPos getAirPoint(Random rand) {
+        if (airPoints.length == 0)
+            return keystonePos.add(rand.nextInt(2 * SPAWN_RADIUS) - SPAWN_RADIUS, AIR_MIN_Y, rand.nextInt(2 * SPAWN_RADIUS) - SPAWN_RADIUS);
+
+        return airPoints[rand.nextInt(airPoints.length)];
+    }
+}
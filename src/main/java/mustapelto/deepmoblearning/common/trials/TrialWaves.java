@@ -0,0 +1,190 @@
+package mustapelto.deepmoblearning.common.trials;
+
+import net.minecraft.nbt.NBTTagCompound;
+
+/**
+ * Wave progress of a Trial: spawn and kill counters, intermission between waves and the Glitch timer.
+ *
+ * Has no world access. Everything the Trial does in the world (spawning, messages, ending the Trial)
+ * goes through a Listener, so the same logic runs in a Trial Keystone and in TrialSimulation.
+ */
+public class TrialWaves {
+    public static final int WAVE_INTERMISSION = 100; // Ticks between the end of a wave and the start of the next one
+    public static final int GLITCH_INTERVAL = 280; // Ticks between two Glitch spawn attempts
+
+    private int currentWave;
+    private int mobsDefeated;
+    private int mobsSpawned;
+    private int ticksToNextWave;
+    private int spawnTicks; // Ticks since last wave mob spawn
+    private int glitchTicks; // Ticks since last Glitch spawn attempt
+
+    public interface Listener {
+        int getLastWave();
+
+        int getWaveMobTotal(int wave);
+
+        int getSpawnInterval();
+
+        /**
+         * @return true if the mob was spawned. Failed spawns are retried after the next spawn interval.
+         */
+        boolean spawnMob();
+
+        void onWaveCleared();
+
+        void onNextWave();
+
+        void onTrialComplete();
+
+        void onTrialEnded();
+
+        void runAffixes();
+
+        void rollGlitch();
+    }
+
+    /**
+     * Advance the Trial by one tick
+     * @param deferSpawns Hold spawns, affixes and Glitch rolls that are due until a later tick
+     * @return true if work was deferred
+     */
+    public boolean tick(Listener listener, boolean deferSpawns) {
+        if (ticksToNextWave > 0) {
+            // Progress the intermission, and advance to next wave if needed
+            if (--ticksToNextWave == 0) {
+                startNextWave();
+                listener.onNextWave();
+            }
+            return false;
+        }
+
+        int lastWave = listener.getLastWave();
+        if (currentWave > lastWave) {
+            listener.onTrialEnded();
+            return false;
+        }
+
+        boolean deferred = false;
+        int mobTotal = listener.getWaveMobTotal(currentWave);
+
+        // Spawn mobs during the current wave if there are any left to spawn
+        if (mobsSpawned < mobTotal) {
+            int interval = listener.getSpawnInterval();
+            if (spawnTicks < interval)
+                spawnTicks++;
+
+            if (spawnTicks >= interval) {
+                if (deferSpawns) {
+                    deferred = true;
+                } else {
+                    spawnTicks = 0;
+                    if (listener.spawnMob())
+                        mobsSpawned++;
+                }
+            }
+        }
+
+        // Complete the trial if all waves are finished
+        if (mobsDefeated >= mobTotal) {
+            if (currentWave == lastWave - 1) {
+                listener.onTrialComplete();
+                return deferred;
+            }
+            ticksToNextWave = WAVE_INTERMISSION;
+            listener.onWaveCleared();
+        }
+
+        if (deferSpawns)
+            return true;
+
+        listener.runAffixes();
+
+        if (++glitchTicks >= GLITCH_INTERVAL) {
+            glitchTicks = 0;
+            listener.rollGlitch();
+        }
+        return deferred;
+    }
+
+    private void startNextWave() {
+        currentWave++;
+        mobsDefeated = 0;
+        mobsSpawned = 0;
+        spawnTicks = 0;
+    }
+
+    public void onMobDefeated() {
+        mobsDefeated++;
+    }
+
+    /**
+     * Spawned mobs that are gone without being defeated (e.g. not restored after a reload) are spawned again
+     */
+    public void onMobsMissing(int missing) {
+        mobsSpawned = Math.max(mobsDefeated, mobsSpawned - missing);
+    }
+
+    public void reset() {
+        currentWave = 0;
+        mobsDefeated = 0;
+        mobsSpawned = 0;
+        ticksToNextWave = 0;
+        spawnTicks = 0;
+        glitchTicks = 0;
+    }
+
+    //
+    // State
+    //
+
+    public int getCurrentWave() {
+        return currentWave;
+    }
+
+    public void setCurrentWave(int currentWave) {
+        this.currentWave = currentWave;
+    }
+
+    public int getMobsDefeated() {
+        return mobsDefeated;
+    }
+
+    public int getMobsSpawned() {
+        return mobsSpawned;
+    }
+
+    public boolean isIntermission() {
+        return ticksToNextWave > 0;
+    }
+
+    //
+    // NBT
+    //
+
+    private static final String NBT_CURRENT_WAVE = "currentWave";
+    private static final String NBT_MOBS_DEFEATED = "mobsDefeated";
+    private static final String NBT_MOBS_SPAWNED = "mobsSpawned";
+    private static final String NBT_TICKS_TO_NEXT_WAVE = "ticksToNextWave";
+    private static final String NBT_SPAWN_TICKS = "spawnTicks";
+    private static final String NBT_GLITCH_TICKS = "glitchTicks";
+
+    public void writeToNBT(NBTTagCompound compound) {
+        compound.setInteger(NBT_CURRENT_WAVE, currentWave);
+        compound.setInteger(NBT_MOBS_DEFEATED, mobsDefeated);
+        compound.setInteger(NBT_MOBS_SPAWNED, mobsSpawned);
+        compound.setInteger(NBT_TICKS_TO_NEXT_WAVE, ticksToNextWave);
+        compound.setInteger(NBT_SPAWN_TICKS, spawnTicks);
+        compound.setInteger(NBT_GLITCH_TICKS, glitchTicks);
+    }
+
+    public void readFromNBT(NBTTagCompound compound) {
+        currentWave = compound.getInteger(NBT_CURRENT_WAVE);
+        mobsDefeated = compound.getInteger(NBT_MOBS_DEFEATED);
+        // Older Trial state without spawn count: spawn all undefeated mobs of the wave again
+        mobsSpawned = compound.hasKey(NBT_MOBS_SPAWNED) ? compound.getInteger(NBT_MOBS_SPAWNED) : mobsDefeated;
+        ticksToNextWave = compound.getInteger(NBT_TICKS_TO_NEXT_WAVE);
+        spawnTicks = compound.getInteger(NBT_SPAWN_TICKS);
+        glitchTicks = compound.getInteger(NBT_GLITCH_TICKS);
+    }
+}
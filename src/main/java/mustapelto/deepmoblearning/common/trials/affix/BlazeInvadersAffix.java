@@ -1,6 +1,7 @@
 package mustapelto.deepmoblearning.common.trials.affix;
 
 import mustapelto.deepmoblearning.DMLConstants;
+import mustapelto.deepmoblearning.common.trials.TrialScheduler;
 import net.minecraft.client.resources.I18n;
 import net.minecraft.entity.monster.EntityBlaze;
 import net.minecraft.util.math.BlockPos;
@@ -11,8 +12,6 @@ import java.util.concurrent.ThreadLocalRandom;
 
 public class BlazeInvadersAffix extends TrialAffix {
 
-    private int ticks = 0;
-
     public BlazeInvadersAffix() {
         super();
     }
@@ -37,22 +36,21 @@ public class BlazeInvadersAffix extends TrialAffix {
     }
 
     @Override
-    public void run() {
-        ticks++;
-        // Once every 15 seconds 34% chance
-        if (ticks % 300 == 0) {
-            ThreadLocalRandom rand = ThreadLocalRandom.current();
-            if (rand.nextInt(1, 100) > 66) {
-                EntityBlaze blaze = new EntityBlaze(world);
-
-                int randomX = pos.getX() + rand.nextInt(-5, 5);
-                int randomY = pos.getY() + rand.nextInt(0, 1);
-                int randomZ = pos.getZ() + rand.nextInt(-5, 5);
-                blaze.setLocationAndAngles(randomX, randomY, randomZ, 0, 0);
-
-                world.spawnEntity(blaze);
-            }
-            ticks = 0;
+    public void schedule(TrialScheduler scheduler) {
+        // Once every 15 seconds
+        every(scheduler, 300, this::spawnBlaze);
+    }
+
+    private void spawnBlaze() {
+        // 34% chance
+        ThreadLocalRandom rand = ThreadLocalRandom.current();
+        if (rand.nextInt(1, 100) > 66) {
+            EntityBlaze blaze = new EntityBlaze(world);
+
+            BlockPos spawnPos = getSpawnPos(rand);
+            blaze.setLocationAndAngles(spawnPos.getX() + 0.5, spawnPos.getY(), spawnPos.getZ() + 0.5, 0, 0);
+
+            world.spawnEntity(blaze);
         }
     }
 }
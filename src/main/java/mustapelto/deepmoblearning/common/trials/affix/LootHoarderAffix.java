@@ -1,6 +1,8 @@
 package mustapelto.deepmoblearning.common.trials.affix;
 
 import mustapelto.deepmoblearning.DMLConstants;
+import mustapelto.deepmoblearning.common.trials.TrialMobRegistry;
+import mustapelto.deepmoblearning.common.trials.TrialScheduler;
 import net.minecraft.client.resources.I18n;
 import net.minecraft.entity.monster.EntityZombie;
 import net.minecraft.init.Items;
@@ -20,8 +22,6 @@ import java.util.concurrent.ThreadLocalRandom;
 
 public class LootHoarderAffix extends TrialAffix {
 
-    private int ticks = 0;
-
     public LootHoarderAffix() {
         super();
     }
@@ -41,38 +41,37 @@ public class LootHoarderAffix extends TrialAffix {
     }
 
     @Override
-    public void run() {
-        ticks++;
-        // Once every 15 seconds, 25% chance
-        if (ticks % 300 == 0) {
-            ThreadLocalRandom rand = ThreadLocalRandom.current();
-            if (rand.nextInt(1, 100) > 75) {
-                EntityZombie hoarder = new EntityZombie(world);
-                hoarder.setItemStackToSlot(EntityEquipmentSlot.HEAD, new ItemStack(Items.GOLDEN_HELMET));
-                hoarder.setCustomNameTag("Loot Hoarder");
-                hoarder.setChild(true);
-
-                int randomX = pos.getX() + rand.nextInt(-5, 5);
-                int randomY = pos.getY() + rand.nextInt(0, 1);
-                int randomZ = pos.getZ() + rand.nextInt(-5, 5);
+    public void schedule(TrialScheduler scheduler) {
+        // Once every 15 seconds
+        every(scheduler, 300, this::spawnHoarder);
+    }
 
-                hoarder.setLocationAndAngles(randomX, randomY, randomZ, 0, 0);
-                hoarder.getEntityData().setString(DMLConstants.Trials.TRIAL_AFFIX_CONNECTION, DMLConstants.Trials.Affix.LOOT_HOARDERS);
-                hoarder.enablePersistence();
+    private void spawnHoarder() {
+        // 25% chance
+        ThreadLocalRandom rand = ThreadLocalRandom.current();
+        if (rand.nextInt(1, 100) > 75) {
+            EntityZombie hoarder = new EntityZombie(world);
+            hoarder.setItemStackToSlot(EntityEquipmentSlot.HEAD, new ItemStack(Items.GOLDEN_HELMET));
+            hoarder.setCustomNameTag("Loot Hoarder");
+            hoarder.setChild(true);
 
-                // Get loot table
-                // todo constant?
-                LootTable table = world.getLootTableManager().getLootTableFromLocation(new ResourceLocation(DMLConstants.ModInfo.ID, "loot_hoarder"));
-                LootContext ctx = new LootContext.Builder((WorldServer) world).build();
-                List<ItemStack> looted = table.generateLootForPools(world.rand, ctx);
+            BlockPos spawnPos = getSpawnPos(rand);
+            hoarder.setLocationAndAngles(spawnPos.getX() + 0.5, spawnPos.getY(), spawnPos.getZ() + 0.5, 0, 0);
+            hoarder.getEntityData().setString(DMLConstants.Trials.TRIAL_AFFIX_CONNECTION, DMLConstants.Trials.Affix.LOOT_HOARDERS);
+            hoarder.enablePersistence();
 
-                if (looted.size() > 0) {
-                    hoarder.setHeldItem(EnumHand.MAIN_HAND, looted.get(0));
-                }
+            // Get loot table
+            // todo constant?
+            LootTable table = world.getLootTableManager().getLootTableFromLocation(new ResourceLocation(DMLConstants.ModInfo.ID, "loot_hoarder"));
+            LootContext ctx = new LootContext.Builder((WorldServer) world).build();
+            List<ItemStack> looted = table.generateLootForPools(world.rand, ctx);
 
-                world.spawnEntity(hoarder);
+            if (looted.size() > 0) {
+                hoarder.setHeldItem(EnumHand.MAIN_HAND, looted.get(0));
             }
-            ticks = 0;
+
+            world.spawnEntity(hoarder);
+            TrialMobRegistry.registerAffixMob(hoarder, DMLConstants.Trials.Affix.LOOT_HOARDERS);
         }
     }
 
@@ -1,6 +1,7 @@
 package mustapelto.deepmoblearning.common.trials.affix;
 
 import mustapelto.deepmoblearning.DMLConstants;
+import mustapelto.deepmoblearning.common.trials.TrialScheduler;
 import net.minecraft.client.resources.I18n;
 import net.minecraft.entity.projectile.EntityPotion;
 import net.minecraft.init.Items;
@@ -15,8 +16,6 @@ import java.util.concurrent.ThreadLocalRandom;
 
 public class RegenPartyAffix extends TrialAffix {
 
-    private int ticks = 0;
-
     public RegenPartyAffix() {
         super();
     }
@@ -36,25 +35,22 @@ public class RegenPartyAffix extends TrialAffix {
     }
 
     @Override
+    public void schedule(TrialScheduler scheduler) {
+        // Run once every 11 seconds
+        every(scheduler, 220, this::throwPotion);
+    }
+
     @SuppressWarnings("ConstantConditions")
-    public void run() {
-        ticks++;
-        // Run once every 16 seconds
-        if (ticks % 220 == 0) {
-            EntityPotion regenPot = new EntityPotion(world);
-            ItemStack lingeringPotion = new ItemStack(Items.LINGERING_POTION);
-            PotionUtils.addPotionToItemStack(lingeringPotion, PotionType.getPotionTypeForName("strong_regeneration"));
-            regenPot.setItem(lingeringPotion);
+    private void throwPotion() {
+        EntityPotion regenPot = new EntityPotion(world);
+        ItemStack lingeringPotion = new ItemStack(Items.LINGERING_POTION);
+        PotionUtils.addPotionToItemStack(lingeringPotion, PotionType.getPotionTypeForName("strong_regeneration"));
+        regenPot.setItem(lingeringPotion);
 
-            ThreadLocalRandom rand = ThreadLocalRandom.current();
-            int randomX = pos.getX() + rand.nextInt(-5, 5);
-            int randomY = pos.getY() + rand.nextInt(2, 9);
-            int randomZ = pos.getZ() + rand.nextInt(-5, 5);
-            regenPot.setLocationAndAngles(randomX, randomY, randomZ, 0 ,0);
+        BlockPos spawnPos = getAirSpawnPos(ThreadLocalRandom.current());
+        regenPot.setLocationAndAngles(spawnPos.getX() + 0.5, spawnPos.getY(), spawnPos.getZ() + 0.5, 0 ,0);
 
-            world.spawnEntity(regenPot);
-            ticks = 0;
-        }
+        world.spawnEntity(regenPot);
     }
 
     @Override
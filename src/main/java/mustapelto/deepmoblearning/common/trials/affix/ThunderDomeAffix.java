@@ -1,6 +1,7 @@
 package mustapelto.deepmoblearning.common.trials.affix;
 
 import mustapelto.deepmoblearning.DMLConstants;
+import mustapelto.deepmoblearning.common.trials.TrialScheduler;
 import net.minecraft.client.resources.I18n;
 import net.minecraft.entity.monster.EntityCreeper;
 import net.minecraft.entity.monster.EntityWitch;
@@ -14,9 +15,11 @@ import java.util.concurrent.ThreadLocalRandom;
 
 public class ThunderDomeAffix extends TrialAffix {
 
-    private int ticks = 0;
-    private final boolean wasRaining;
-    private final boolean wasThundering;
+    private static final String NBT_WAS_RAINING = "wasRaining";
+    private static final String NBT_WAS_THUNDERING = "wasThundering";
+
+    private boolean wasRaining;
+    private boolean wasThundering;
 
     public ThunderDomeAffix() {
         super();
@@ -41,46 +44,46 @@ public class ThunderDomeAffix extends TrialAffix {
     }
 
     @Override
-    public void run() {
-        // Do once every cycle, enable weather effects
-        if(ticks == 0) {
-            WorldInfo info = world.getWorldInfo();
-            info.setCleanWeatherTime(0);
-            info.setRaining(true);
-            info.setThundering(true);
-            info.setThunderTime(400); // 20 seconds
-            info.setRainTime(400); // 20 seconds
-        }
-
-        ticks++;
-
+    public void schedule(TrialScheduler scheduler) {
+        enableWeather();
         // Once every 15 seconds
-        if(ticks % 300 == 0) {
-            // 22% chance
-            ThreadLocalRandom rand = ThreadLocalRandom.current();
-            if (rand.nextInt(1, 100) < 22) {
-                int randomX = pos.getX() + rand.nextInt(-5, 5);
-                int randomY = pos.getY() + rand.nextInt(0, 1);
-                int randomZ = pos.getZ() + rand.nextInt(-5, 5);
-
-                if (rand.nextInt(1, 100) < 33) {
-                    EntityCreeper creeper = new EntityCreeper(world);
-                    creeper.setLocationAndAngles(randomX, randomY, randomZ, 0, 0);
-
-                    NBTTagCompound tag = new NBTTagCompound();
-                    tag = creeper.writeToNBT(tag);
-                    tag.setBoolean("powered", true);
-                    creeper.readEntityFromNBT(tag);
-
-                    world.spawnEntity(creeper);
-                } else {
-                    EntityWitch witch = new EntityWitch(world);
-                    witch.setLocationAndAngles(randomX, randomY, randomZ, 0, 0);
-                    world.spawnEntity(witch);
-                }
+        every(scheduler, 300, this::onCycle);
+    }
+
+    private void onCycle() {
+        // 22% chance
+        ThreadLocalRandom rand = ThreadLocalRandom.current();
+        if (rand.nextInt(1, 100) < 22) {
+            BlockPos spawnPos = getSpawnPos(rand);
+
+            if (rand.nextInt(1, 100) < 33) {
+                EntityCreeper creeper = new EntityCreeper(world);
+                creeper.setLocationAndAngles(spawnPos.getX() + 0.5, spawnPos.getY(), spawnPos.getZ() + 0.5, 0, 0);
+
+                NBTTagCompound tag = new NBTTagCompound();
+                tag = creeper.writeToNBT(tag);
+                tag.setBoolean("powered", true);
+                creeper.readEntityFromNBT(tag);
+
+                world.spawnEntity(creeper);
+            } else {
+                EntityWitch witch = new EntityWitch(world);
+                witch.setLocationAndAngles(spawnPos.getX() + 0.5, spawnPos.getY(), spawnPos.getZ() + 0.5, 0, 0);
+                world.spawnEntity(witch);
             }
-            ticks = 0;
         }
+
+        enableWeather();
+    }
+
+    // Do once every cycle, enable weather effects
+    private void enableWeather() {
+        WorldInfo info = world.getWorldInfo();
+        info.setCleanWeatherTime(0);
+        info.setRaining(true);
+        info.setThundering(true);
+        info.setThunderTime(400); // 20 seconds
+        info.setRainTime(400); // 20 seconds
     }
 
     @Override
@@ -92,6 +95,18 @@ public class ThunderDomeAffix extends TrialAffix {
         info.setThundering(wasThundering);
     }
 
+    @Override
+    public void writeToNBT(NBTTagCompound compound) {
+        compound.setBoolean(NBT_WAS_RAINING, wasRaining);
+        compound.setBoolean(NBT_WAS_THUNDERING, wasThundering);
+    }
+
+    @Override
+    public void readFromNBT(NBTTagCompound compound) {
+        wasRaining = compound.getBoolean(NBT_WAS_RAINING);
+        wasThundering = compound.getBoolean(NBT_WAS_THUNDERING);
+    }
+
     @Override
     public String getAffixName() {
         return TextFormatting.BLUE + I18n.format("deepmoblearning.affix.thunderdome.name") + TextFormatting.RESET;
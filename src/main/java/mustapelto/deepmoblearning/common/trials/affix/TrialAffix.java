@@ -1,16 +1,30 @@
 package mustapelto.deepmoblearning.common.trials.affix;
 
 import mustapelto.deepmoblearning.common.entities.EntityGlitch;
+import mustapelto.deepmoblearning.common.trials.TrialScheduler;
+import mustapelto.deepmoblearning.common.trials.TrialSpawnPoints;
 import net.minecraft.entity.EntityLiving;
+import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 public abstract class TrialAffix {
 
+    private static final String NBT_SCHEDULE = "schedule";
+
     protected BlockPos pos;
     protected World world;
+    @Nullable protected TrialSpawnPoints spawnPoints; // Set by the running Trial
+
+    private final List<TrialScheduler.Task> tasks = new ArrayList<>();
+    @Nullable private int[] savedDelays; // Loaded schedule state, applied when tasks are registered
 
     public TrialAffix() {
     }
@@ -22,13 +36,50 @@ public abstract class TrialAffix {
 
     public abstract TrialAffix copy(BlockPos pos, World world);
 
+    public void setSpawnPoints(TrialSpawnPoints spawnPoints) {
+        this.spawnPoints = spawnPoints;
+    }
+
+    /**
+     * @return Position at arena floor level where a mob fits
+     */
+    protected BlockPos getSpawnPos(Random rand) {
+        if (spawnPoints != null)
+            return spawnPoints.getGroundPoint(rand);
+        return pos.add(rand.nextInt(10) - 5, 0, rand.nextInt(10) - 5);
+    }
+
+    /**
+     * @return Free position above the arena floor
+     */
+    protected BlockPos getAirSpawnPos(Random rand) {
+        if (spawnPoints != null)
+            return spawnPoints.getAirPoint(rand);
+        return pos.add(rand.nextInt(10) - 5, 2 + rand.nextInt(7), rand.nextInt(10) - 5);
+    }
+
     public abstract String getId();
 
     @SideOnly(Side.CLIENT)
     public abstract String getAffixName();
 
-    // Run will run every update tick from the Trial Keystone, it's up to the implementing class to stagger this to avoid performance issues.
-    public void run() {
+    /**
+     * Register timed callbacks with the Trial's scheduler (see every).
+     * Called once on the server when the affix becomes part of a running Trial.
+     */
+    public void schedule(TrialScheduler scheduler) {
+    }
+
+    /**
+     * Run action every period ticks while the Trial is running. Resumes with the saved delay after a reload.
+     */
+    protected final void every(TrialScheduler scheduler, int period, Runnable action) {
+        int index = tasks.size();
+        int delay = 0;
+        if (savedDelays != null && index < savedDelays.length)
+            delay = savedDelays[index];
+
+        tasks.add(delay > 0 ? scheduler.schedule(period, delay, action) : scheduler.schedule(period, action));
     }
 
     public void cleanUp() {
@@ -39,4 +90,20 @@ public abstract class TrialAffix {
 
     public void applyToGlitch(EntityGlitch entity) {
     }
+
+    // Save and restore run state (e.g. weather), so a running Trial can resume after a reload.
+    public void writeToNBT(NBTTagCompound compound) {
+    }
+
+    public void readFromNBT(NBTTagCompound compound) {
+    }
+
+    // Save and restore delays of scheduled callbacks
+    public final void writeScheduleToNBT(NBTTagCompound compound) {
+        compound.setIntArray(NBT_SCHEDULE, tasks.stream().mapToInt(TrialScheduler.Task::getRemaining).toArray());
+    }
+
+    public final void readScheduleFromNBT(NBTTagCompound compound) {
+        savedDelays = compound.hasKey(NBT_SCHEDULE) ? compound.getIntArray(NBT_SCHEDULE) : null;
+    }
 }
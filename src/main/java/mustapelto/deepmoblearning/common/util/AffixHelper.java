@@ -1,20 +1,28 @@
 package mustapelto.deepmoblearning.common.util;
 
 import com.google.common.collect.ImmutableList;
+import mustapelto.deepmoblearning.common.DMLConfig;
 import mustapelto.deepmoblearning.common.trials.affix.*;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
-import javax.annotation.Nullable;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static mustapelto.deepmoblearning.DMLConstants.Trials.Affix;
 
 public class AffixHelper {
 
-    private static final Map<String, TrialAffix> AFFIXES = new HashMap<>();
+    private static final Map<String, TrialAffix> AFFIXES = new LinkedHashMap<>();
+
+    // Affix pool for random selection (only affixes with weight > 0), rebuilt on registration and config change
+    private static String[] poolKeys = new String[0];
+    private static int[] poolWeights = new int[0];
+    private static int poolTotalWeight = 0;
+    private static boolean poolUniform = true;
+    private static int[] poolSwaps = new int[0]; // Swap targets of the current selection, used to restore pool order
 
     public static void registerAffixes() {
         registerAffix(Affix.BLAZE_INVADERS, new BlazeInvadersAffix());
@@ -28,6 +36,7 @@ public class AffixHelper {
 
     public static void registerAffix(String key, TrialAffix affix) {
         AFFIXES.put(key, affix);
+        updateAffixPool();
     }
 
     @SuppressWarnings("unchecked")
@@ -37,24 +46,86 @@ public class AffixHelper {
         return (T) affixTemplate.copy(pos, world);
     }
 
-    @Nullable
-    public static String getRandomAffixKey(ImmutableList<String> excluding) {
-        String[] keyList = AFFIXES.keySet().toArray(new String[0]);
+    /**
+     * Rebuild the selection pool from registered affixes and configured weights
+     */
+    public static synchronized void updateAffixPool() {
+        Map<String, Integer> configWeights = DMLConfig.TRIAL_SETTINGS.AFFIX_WEIGHTS;
+        String[] keys = new String[AFFIXES.size()];
+        int[] weights = new int[AFFIXES.size()];
+        int size = 0;
+        int total = 0;
+        boolean uniform = true;
 
-        String key = keyList[new Random().nextInt(keyList.length)];
-        boolean keyIsExcluded = excluding.contains(key);
-        int length = keyList.length;
+        for (String key : AFFIXES.keySet()) {
+            int weight = Math.max(0, configWeights.getOrDefault(key, 1));
+            if (weight == 0)
+                continue; // Disabled
 
-        if (excluding.size() >= length) {
-            return null;
+            if (size > 0 && weight != weights[0])
+                uniform = false;
+            keys[size] = key;
+            weights[size] = weight;
+            size++;
+            total += weight;
         }
 
-        while (keyIsExcluded) {
-            key = keyList[new Random().nextInt(keyList.length)];
-            if(!excluding.contains(key)) {
-                keyIsExcluded = false;
+        poolKeys = Arrays.copyOf(keys, size);
+        poolWeights = Arrays.copyOf(weights, size);
+        poolTotalWeight = total;
+        poolUniform = uniform;
+        poolSwaps = new int[size];
+    }
+
+    /**
+     * Pick distinct random affixes by partial Fisher-Yates shuffle of the affix pool, in place.
+     * With configured weights, each pick chooses among the remaining affixes proportional to their weight.
+     * The swaps are undone afterwards, so the pool keeps its order and nothing is copied.
+     * @return count distinct affix keys (fewer if the pool is smaller)
+     */
+    public static synchronized ImmutableList<String> getRandomAffixKeys(int count) {
+        int size = poolKeys.length;
+        count = Math.min(count, size);
+        if (count <= 0)
+            return ImmutableList.of();
+
+        ThreadLocalRandom rand = ThreadLocalRandom.current();
+        ImmutableList.Builder<String> builder = ImmutableList.builder();
+        int remainingWeight = poolTotalWeight;
+
+        for (int i = 0; i < count; i++) {
+            int picked;
+            if (poolUniform) {
+                picked = rand.nextInt(i, size);
+            } else {
+                int roll = rand.nextInt(remainingWeight);
+                picked = i;
+                while (roll >= poolWeights[picked]) {
+                    roll -= poolWeights[picked];
+                    picked++;
+                }
+                remainingWeight -= poolWeights[picked];
             }
+
+            swapPoolEntries(i, picked);
+            poolSwaps[i] = picked;
+            builder.add(poolKeys[i]);
         }
-        return key;
+
+        for (int i = count - 1; i >= 0; i--) {
+            swapPoolEntries(i, poolSwaps[i]);
+        }
+
+        return builder.build();
+    }
+
+    private static void swapPoolEntries(int i, int j) {
+        String key = poolKeys[i];
+        poolKeys[i] = poolKeys[j];
+        poolKeys[j] = key;
+
+        int weight = poolWeights[i];
+        poolWeights[i] = poolWeights[j];
+        poolWeights[j] = weight;
     }
 }
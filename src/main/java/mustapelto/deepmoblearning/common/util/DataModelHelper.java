@@ -6,6 +6,7 @@ import mustapelto.deepmoblearning.common.items.ItemDeepLearner;
 import mustapelto.deepmoblearning.common.metadata.MetadataDataModel;
 import mustapelto.deepmoblearning.common.metadata.MetadataDataModelTier;
 import mustapelto.deepmoblearning.common.metadata.MetadataManager;
+import mustapelto.deepmoblearning.common.world.LegacyDataMigration;
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.NonNullList;
@@ -36,6 +37,19 @@ public class DataModelHelper {
                 NBTHelper.hasKey(stack, NBT_LEGACY_SIMULATION_COUNT);
     }
 
+    /**
+     * Convert legacy (original DML) NBT of a Data Model stack, if present
+     * @param stack Data Model stack
+     * @return true if stack NBT was changed
+     */
+    public static boolean migrateLegacyNBT(ItemStack stack) {
+        if (!ItemStackHelper.isDataModel(stack) || !isLegacyNBT(stack))
+            return false;
+
+        convertLegacyNBT(stack);
+        return true;
+    }
+
     private static void convertLegacyNBT(ItemStack stack) {
         int currentSimulations = NBTHelper.getInteger(stack, NBT_LEGACY_SIMULATION_COUNT);
         int currentKills = NBTHelper.getInteger(stack, NBT_LEGACY_KILL_COUNT);
@@ -43,8 +57,7 @@ public class DataModelHelper {
         NBTHelper.removeKey(stack, NBT_LEGACY_SIMULATION_COUNT);
         NBTHelper.removeKey(stack, NBT_LEGACY_KILL_COUNT);
 
-        Optional<MetadataDataModelTier> tierData = getTierData(stack);
-        int killMultiplier = tierData.map(MetadataDataModelTier::getKillMultiplier).orElse(0);
+        int killMultiplier = getTierKillMultiplier(stack);
         int currentData = currentSimulations + currentKills * killMultiplier;
 
         NBTHelper.setInteger(stack, NBT_DATA_COUNT, currentData);
@@ -55,16 +68,10 @@ public class DataModelHelper {
             return -1;
 
         int tier = NBTHelper.getInteger(stack, NBT_TIER);
-        int minTier = MetadataManager.getMinDataModelTier();
-        int maxTier = MetadataManager.getMaxDataModelTier();
-        if (tier < minTier) {
-            tier = minTier;
-            setTierLevel(stack, tier);
-        } else if (tier > maxTier) {
-            tier = maxTier;
-            setTierLevel(stack, tier);
-        }
-        return tier;
+        int clampedTier = MetadataManager.getDataModelTierTable().clamp(tier);
+        if (clampedTier != tier)
+            setTierLevel(stack, clampedTier);
+        return clampedTier;
     }
 
     public static void setTierLevel(ItemStack stack, int level) {
@@ -72,7 +79,8 @@ public class DataModelHelper {
     }
 
     public static int getCurrentTierDataCount(ItemStack stack) {
-        if (isLegacyNBT(stack))
+        // Migrated worlds can't contain legacy stacks -> skip the probe
+        if (!LegacyDataMigration.isWorldMigrated() && isLegacyNBT(stack))
             convertLegacyNBT(stack);
         return NBTHelper.getInteger(stack, NBT_DATA_COUNT);
     }
@@ -135,9 +143,7 @@ public class DataModelHelper {
      * @return true if Data Model can be used in a Simulation Chamber
      */
     public static boolean canSimulate(ItemStack stack) {
-        return getTierData(stack)
-                .map(MetadataDataModelTier::getCanSimulate)
-                .orElse(false);
+        return MetadataManager.getDataModelTierTable().canSimulate(getTier(stack));
     }
 
     public static String getTierDisplayNameFormatted(ItemStack stack) {
@@ -153,15 +159,11 @@ public class DataModelHelper {
     }
 
     public static int getTierRequiredData(ItemStack stack) {
-        return getTierData(stack)
-                .map(MetadataDataModelTier::getDataToNext)
-                .orElse(0);
+        return MetadataManager.getDataModelTierTable().getDataToNext(getTier(stack));
     }
 
     public static int getTierKillMultiplier(ItemStack stack) {
-        return getTierData(stack)
-                .map(MetadataDataModelTier::getKillMultiplier)
-                .orElse(0);
+        return MetadataManager.getDataModelTierTable().getKillMultiplier(getTier(stack));
     }
 
     public static int getKillsToNextTier(ItemStack stack) {
@@ -179,9 +181,7 @@ public class DataModelHelper {
     }
 
     public static int getPristineChance(ItemStack stack) {
-        return getTierData(stack)
-                .map(MetadataDataModelTier::getPristineChance)
-                .orElse(0);
+        return MetadataManager.getDataModelTierTable().getPristineChance(getTier(stack));
     }
 
     public static boolean getDataModelMatchesLivingMatter(ItemStack dataModel, ItemStack livingMatter) {
@@ -1,6 +1,7 @@
 package mustapelto.deepmoblearning.common.util;
 
 import mustapelto.deepmoblearning.DMLConstants;
+import mustapelto.deepmoblearning.common.trials.TrialMobRegistry;
 import mustapelto.deepmoblearning.common.trials.affix.TrialAffix;
 import net.minecraft.entity.EntityLiving;
 import net.minecraft.entity.player.EntityPlayer;
@@ -9,23 +10,22 @@ import net.minecraft.world.World;
 
 import javax.annotation.Nullable;
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
 
 public class EntityHelper {
 
-    public static void spawnTrialMob(@Nullable EntityLiving entity, World world, BlockPos pos, List<TrialAffix> affixes) {
-        if (entity == null) return;
-        ThreadLocalRandom rand = ThreadLocalRandom.current();
+    /**
+     * @param pos Position of the Trial Keystone
+     * @param spawnPos Position to spawn at (from the Trial's spawn points)
+     * @param target Participant assigned as attack target
+     * @return true if the mob was spawned (and registered as Trial mob)
+     */
+    public static boolean spawnTrialMob(@Nullable EntityLiving entity, World world, BlockPos pos, BlockPos spawnPos, @Nullable EntityPlayer target, List<TrialAffix> affixes) {
+        if (entity == null) return false;
 
-        int randomX = pos.getX() + rand.nextInt(-5, 5);
-        int randomY = pos.getY() + rand.nextInt(0, 1);
-        int randomZ = pos.getZ() + rand.nextInt(-5, 5);
-
-        entity.setLocationAndAngles(randomX, randomY, randomZ, 0 ,0);
+        entity.setLocationAndAngles(spawnPos.getX() + 0.5, spawnPos.getY(), spawnPos.getZ() + 0.5, 0 ,0);
         entity.getEntityData().setLong(DMLConstants.Trials.TRIAL_KEYSTONE_POS, pos.toLong());
         entity.enablePersistence();
 
-        EntityPlayer target = entity.world.getNearestAttackablePlayer(entity.getPosition(), 32, 5);
         if(target != null && target.isEntityAlive()) {
             entity.setAttackTarget(target);
         }
@@ -33,6 +33,10 @@ public class EntityHelper {
         affixes.forEach(affix -> affix.apply(entity));
 
         // Do not spawn them all at once (once every 2 sec atm)
-        world.spawnEntity(entity);
+        if (!world.spawnEntity(entity))
+            return false; // Spawn was cancelled (e.g. by another mod)
+
+        TrialMobRegistry.registerWaveMob(entity, pos);
+        return true;
     }
 }
@@ -0,0 +1,64 @@
+package mustapelto.deepmoblearning.common.util;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+
+import javax.annotation.Nullable;
+import java.util.Objects;
+
+/**
+ * Hashable identity of an ItemStack (item, metadata, NBT), ignoring stack size.
+ * Stacks with the same key can be merged.
+ */
+public final class ItemStackKey {
+    private final Item item;
+    private final int meta;
+    @Nullable
+    private final NBTTagCompound nbt;
+    private final int hash;
+
+    private ItemStackKey(Item item, int meta, @Nullable NBTTagCompound nbt) {
+        this.item = item;
+        this.meta = meta;
+        this.nbt = nbt;
+        this.hash = Objects.hash(item, meta, nbt);
+    }
+
+    public static ItemStackKey of(ItemStack stack) {
+        NBTTagCompound nbt = stack.getTagCompound();
+        return new ItemStackKey(stack.getItem(), stack.getMetadata(), (nbt != null) ? nbt.copy() : null);
+    }
+
+    /**
+     * Key for a single map lookup. Shares the stack's NBT, so it must not be stored.
+     */
+    public static ItemStackKey lookup(ItemStack stack) {
+        return new ItemStackKey(stack.getItem(), stack.getMetadata(), stack.getTagCompound());
+    }
+
+    /**
+     * Allocation-free comparison with a stack
+     * @return true if stack has the same item, metadata and NBT as this key
+     */
+    public boolean matches(ItemStack stack) {
+        return !stack.isEmpty() && stack.getItem() == item && stack.getMetadata() == meta
+                && Objects.equals(stack.getTagCompound(), nbt);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof ItemStackKey))
+            return false;
+
+        ItemStackKey other = (ItemStackKey) obj;
+        return hash == other.hash && item == other.item && meta == other.meta && Objects.equals(nbt, other.nbt);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
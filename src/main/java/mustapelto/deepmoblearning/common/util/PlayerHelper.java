@@ -12,8 +12,9 @@ import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Player-related helper methods
@@ -21,6 +22,7 @@ import java.util.Set;
 public class PlayerHelper {
     /**
      * Get all living players in target area (square).
+     * Walks the world's player list instead of querying entities by chunk, as players are few and areas are large.
      * @param world World to look in
      * @param center Center coordinates of target area
      * @param radius "Radius" (i.e. half side length; blocks) of target area
@@ -29,14 +31,17 @@ public class PlayerHelper {
      * @return List of all living players in target area
      */
     public static List<EntityPlayerMP> getLivingPlayersInArea(World world, BlockPos center, int radius, int height, int offsetY) {
-        return world.getEntitiesWithinAABB(
-                EntityPlayerMP.class,
-                new AxisAlignedBB(
-                        center.getX() - radius, center.getY() + offsetY, center.getZ() - radius,
-                        center.getX() + radius, center.getY() + offsetY + height, center.getZ() + radius
-                ),
-                p -> !p.isDead
+        AxisAlignedBB area = new AxisAlignedBB(
+                center.getX() - radius, center.getY() + offsetY, center.getZ() - radius,
+                center.getX() + radius, center.getY() + offsetY + height, center.getZ() + radius
         );
+
+        List<EntityPlayerMP> players = new ArrayList<>();
+        for (EntityPlayer player : world.playerEntities) {
+            if (player instanceof EntityPlayerMP && !player.isDead && player.getEntityBoundingBox().intersects(area))
+                players.add((EntityPlayerMP) player);
+        }
+        return players;
     }
 
     /**
@@ -71,7 +76,7 @@ public class PlayerHelper {
         cap.sync(player);
     }
 
-    public static void updateTrialCapability(Set<EntityPlayerMP> players, int waveMobTotal, int currentWave, int mobsDefeated, int lastWave, BlockPos pos, boolean active) {
+    public static void updateTrialCapability(Collection<EntityPlayerMP> players, int waveMobTotal, int currentWave, int mobsDefeated, int lastWave, BlockPos pos, boolean active) {
         players.forEach(p -> updateTrialCapability(p, waveMobTotal, currentWave, mobsDefeated, lastWave, pos, active));
     }
 
@@ -7,6 +7,7 @@ import mustapelto.deepmoblearning.common.DMLRegistry;
 import mustapelto.deepmoblearning.common.metadata.MetadataDataModel;
 import mustapelto.deepmoblearning.common.trials.AttunementData;
 import mustapelto.deepmoblearning.common.trials.affix.TrialAffix;
+import mustapelto.deepmoblearning.common.world.LegacyDataMigration;
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
@@ -59,6 +60,13 @@ public class TrialKeyHelper {
         return (result != null) ? Optional.of(result) : Optional.empty();
     }
 
+    /**
+     * Drop cached Attunement Data (e.g. after a metadata reload)
+     */
+    public static void clearAttunementCache() {
+        attunementDataCache.clear();
+    }
+
     public static ImmutableList<TrialAffix> getAffixes(ItemStack trialKey, BlockPos pos, World world) {
         ImmutableList<String> affixKeys = getAffixList(trialKey);
         return affixKeys.stream()
@@ -114,13 +122,26 @@ public class TrialKeyHelper {
         if (!ItemStackHelper.isTrialKey(trialKey))
             return Optional.empty();
 
-        if (NBTHelper.hasKey(trialKey, NBT_LEGACY_MOB_KEY))
+        if (!LegacyDataMigration.isWorldMigrated() && NBTHelper.hasKey(trialKey, NBT_LEGACY_MOB_KEY))
             convertNBT(trialKey);
 
         String attunement = NBTHelper.getString(trialKey, NBT_ATTUNEMENT);
         return !attunement.isEmpty() ? Optional.of(attunement) : Optional.empty();
     }
 
+    /**
+     * Convert legacy (original DML) NBT of a Trial Key stack, if present
+     * @param trialKey Trial Key stack
+     * @return true if stack NBT was changed
+     */
+    public static boolean migrateLegacyNBT(ItemStack trialKey) {
+        if (!ItemStackHelper.isTrialKey(trialKey) || !NBTHelper.hasKey(trialKey, NBT_LEGACY_MOB_KEY))
+            return false;
+
+        convertNBT(trialKey);
+        return true;
+    }
+
     private static void convertNBT(ItemStack stack) {
         String mobKey = NBTHelper.getString(stack, NBT_LEGACY_MOB_KEY);
         NBTHelper.setString(stack, NBT_ATTUNEMENT, mobKey);
@@ -0,0 +1,56 @@
+package mustapelto.deepmoblearning.common.world;
+
+import mustapelto.deepmoblearning.DMLConstants;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.world.World;
+import net.minecraft.world.storage.MapStorage;
+import net.minecraft.world.storage.WorldSavedData;
+
+/**
+ * Global (per save) mod data, stored in the overworld's map storage
+ */
+public class DMLWorldData extends WorldSavedData {
+    private static final String DATA_NAME = DMLConstants.ModInfo.ID;
+
+    private int dataVersion = 0; // Version of the mod's NBT layout all stored data has been converted to
+
+    public DMLWorldData(String name) {
+        super(name);
+    }
+
+    public static DMLWorldData get(World world) {
+        MapStorage storage = world.getMapStorage();
+        DMLWorldData data = (DMLWorldData) storage.getOrLoadData(DMLWorldData.class, DATA_NAME);
+        if (data == null) {
+            data = new DMLWorldData(DATA_NAME);
+            storage.setData(DATA_NAME, data);
+        }
+        return data;
+    }
+
+    public int getDataVersion() {
+        return dataVersion;
+    }
+
+    public void setDataVersion(int dataVersion) {
+        this.dataVersion = dataVersion;
+        markDirty();
+    }
+
+    //
+    // NBT
+    //
+
+    private static final String NBT_DATA_VERSION = "dataVersion";
+
+    @Override
+    public void readFromNBT(NBTTagCompound nbt) {
+        dataVersion = nbt.getInteger(NBT_DATA_VERSION);
+    }
+
+    @Override
+    public NBTTagCompound writeToNBT(NBTTagCompound compound) {
+        compound.setInteger(NBT_DATA_VERSION, dataVersion);
+        return compound;
+    }
+}
@@ -0,0 +1,401 @@
+package mustapelto.deepmoblearning.common.world;
+
+import mustapelto.deepmoblearning.DMLConstants;
+import mustapelto.deepmoblearning.DMLRelearned;
+import mustapelto.deepmoblearning.common.items.ItemDeepLearner;
+import mustapelto.deepmoblearning.common.tiles.TileEntityBase;
+import mustapelto.deepmoblearning.common.util.DataModelHelper;
+import mustapelto.deepmoblearning.common.util.ItemStackHelper;
+import mustapelto.deepmoblearning.common.util.TrialKeyHelper;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.item.EntityItem;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.inventory.IInventory;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.NonNullList;
+import net.minecraft.util.text.TextComponentTranslation;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.gen.ChunkProviderServer;
+import net.minecraftforge.common.DimensionManager;
+import net.minecraftforge.common.util.Constants;
+import net.minecraftforge.items.CapabilityItemHandler;
+import net.minecraftforge.items.IItemHandler;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One-time conversion of NBT written by the original Deep Mob Learning into the current layout.
+ *
+ * Legacy data is converted as it is encountered (chunk load, player login, and when items and machines read their NBT).
+ * The "/dml migrate" command converts all saved chunks of all registered dimensions in the background, including stacks
+ * nested in other items (shulker boxes, items with an item handler), and then marks the world as migrated.
+ * After that, the lazy conversion on chunk load and NBT read is skipped.
+ */
+public class LegacyDataMigration {
+    public static final int DATA_VERSION = 1;
+
+    private static final String NBT_PLAYER_DATA_VERSION = DMLConstants.ModInfo.ID + ":dataVersion";
+    private static final int CHUNKS_PER_TICK = 16;
+    private static final int REGION_SIZE = 32; // Chunks per region file side
+    private static final Pattern REGION_FILE_PATTERN = Pattern.compile("^r\\.(-?\\d+)\\.(-?\\d+)\\.mca$");
+
+    // Vanilla NBT keys of inventories stored in item NBT
+    private static final String NBT_BLOCK_ENTITY_TAG = "BlockEntityTag";
+    private static final String NBT_ITEMS = "Items";
+    private static final String NBT_SLOT = "Slot";
+
+    private static boolean worldMigrated = false;
+    @Nullable
+    private static MigrationJob migrationJob = null;
+
+    /**
+     * @return true if the loaded world cannot contain legacy data anymore ("/dml migrate" has finished, or the world
+     * was created without legacy data)
+     */
+    public static boolean isWorldMigrated() {
+        return worldMigrated;
+    }
+
+    public static boolean isMigrationRunning() {
+        return migrationJob != null;
+    }
+
+    //
+    // World State
+    //
+
+    public static void onOverworldLoaded(WorldServer world) {
+        DMLWorldData data = DMLWorldData.get(world);
+
+        // Freshly created worlds never contained legacy data
+        if (data.getDataVersion() < DATA_VERSION && world.getTotalWorldTime() == 0)
+            data.setDataVersion(DATA_VERSION);
+
+        worldMigrated = data.getDataVersion() >= DATA_VERSION;
+    }
+
+    public static void onOverworldUnloaded() {
+        worldMigrated = false;
+        if (migrationJob != null)
+            migrationJob.releaseDimensions();
+        migrationJob = null;
+    }
+
+    //
+    // Migration
+    //
+
+    /**
+     * Convert legacy NBT on a single stack, including stacks nested in it (Deep Learner contents, shulker boxes and
+     * other items that store an inventory)
+     * @param stack Stack to convert
+     * @return true if stack NBT was changed
+     */
+    public static boolean migrateStack(ItemStack stack) {
+        if (stack.isEmpty())
+            return false;
+
+        if (ItemStackHelper.isDeepLearner(stack)) {
+            NonNullList<ItemStack> contents = ItemDeepLearner.getContainedItems(stack);
+            boolean changed = false;
+            for (ItemStack contained : contents) {
+                changed |= migrateStack(contained);
+            }
+            if (changed)
+                ItemDeepLearner.setContainedItems(stack, contents);
+            return changed;
+        }
+
+        if (DataModelHelper.migrateLegacyNBT(stack) || TrialKeyHelper.migrateLegacyNBT(stack))
+            return true;
+
+        return migrateNestedStacks(stack);
+    }
+
+    /**
+     * Convert stacks stored inside another item: block entity inventories kept in item NBT (shulker boxes, picked
+     * chests) and inventories exposed as item handler capability (backpacks)
+     */
+    private static boolean migrateNestedStacks(ItemStack stack) {
+        boolean changed = false;
+
+        NBTTagCompound blockEntityTag = stack.getSubCompound(NBT_BLOCK_ENTITY_TAG);
+        if (blockEntityTag != null && blockEntityTag.hasKey(NBT_ITEMS, Constants.NBT.TAG_LIST))
+            changed = migrateStackList(blockEntityTag.getTagList(NBT_ITEMS, Constants.NBT.TAG_COMPOUND));
+
+        if (stack.hasCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, null)) {
+            IItemHandler handler = stack.getCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, null);
+            if (handler != null)
+                changed |= migrateItemHandler(handler);
+        }
+
+        return changed;
+    }
+
+    /**
+     * Convert stacks saved as a list of compounds (with slot index), writing changed stacks back into the list
+     */
+    private static boolean migrateStackList(NBTTagList list) {
+        boolean changed = false;
+        for (int i = 0; i < list.tagCount(); i++) {
+            NBTTagCompound stackTag = list.getCompoundTagAt(i);
+            ItemStack nested = new ItemStack(stackTag);
+            if (!migrateStack(nested))
+                continue;
+
+            NBTTagCompound migratedTag = nested.writeToNBT(new NBTTagCompound());
+            if (stackTag.hasKey(NBT_SLOT))
+                migratedTag.setTag(NBT_SLOT, stackTag.getTag(NBT_SLOT).copy());
+            list.set(i, migratedTag);
+            changed = true;
+        }
+        return changed;
+    }
+
+    private static boolean migrateInventory(IInventory inventory) {
+        boolean changed = false;
+        for (int i = 0; i < inventory.getSizeInventory(); i++) {
+            changed |= migrateStack(inventory.getStackInSlot(i));
+        }
+        return changed;
+    }
+
+    private static boolean migrateItemHandler(IItemHandler handler) {
+        boolean changed = false;
+        for (int i = 0; i < handler.getSlots(); i++) {
+            changed |= migrateStack(handler.getStackInSlot(i)); // Stack is converted in place
+        }
+        return changed;
+    }
+
+    /**
+     * Convert legacy NBT in a player's inventory and ender chest. Runs only once per player.
+     */
+    public static void migratePlayer(EntityPlayer player) {
+        NBTTagCompound persistedData = player.getEntityData().getCompoundTag(EntityPlayer.PERSISTED_NBT_TAG);
+        if (persistedData.getInteger(NBT_PLAYER_DATA_VERSION) >= DATA_VERSION)
+            return;
+
+        boolean changed = migrateInventory(player.inventory);
+        changed |= migrateInventory(player.getInventoryEnderChest());
+        if (changed)
+            player.inventoryContainer.detectAndSendChanges();
+
+        persistedData.setInteger(NBT_PLAYER_DATA_VERSION, DATA_VERSION);
+        player.getEntityData().setTag(EntityPlayer.PERSISTED_NBT_TAG, persistedData);
+    }
+
+    /**
+     * Convert legacy NBT of all TileEntities and dropped items in a chunk
+     */
+    public static void migrateChunk(Chunk chunk) {
+        boolean changed = false;
+
+        for (TileEntity tileEntity : chunk.getTileEntityMap().values()) {
+            changed |= migrateTileEntity(tileEntity);
+        }
+
+        for (Collection<Entity> entities : chunk.getEntityLists()) {
+            for (Entity entity : entities) {
+                if (entity instanceof EntityItem)
+                    changed |= migrateStack(((EntityItem) entity).getItem());
+            }
+        }
+
+        if (changed)
+            chunk.markDirty();
+    }
+
+    private static boolean migrateTileEntity(TileEntity tileEntity) {
+        boolean changed = false;
+
+        // Own machines: re-save if read from legacy layout
+        if (tileEntity instanceof TileEntityBase)
+            changed = ((TileEntityBase) tileEntity).consumeLegacyDataLoaded();
+
+        // Any inventory (own machines, chests, ...) might contain legacy items
+        if (tileEntity.hasCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, null)) {
+            IItemHandler handler = tileEntity.getCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, null);
+            if (handler != null)
+                changed |= migrateItemHandler(handler);
+        } else if (tileEntity instanceof IInventory) {
+            changed |= migrateInventory((IInventory) tileEntity);
+        }
+
+        if (changed)
+            tileEntity.markDirty();
+
+        return changed;
+    }
+
+    //
+    // Offline Conversion
+    //
+
+    /**
+     * Start converting all saved chunks of all registered dimensions (static and mod-registered ones alike)
+     * @return false if world is already migrated or a conversion is already running
+     */
+    public static boolean startMigration(MinecraftServer server, ICommandSender sender) {
+        if (worldMigrated || migrationJob != null)
+            return false;
+
+        migrationJob = new MigrationJob(sender);
+        for (Set<Integer> dimensions : DimensionManager.getRegisteredDimensions().values()) {
+            for (int dimension : dimensions) {
+                migrationJob.addDimension(server, dimension);
+            }
+        }
+
+        for (EntityPlayer player : server.getPlayerList().getPlayers()) {
+            migratePlayer(player);
+        }
+
+        DMLRelearned.logger.info("Starting legacy data migration of {} region files", migrationJob.getRegionCount());
+        return true;
+    }
+
+    /**
+     * Process part of a running conversion. Called at the end of every server tick.
+     */
+    public static void tick(MinecraftServer server) {
+        if (migrationJob == null)
+            return;
+
+        if (!migrationJob.process(CHUNKS_PER_TICK))
+            return;
+
+        migrationJob.releaseDimensions();
+        DMLWorldData.get(server.getWorld(0)).setDataVersion(DATA_VERSION);
+        worldMigrated = true;
+
+        DMLRelearned.logger.info("Legacy data migration finished, {} chunks converted", migrationJob.getChunkCount());
+        migrationJob.sender.sendMessage(new TextComponentTranslation("deepmoblearning.command.migrate.finished", migrationJob.getChunkCount()));
+        migrationJob = null;
+    }
+
+    private static class MigrationJob {
+        private final ICommandSender sender;
+        private final Deque<Region> regions = new ArrayDeque<>();
+        private final List<Integer> keptDimensions = new ArrayList<>(); // Dimensions held loaded until the job is done
+        private int chunkIndex = 0; // Index of next chunk inside current region
+        private int chunkCount = 0;
+
+        private MigrationJob(ICommandSender sender) {
+            this.sender = sender;
+        }
+
+        /**
+         * Queue all region files of a dimension. Dimensions that aren't loaded are loaded and kept loaded until the
+         * job is done, so their chunks can be read.
+         */
+        private void addDimension(MinecraftServer server, int dimension) {
+            // Loads the dimension if necessary
+            WorldServer world = server.getWorld(dimension);
+            if (world == null)
+                return;
+
+            File[] regionFiles = new File(world.getChunkSaveLocation(), "region").listFiles();
+            if (regionFiles == null)
+                return;
+
+            boolean queued = false;
+            for (File file : regionFiles) {
+                Matcher matcher = REGION_FILE_PATTERN.matcher(file.getName());
+                if (matcher.matches()) {
+                    regions.add(new Region(world, Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+                    queued = true;
+                }
+            }
+
+            // Only release dimensions this job holds, not ones kept loaded by someone else
+            if (queued && DimensionManager.keepDimensionLoaded(dimension, true))
+                keptDimensions.add(dimension);
+        }
+
+        private void releaseDimensions() {
+            for (int dimension : keptDimensions) {
+                DimensionManager.keepDimensionLoaded(dimension, false);
+            }
+            keptDimensions.clear();
+        }
+
+        private int getRegionCount() {
+            return regions.size();
+        }
+
+        private int getChunkCount() {
+            return chunkCount;
+        }
+
+        /**
+         * @param budget maximum number of chunks to load
+         * @return true if the job is finished
+         */
+        private boolean process(int budget) {
+            int loaded = 0;
+
+            while (loaded < budget && !regions.isEmpty()) {
+                Region region = regions.peek();
+                ChunkPos pos = region.getChunkPos(chunkIndex);
+                ChunkProviderServer provider = region.world.getChunkProvider();
+
+                if (provider.isChunkGeneratedAt(pos.x, pos.z)) {
+                    Chunk chunk = provider.getLoadedChunk(pos.x, pos.z);
+                    if (chunk != null) {
+                        // Already loaded chunks have been converted by the chunk load handler unless they were loaded
+                        // before the mod could see them, so convert anyway
+                        migrateChunk(chunk);
+                    } else {
+                        // Conversion happens in the chunk load handler
+                        chunk = provider.loadChunk(pos.x, pos.z);
+                        if (chunk != null)
+                            provider.queueUnload(chunk);
+                    }
+                    loaded++;
+                    chunkCount++;
+                }
+
+                chunkIndex++;
+                if (chunkIndex >= REGION_SIZE * REGION_SIZE) {
+                    regions.poll();
+                    chunkIndex = 0;
+                }
+            }
+
+            return regions.isEmpty();
+        }
+    }
+
+    private static class Region {
+        private final WorldServer world;
+        private final int x;
+        private final int z;
+
+        private Region(WorldServer world, int x, int z) {
+            this.world = world;
+            this.x = x;
+            this.z = z;
+        }
+
+        private ChunkPos getChunkPos(int index) {
+            return new ChunkPos(x * REGION_SIZE + index % REGION_SIZE, z * REGION_SIZE + index / REGION_SIZE);
+        }
+    }
+}
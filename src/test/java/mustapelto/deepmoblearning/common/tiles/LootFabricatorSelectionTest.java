@@ -0,0 +1,323 @@
+package mustapelto.deepmoblearning.common.tiles;
+
+import mustapelto.deepmoblearning.DMLConstants;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.profiler.Profiler;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.world.GameType;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldProviderSurface;
+import net.minecraft.world.WorldSettings;
+import net.minecraft.world.WorldType;
+import net.minecraft.world.chunk.IChunkProvider;
+import net.minecraft.world.storage.WorldInfo;
+import net.minecraftforge.fml.common.registry.GameRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Output selection of the Loot Fabricator: the cached selection compared to the old per-tick check, and the
+ * selection of a real TileEntityLootFabricator through slot changes, setOutputItem, metadata reload and NBT.
+ *
+ * The old check recomputed validity on every call and cleared an invalid selection on every tick while the slot
+ * held Pristine Matter. The slot only accepts Pristine Matter, so a non-empty slot always has a loot list.
+ * Pristine Matter items need loaded Data Model metadata, so the tile tests replace the loot list of the slot
+ * contents and fire the slot change event directly.
+ */
+public class LootFabricatorSelectionTest {
+    private static ItemStack pearl;
+    private static ItemStack crystal;
+    private static ItemStack bone;
+    private static ItemStack arrow;
+
+    private static ToIntFunction<ItemStack> enderman;
+    private static ToIntFunction<ItemStack> endermanReloaded;
+    private static ToIntFunction<ItemStack> skeleton;
+
+    @BeforeAll
+    public static void setup() {
+        Bootstrap.register();
+
+        pearl = new ItemStack(Items.ENDER_PEARL, 6);
+        crystal = new ItemStack(Items.END_CRYSTAL, 1);
+        bone = new ItemStack(Items.BONE, 12);
+        arrow = new ItemStack(Items.ARROW, 16);
+
+        enderman = lootList(pearl, crystal);
+        endermanReloaded = lootList(crystal); // Same Pristine Matter after a config reload that removed pearls
+        skeleton = lootList(bone, arrow);
+
+        GameRegistry.registerTileEntity(TestFabricator.class, new ResourceLocation(DMLConstants.ModInfo.ID, "test_loot_fabricator"));
+    }
+
+    private static ToIntFunction<ItemStack> lootList(ItemStack... loot) {
+        List<ItemStack> items = Arrays.asList(loot);
+        return stack -> {
+            for (int i = 0; i < items.size(); i++) {
+                if (ItemStack.areItemStacksEqual(items.get(i), stack))
+                    return i;
+            }
+            return -1;
+        };
+    }
+
+    @Test
+    public void slotSwapsMatchPerTickCheck() {
+        Fabricator fabricator = new Fabricator();
+
+        fabricator.insert(enderman);
+        fabricator.select(pearl);
+        fabricator.check("select pearl");
+        assertTrue(fabricator.selection.isValid());
+
+        fabricator.insert(null);
+        fabricator.check("empty slot");
+        assertTrue(ItemStack.areItemStacksEqual(pearl, fabricator.selection.getItem()), "Emptying the slot keeps the selection");
+        assertFalse(fabricator.selection.isValid());
+
+        fabricator.insert(enderman);
+        fabricator.check("refill with same Pristine Matter");
+        assertTrue(fabricator.selection.isValid());
+
+        fabricator.insert(skeleton);
+        fabricator.check("swap to other Pristine Matter");
+        assertTrue(fabricator.selection.getItem().isEmpty());
+
+        fabricator.select(bone);
+        fabricator.check("select bone");
+        fabricator.select(pearl);
+        fabricator.check("select item of other Pristine Matter");
+        assertTrue(fabricator.selection.getItem().isEmpty());
+
+        fabricator.select(arrow);
+        fabricator.insert(null);
+        fabricator.insert(enderman);
+        fabricator.check("empty slot, refill with other Pristine Matter");
+        assertTrue(fabricator.selection.getItem().isEmpty());
+
+        fabricator.select(pearl);
+        fabricator.insert(endermanReloaded);
+        fabricator.check("reload removes selected item");
+        assertTrue(fabricator.selection.getItem().isEmpty());
+    }
+
+    @Test
+    public void slotChangeKeepsOrClearsSelection() {
+        TestFabricator fabricator = new TestFabricator();
+        fabricator.insert(enderman);
+        fabricator.setOutputItem(pearl);
+        assertSelected(pearl, fabricator);
+
+        fabricator.insert(null);
+        assertSelected(pearl, fabricator); // Emptying the slot keeps the selection
+
+        fabricator.insert(enderman);
+        assertSelected(pearl, fabricator);
+
+        fabricator.insert(skeleton);
+        assertSelected(ItemStack.EMPTY, fabricator);
+    }
+
+    @Test
+    public void setOutputItemRejectsItemsNotInLootList() {
+        TestFabricator fabricator = new TestFabricator();
+        fabricator.insert(enderman);
+
+        fabricator.setOutputItem(crystal);
+        assertSelected(crystal, fabricator);
+
+        fabricator.setOutputItem(bone);
+        assertSelected(ItemStack.EMPTY, fabricator);
+
+        fabricator.insert(null);
+        fabricator.setOutputItem(pearl); // No Pristine Matter -> nothing to select from
+        assertSelected(ItemStack.EMPTY, fabricator);
+    }
+
+    @Test
+    public void metadataReloadValidatesSelection() {
+        TestFabricator fabricator = new TestFabricator();
+        fabricator.insert(enderman);
+        fabricator.setOutputItem(crystal);
+
+        fabricator.reload(endermanReloaded);
+        assertSelected(crystal, fabricator);
+
+        fabricator.setOutputItem(pearl);
+        assertSelected(ItemStack.EMPTY, fabricator);
+
+        fabricator.reload(enderman);
+        fabricator.setOutputItem(pearl);
+        fabricator.reload(endermanReloaded);
+        assertSelected(ItemStack.EMPTY, fabricator);
+    }
+
+    @Test
+    public void selectionSurvivesNbtRoundTrip() {
+        TestFabricator fabricator = new TestFabricator();
+        fabricator.insert(enderman);
+        fabricator.setOutputItem(crystal);
+        NBTTagCompound compound = fabricator.writeToNBT(new NBTTagCompound());
+
+        TestFabricator loaded = new TestFabricator();
+        loaded.lootList = enderman;
+        loaded.readFromNBT(compound);
+        assertSelected(crystal, loaded);
+
+        // Loaded selection is resolved against the loot list -> a later slot change keeps it
+        loaded.insert(null);
+        loaded.insert(enderman);
+        assertSelected(crystal, loaded);
+
+        // Selection that isn't in the current loot list is loaded as is, and cleared by the next slot change
+        TestFabricator reloaded = new TestFabricator();
+        reloaded.lootList = skeleton;
+        reloaded.readFromNBT(compound);
+        assertSelected(crystal, reloaded);
+        reloaded.insert(endermanReloaded);
+        assertSelected(crystal, reloaded);
+        reloaded.insert(skeleton);
+        assertSelected(ItemStack.EMPTY, reloaded);
+    }
+
+    private static void assertSelected(ItemStack expected, TileEntityLootFabricator fabricator) {
+        assertTrue(ItemStack.areItemStacksEqual(expected, fabricator.getOutputItem()),
+                "Expected " + expected + ", selected " + fabricator.getOutputItem());
+    }
+
+    /**
+     * Loot Fabricator in a server world with a replaceable loot list for its input slot
+     */
+    public static class TestFabricator extends TileEntityLootFabricator {
+        @Nullable
+        private ToIntFunction<ItemStack> lootList;
+
+        public TestFabricator() {
+            setWorld(new TestWorld());
+        }
+
+        @Nullable
+        @Override
+        ToIntFunction<ItemStack> getLootList() {
+            return lootList;
+        }
+
+        /**
+         * Put Pristine Matter with lootList in the slot (null = empty slot)
+         */
+        private void insert(@Nullable ToIntFunction<ItemStack> lootList) {
+            if (lootList == this.lootList)
+                return; // Same metadata -> no change event
+
+            this.lootList = lootList;
+            onPristineMatterChanged();
+        }
+
+        /**
+         * Reload metadata, replacing the loot list of the contained Pristine Matter
+         */
+        private void reload(@Nullable ToIntFunction<ItemStack> lootList) {
+            this.lootList = lootList;
+            onMetadataReloaded();
+        }
+    }
+
+    /**
+     * Server world without chunks
+     */
+    private static class TestWorld extends World {
+        private TestWorld() {
+            super(null, new WorldInfo(new WorldSettings(0, GameType.SURVIVAL, false, false, WorldType.DEFAULT), "test"), new WorldProviderSurface(), new Profiler(), false);
+        }
+
+        @Override
+        protected IChunkProvider createChunkProvider() {
+            return null;
+        }
+
+        @Override
+        protected boolean isChunkLoaded(int x, int z, boolean allowEmpty) {
+            return false;
+        }
+    }
+
+    /**
+     * Loot Fabricator reduced to its Pristine Matter slot and output selection, with the old and the new selection
+     */
+    private static class Fabricator {
+        private final PerTickSelection reference = new PerTickSelection();
+        private final LootFabricatorSelection selection = new LootFabricatorSelection();
+        @Nullable
+        private ToIntFunction<ItemStack> lootList;
+
+        /**
+         * Put Pristine Matter with lootList in the slot (null = empty slot)
+         */
+        private void insert(@Nullable ToIntFunction<ItemStack> lootList) {
+            if (lootList == this.lootList)
+                return; // Same metadata -> no change event, in both versions
+
+            this.lootList = lootList;
+            reference.lootList = lootList;
+            reference.onMetadataChanged();
+            selection.validate(lootList);
+        }
+
+        private void select(ItemStack item) {
+            reference.select(item);
+
+            selection.set(item, lootList);
+            if (!selection.isValid())
+                selection.clear();
+        }
+
+        /**
+         * Run one tick and compare both selections
+         */
+        private void check(String step) {
+            reference.tick();
+
+            assertTrue(ItemStack.areItemStacksEqual(reference.item, selection.getItem()), "Selected item differs after " + step);
+            assertEquals(reference.isValid(), selection.isValid(), "Validity differs after " + step);
+        }
+    }
+
+    /**
+     * Selection handling with the old per-tick check
+     */
+    private static class PerTickSelection {
+        private ItemStack item = ItemStack.EMPTY;
+        @Nullable
+        private ToIntFunction<ItemStack> lootList;
+
+        private boolean isValid() {
+            return !item.isEmpty() && lootList != null && lootList.applyAsInt(item) != -1;
+        }
+
+        private void onMetadataChanged() {
+            if (lootList != null && !isValid())
+                item = ItemStack.EMPTY;
+        }
+
+        private void select(ItemStack item) {
+            this.item = item;
+            if (!isValid())
+                this.item = ItemStack.EMPTY;
+        }
+
+        private void tick() {
+            if (lootList != null && !isValid())
+                item = ItemStack.EMPTY;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package mustapelto.deepmoblearning.common.tiles;
+
+import mustapelto.deepmoblearning.common.DMLConfig;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.util.EnumFacing;
+import net.minecraftforge.items.IItemHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Item handler lookups of both machines (what getCapability returns for ITEM_HANDLER_CAPABILITY).
+ *
+ * Capabilities aren't injected without FML, so the tests call getItemHandler directly.
+ */
+public class MachineItemHandlerTest {
+    private static final int LOOKUP_ROUNDS = 100;
+
+    // All facings plus null (internal access)
+    private static final List<EnumFacing> FACINGS = Arrays.asList(EnumFacing.DOWN, EnumFacing.UP, EnumFacing.NORTH, EnumFacing.SOUTH, EnumFacing.WEST, EnumFacing.EAST, null);
+
+    @BeforeAll
+    public static void setup() {
+        Bootstrap.register();
+    }
+
+    @AfterEach
+    public void resetConfig() {
+        DMLConfig.MACHINE_SETTINGS.LEGACY_MACHINE_SIDEDNESS = false;
+    }
+
+    private static List<TileEntityMachine> createMachines() {
+        return Arrays.asList(new TileEntityLootFabricator(), new TileEntitySimulationChamber());
+    }
+
+    @Test
+    public void lookupReturnsSameHandlerPerFacing() {
+        for (TileEntityMachine machine : createMachines()) {
+            for (EnumFacing facing : FACINGS) {
+                IItemHandler handler = machine.getItemHandler(facing);
+                assertNotNull(handler);
+                assertSame(handler, machine.getItemHandler(facing), machine.getClass().getSimpleName() + " facing " + facing);
+            }
+        }
+    }
+
+    @Test
+    public void sidednessChangeRebuildsHandlers() {
+        for (TileEntityMachine machine : createMachines()) {
+            IItemHandler handler = machine.getItemHandler(EnumFacing.UP);
+
+            DMLConfig.MACHINE_SETTINGS.LEGACY_MACHINE_SIDEDNESS = true;
+            IItemHandler legacyHandler = machine.getItemHandler(EnumFacing.UP);
+            assertNotSame(handler, legacyHandler);
+            assertSame(legacyHandler, machine.getItemHandler(EnumFacing.UP));
+
+            DMLConfig.MACHINE_SETTINGS.LEGACY_MACHINE_SIDEDNESS = false;
+            assertNotSame(legacyHandler, machine.getItemHandler(EnumFacing.UP));
+        }
+    }
+
+    @Test
+    public void lookupsDontBuildNewWrappers() {
+        List<CountingMachine> machines = Arrays.asList(new CountingLootFabricator(), new CountingSimulationChamber());
+        for (CountingMachine counting : machines) {
+            TileEntityMachine machine = (TileEntityMachine) counting;
+            String name = machine.getClass().getSuperclass().getSimpleName();
+
+            IItemHandler[] first = new IItemHandler[FACINGS.size()];
+            for (int round = 0; round < LOOKUP_ROUNDS; round++) {
+                for (int i = 0; i < FACINGS.size(); i++) {
+                    IItemHandler handler = machine.getItemHandler(FACINGS.get(i));
+                    if (round == 0)
+                        first[i] = handler;
+                    else
+                        assertSame(first[i], handler, name + " facing " + FACINGS.get(i));
+                }
+            }
+
+            // One wrapper per facing (and one for internal access), built on first lookup
+            assertEquals(EnumFacing.VALUES.length, counting.getBuiltHandlers().size(), name);
+            counting.getBuiltHandlers().forEach((facing, count) -> assertEquals(1, count, name + " facing " + facing));
+            assertEquals(1, counting.getBuiltInternalHandlers(), name);
+        }
+    }
+
+    /**
+     * Machine that counts how often item handler wrappers are built
+     */
+    private interface CountingMachine {
+        Map<EnumFacing, Integer> getBuiltHandlers();
+
+        int getBuiltInternalHandlers();
+    }
+
+    private static class CountingLootFabricator extends TileEntityLootFabricator implements CountingMachine {
+        private final Map<EnumFacing, Integer> builtHandlers = new EnumMap<>(EnumFacing.class);
+        private int builtInternalHandlers = 0;
+
+        @Override
+        protected IItemHandler createItemHandler(@Nullable EnumFacing facing, boolean legacySidedness) {
+            if (facing != null)
+                builtHandlers.merge(facing, 1, Integer::sum);
+            else
+                builtInternalHandlers++;
+            return super.createItemHandler(facing, legacySidedness);
+        }
+
+        @Override
+        public Map<EnumFacing, Integer> getBuiltHandlers() {
+            return builtHandlers;
+        }
+
+        @Override
+        public int getBuiltInternalHandlers() {
+            return builtInternalHandlers;
+        }
+    }
+
+    private static class CountingSimulationChamber extends TileEntitySimulationChamber implements CountingMachine {
+        private final Map<EnumFacing, Integer> builtHandlers = new EnumMap<>(EnumFacing.class);
+        private int builtInternalHandlers = 0;
+
+        @Override
+        protected IItemHandler createItemHandler(@Nullable EnumFacing facing, boolean legacySidedness) {
+            if (facing != null)
+                builtHandlers.merge(facing, 1, Integer::sum);
+            else
+                builtInternalHandlers++;
+            return super.createItemHandler(facing, legacySidedness);
+        }
+
+        @Override
+        public Map<EnumFacing, Integer> getBuiltHandlers() {
+            return builtHandlers;
+        }
+
+        @Override
+        public int getBuiltInternalHandlers() {
+            return builtInternalHandlers;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package mustapelto.deepmoblearning.common.trials;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import mustapelto.deepmoblearning.common.metadata.MetadataDataModelTier.TierTrialData;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the default Trial tiers (settings/DataModelTiers.json) through TrialSimulation.
+ *
+ * Mobs use the Data Model defaults (4 per wave, one every 2 seconds) and die KILL_DELAY ticks after their spawn,
+ * so every wave takes 4 * 40 + KILL_DELAY ticks. The wave logic (TrialWaves) and the affix scheduler are the same
+ * classes a Trial Keystone runs, only the world actions are replaced by counters.
+ */
+public class TrialSimulationTest {
+    private static final int MOBS_PER_WAVE = 4;
+    private static final double SPAWN_DELAY = 2;
+    private static final int SPAWN_INTERVAL = 40;
+    private static final int KILL_DELAY = 20;
+    private static final int WAVE_TICKS = MOBS_PER_WAVE * SPAWN_INTERVAL + KILL_DELAY;
+    private static final int AFFIX_PERIOD = 300;
+    private static final int AFFIX_STAGGER = 20;
+
+    private static final Map<Integer, TierTrialData> tiers = new LinkedHashMap<>();
+
+    @BeforeAll
+    public static void loadTiers() throws Exception {
+        try (InputStream stream = TrialSimulationTest.class.getResourceAsStream("/settings/DataModelTiers.json")) {
+            assertNotNull(stream, "Default DataModelTiers.json not found");
+
+            Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8);
+            JsonArray json = new JsonParser().parse(reader).getAsJsonArray();
+            for (JsonElement entry : json) {
+                JsonObject tier = entry.getAsJsonObject();
+                tiers.put(tier.get("tier").getAsInt(), new TierTrialData(tier.getAsJsonObject("trial")));
+            }
+        }
+        assertFalse(tiers.isEmpty());
+    }
+
+    private static TrialSimulation.Result simulate(TierTrialData tierData) {
+        return TrialSimulation.run(tierData, wave -> MOBS_PER_WAVE, SPAWN_DELAY, KILL_DELAY);
+    }
+
+    @Test
+    public void defaultTiersMatchWaveCountsSpawnsAndDurations() {
+        tiers.forEach((tier, tierData) -> {
+            int maxWave = tierData.getMaxWave();
+            TrialSimulation.Result result = simulate(tierData);
+
+            assertTrue(result.isCompleted(), "Tier " + tier + " did not complete");
+            assertEquals(Collections.nCopies(maxWave, WAVE_TICKS), result.getWaveTicks(), "Wave durations of tier " + tier);
+            assertEquals(Collections.nCopies(maxWave, MOBS_PER_WAVE), result.getWaveSpawns(), "Wave spawns of tier " + tier);
+            assertEquals(maxWave * MOBS_PER_WAVE, result.getTotalSpawns(), "Total spawns of tier " + tier);
+            assertEquals((long) maxWave * WAVE_TICKS + (long) (maxWave - 1) * TrialWaves.WAVE_INTERMISSION, result.getTotalTicks(), "Duration of tier " + tier);
+
+            // Affixes and Glitch rolls run on every wave tick except the one that completes the Trial
+            int activeTicks = maxWave * WAVE_TICKS - 1;
+            assertEquals(activeTicks / TrialWaves.GLITCH_INTERVAL, result.getGlitchRolls(), "Glitch rolls of tier " + tier);
+            assertEquals(expectedAffixRuns(tierData.getAffixes(), activeTicks), result.getAffixRuns(), "Affix runs of tier " + tier);
+        });
+    }
+
+    @Test
+    public void mobsThatNeverDieStopTheTrialAtTheTimeLimit() {
+        TierTrialData tierData = tiers.values().iterator().next();
+        TrialSimulation.Result result = TrialSimulation.run(tierData, wave -> MOBS_PER_WAVE, SPAWN_DELAY, Integer.MAX_VALUE);
+
+        assertFalse(result.isCompleted());
+        assertTrue(result.getWaveTicks().isEmpty());
+        assertEquals(20 * 60 * 60, result.getTotalTicks());
+    }
+
+    /**
+     * Affix task i first runs after AFFIX_PERIOD + i * AFFIX_STAGGER scheduler ticks, then every AFFIX_PERIOD ticks
+     */
+    private static int expectedAffixRuns(int affixes, int schedulerTicks) {
+        int runs = 0;
+        for (int i = 0; i < affixes; i++) {
+            int firstRun = AFFIX_PERIOD + (i * AFFIX_STAGGER) % AFFIX_PERIOD;
+            if (schedulerTicks >= firstRun)
+                runs += (schedulerTicks - firstRun) / AFFIX_PERIOD + 1;
+        }
+        return runs;
+    }
+}
@@ -0,0 +1,147 @@
+package mustapelto.deepmoblearning.common.trials;
+
+import net.minecraft.nbt.NBTTagCompound;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Wave logic as a Trial Keystone runs it (TrialHandler.runTrial -> TrialWaves.tick), including the ticks
+ * on which the Trial tick budget is used up.
+ */
+public class TrialWavesTest {
+    private static final int SPAWN_INTERVAL = 40;
+
+    private static class CountingListener implements TrialWaves.Listener {
+        private int spawns = 0;
+        private boolean spawnsFail = false;
+        private int affixRuns = 0;
+        private int glitchRolls = 0;
+
+        @Override
+        public int getLastWave() {
+            return 2;
+        }
+
+        @Override
+        public int getWaveMobTotal(int wave) {
+            return 4;
+        }
+
+        @Override
+        public int getSpawnInterval() {
+            return SPAWN_INTERVAL;
+        }
+
+        @Override
+        public boolean spawnMob() {
+            if (spawnsFail)
+                return false;
+
+            spawns++;
+            return true;
+        }
+
+        @Override
+        public void onWaveCleared() {}
+
+        @Override
+        public void onNextWave() {}
+
+        @Override
+        public void onTrialComplete() {}
+
+        @Override
+        public void onTrialEnded() {}
+
+        @Override
+        public void runAffixes() {
+            affixRuns++;
+        }
+
+        @Override
+        public void rollGlitch() {
+            glitchRolls++;
+        }
+    }
+
+    @Test
+    public void overBudgetTicksDeferSpawnsAndAffixes() {
+        TrialWaves waves = new TrialWaves();
+        CountingListener listener = new CountingListener();
+
+        for (int i = 0; i < SPAWN_INTERVAL - 1; i++)
+            assertFalse(waves.tick(listener, false));
+        assertEquals(SPAWN_INTERVAL - 1, listener.affixRuns);
+
+        // Spawn is due, but the budget is used up
+        for (int i = 0; i < 10; i++)
+            assertTrue(waves.tick(listener, true));
+        assertEquals(0, listener.spawns);
+        assertEquals(SPAWN_INTERVAL - 1, listener.affixRuns);
+        assertEquals(0, waves.getMobsSpawned());
+
+        // The deferred spawn happens on the first tick with budget left
+        assertFalse(waves.tick(listener, false));
+        assertEquals(1, listener.spawns);
+        assertEquals(1, waves.getMobsSpawned());
+        assertEquals(SPAWN_INTERVAL, listener.affixRuns);
+    }
+
+    @Test
+    public void failedSpawnsAreNotCounted() {
+        TrialWaves waves = new TrialWaves();
+        CountingListener listener = new CountingListener();
+        listener.spawnsFail = true;
+
+        for (int i = 0; i < SPAWN_INTERVAL * 3; i++)
+            waves.tick(listener, false);
+        assertEquals(0, waves.getMobsSpawned());
+
+        // Spawn is retried after the next interval
+        listener.spawnsFail = false;
+        for (int i = 0; i < SPAWN_INTERVAL; i++)
+            waves.tick(listener, false);
+        assertEquals(1, listener.spawns);
+        assertEquals(1, waves.getMobsSpawned());
+    }
+
+    @Test
+    public void glitchRollsFollowInterval() {
+        TrialWaves waves = new TrialWaves();
+        CountingListener listener = new CountingListener();
+
+        for (int i = 0; i < TrialWaves.GLITCH_INTERVAL * 3; i++)
+            waves.tick(listener, false);
+
+        assertEquals(3, listener.glitchRolls);
+    }
+
+    @Test
+    public void stateSurvivesNbtRoundTrip() {
+        TrialWaves waves = new TrialWaves();
+        CountingListener listener = new CountingListener();
+        for (int i = 0; i < SPAWN_INTERVAL * 2; i++)
+            waves.tick(listener, false);
+        waves.onMobDefeated();
+
+        NBTTagCompound compound = new NBTTagCompound();
+        waves.writeToNBT(compound);
+        TrialWaves loaded = new TrialWaves();
+        loaded.readFromNBT(compound);
+
+        assertEquals(waves.getCurrentWave(), loaded.getCurrentWave());
+        assertEquals(waves.getMobsSpawned(), loaded.getMobsSpawned());
+        assertEquals(waves.getMobsDefeated(), loaded.getMobsDefeated());
+
+        // Both continue identically
+        CountingListener loadedListener = new CountingListener();
+        CountingListener originalListener = new CountingListener();
+        for (int i = 0; i < SPAWN_INTERVAL * 3; i++) {
+            waves.tick(originalListener, false);
+            loaded.tick(loadedListener, false);
+        }
+        assertEquals(originalListener.spawns, loadedListener.spawns);
+        assertEquals(originalListener.glitchRolls, loadedListener.glitchRolls);
+    }
+}